@@ -0,0 +1,75 @@
+package com.safetynet.alerts.benchmark;
+
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import com.safetynet.alerts.service.FireStationService;
+import com.safetynet.alerts.service.MedicalRecordService;
+import com.safetynet.alerts.service.PersonService;
+import com.safetynet.alerts.tools.DataGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Generates a data file of the requested size with the DataGenerator and wires the repositories and services on it, without Spring.
+ * The lookup targets are taken in the middle of the lists, so they are neither the first nor the last element.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDataset {
+
+    /* VARIABLES */
+    @Param({"100", "1000", "10000"})
+    public int persons;
+
+    Path dataFile;
+    PersonRepository personRepository;
+    FireStationRepository fireStationRepository;
+    MedicalRecordRepository medicalRecordRepository;
+    MedicalRecordService medicalRecordService;
+    PersonService personService;
+    FireStationService fireStationService;
+
+    Person targetPerson;
+    MedicalRecord targetMedicalRecord;
+    String targetStation;
+    List<String> floodStations;
+
+    /* METHODS */
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dataFile = Files.createTempFile("safetynet-benchmark-" + persons + "-", ".json");
+        new DataGenerator(persons, DataGenerator.DEFAULT_SEED).write(dataFile);
+
+        DataRepository dataRepository = new DataRepository(dataFile.toString());
+        personRepository = new PersonRepository(dataRepository);
+        fireStationRepository = new FireStationRepository(dataRepository);
+        medicalRecordRepository = new MedicalRecordRepository(dataRepository);
+        medicalRecordService = new MedicalRecordService(medicalRecordRepository);
+        personService = new PersonService(personRepository, medicalRecordService);
+        fireStationService = new FireStationService(fireStationRepository, personService, medicalRecordService);
+
+        targetPerson = personRepository.findAll().get(persons / 2);
+        targetMedicalRecord = medicalRecordRepository.findMedicalRecordsByFullName(targetPerson.getFirstName(), targetPerson.getLastName());
+        targetStation = fireStationRepository.getStationNumber(targetPerson.getAddress());
+        floodStations = fireStationRepository.findAll().stream().map(FireStation::getStation).distinct().limit(3).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataFile);
+    }
+}
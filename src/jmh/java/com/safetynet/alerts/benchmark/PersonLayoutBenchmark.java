@@ -0,0 +1,100 @@
+package com.safetynet.alerts.benchmark;
+
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import com.safetynet.alerts.repository.StringDictionary;
+import com.safetynet.alerts.tools.DataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scans of the PersonRepository with the object layout and with the columnar layout, for each size of dataset:
+ * the lookups by address, city and last name, and two aggregates over a city, a count and the distinct phone numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonLayoutBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LayoutDataset {
+
+        @Param({"1000", "10000", "100000"})
+        public int persons;
+
+        @Param({PersonRepository.OBJECT_LAYOUT, PersonRepository.COLUMNAR_LAYOUT})
+        public String layout;
+
+        Path dataFile;
+        PersonRepository personRepository;
+        Person targetPerson;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dataFile = Files.createTempFile("safetynet-layout-benchmark-" + persons + "-", ".json");
+            new DataGenerator(persons, DataGenerator.DEFAULT_SEED).write(dataFile);
+
+            DataRepository dataRepository = new DataRepository(dataFile.toString());
+            personRepository = new PersonRepository(dataRepository, new ChangeLog(), new SimpleMeterRegistry(), new StringDictionary(), layout);
+            personRepository.createListPersons(dataRepository.getData());
+            targetPerson = personRepository.findAll().get(persons / 2);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    @Benchmark
+    public List<Person> findPersonByAddress(LayoutDataset dataset) {
+        return dataset.personRepository.findPersonByAddress(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public List<Person> findPersonsByCity(LayoutDataset dataset) {
+        return dataset.personRepository.findPersonsByCity(dataset.targetPerson.getCity());
+    }
+
+    @Benchmark
+    public List<Person> findPersonsByLastName(LayoutDataset dataset) {
+        return dataset.personRepository.findPersonsByLastName(dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public Person findPersonByFullName(LayoutDataset dataset) {
+        return dataset.personRepository.findPersonByFullName(dataset.targetPerson.getFirstName(), dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public long countPersonsByCity(LayoutDataset dataset) {
+        return dataset.personRepository.streamPersonsByCity(dataset.targetPerson.getCity()).count();
+    }
+
+    @Benchmark
+    public List<String> collectPhonesByCity(LayoutDataset dataset) {
+        return dataset.personRepository.findPhonesByCity(dataset.targetPerson.getCity());
+    }
+}
@@ -0,0 +1,99 @@
+package com.safetynet.alerts.benchmark;
+
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups of the repositories on the in-memory lists, for each size of BenchmarkDataset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    /* PERSONS */
+
+    @Benchmark
+    public Person findPersonByFullName(BenchmarkDataset dataset) {
+        return dataset.personRepository.findPersonByFullName(dataset.targetPerson.getFirstName(), dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public Person findPersonByIndexKey(BenchmarkDataset dataset) {
+        return dataset.personRepository.findByIndexKey(PersonRepository.indexKey(dataset.targetPerson));
+    }
+
+    @Benchmark
+    public List<Person> findPersonsByLastName(BenchmarkDataset dataset) {
+        return dataset.personRepository.findPersonsByLastName(dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public List<Person> findPersonByAddress(BenchmarkDataset dataset) {
+        return dataset.personRepository.findPersonByAddress(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public List<Person> findPersonsByCity(BenchmarkDataset dataset) {
+        return dataset.personRepository.findPersonsByCity(dataset.targetPerson.getCity());
+    }
+
+    @Benchmark
+    public List<Person> findPersonsPage(BenchmarkDataset dataset) {
+        return dataset.personRepository.findPersonsPage(PersonRepository.indexKey(dataset.targetPerson), 50);
+    }
+
+    /* FIRE STATIONS */
+
+    @Benchmark
+    public FireStation getFireStationByAddress(BenchmarkDataset dataset) {
+        return dataset.fireStationRepository.getFireStationByAddress(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public String getStationNumber(BenchmarkDataset dataset) {
+        return dataset.fireStationRepository.getStationNumber(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public List<String> getCoveredAddresses(BenchmarkDataset dataset) {
+        return dataset.fireStationRepository.getCoveredAddresses(dataset.targetStation);
+    }
+
+    @Benchmark
+    public List<FireStation> findFireStationsPage(BenchmarkDataset dataset) {
+        return dataset.fireStationRepository.findFireStationsPage(dataset.targetPerson.getAddress(), 50);
+    }
+
+    /* MEDICAL RECORDS */
+
+    @Benchmark
+    public MedicalRecord findMedicalRecordsByFullName(BenchmarkDataset dataset) {
+        return dataset.medicalRecordRepository.findMedicalRecordsByFullName(dataset.targetPerson.getFirstName(), dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public MedicalRecord findMedicalRecordByIndexKey(BenchmarkDataset dataset) {
+        return dataset.medicalRecordRepository.findByIndexKey(MedicalRecordRepository.indexKey(dataset.targetMedicalRecord));
+    }
+
+    @Benchmark
+    public List<MedicalRecord> findMedicalRecordsPage(BenchmarkDataset dataset) {
+        return dataset.medicalRecordRepository.findMedicalRecordsPage(MedicalRecordRepository.indexKey(dataset.targetMedicalRecord), 50);
+    }
+}
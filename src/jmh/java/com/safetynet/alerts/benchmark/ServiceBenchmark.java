@@ -0,0 +1,110 @@
+package com.safetynet.alerts.benchmark;
+
+import com.safetynet.alerts.controller.dto.ChildAlertDTO;
+import com.safetynet.alerts.controller.dto.CoveredPersonsListDTO;
+import com.safetynet.alerts.controller.dto.FloodAlertDTO;
+import com.safetynet.alerts.controller.dto.PersonAtThisAddressDTO;
+import com.safetynet.alerts.controller.dto.PersonInfoLastNameDTO;
+import com.safetynet.alerts.controller.dto.PersonsListInCaseOfFireDTO;
+import com.safetynet.alerts.exceptions.EmptyResourceException;
+import com.safetynet.alerts.exceptions.ResourceNotFoundException;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lookups and the alert builders of the services, for each size of BenchmarkDataset.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceBenchmark {
+
+    /* MEDICAL RECORDS */
+
+    @Benchmark
+    public MedicalRecord getOneMedicalRecord(BenchmarkDataset dataset) {
+        return dataset.medicalRecordService.getOneMedicalRecord(dataset.targetPerson.getFirstName(), dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public long getAge(BenchmarkDataset dataset) {
+        return dataset.medicalRecordService.getAge(dataset.targetMedicalRecord);
+    }
+
+    @Benchmark
+    public long getAgeByFullName(BenchmarkDataset dataset) {
+        return dataset.medicalRecordService.getAge(dataset.targetPerson.getFirstName(), dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public boolean isChild(BenchmarkDataset dataset) {
+        return dataset.medicalRecordService.isChild(dataset.targetMedicalRecord);
+    }
+
+    /* PERSONS */
+
+    @Benchmark
+    public Person getOnePerson(BenchmarkDataset dataset) throws ResourceNotFoundException {
+        return dataset.personService.getOnePerson(dataset.targetPerson.getFirstName(), dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public List<PersonInfoLastNameDTO> getPersonsByLastName(BenchmarkDataset dataset) throws EmptyResourceException {
+        return dataset.personService.getPersonsByLastName(dataset.targetPerson.getLastName());
+    }
+
+    @Benchmark
+    public List<Person> getPersonsByAddress(BenchmarkDataset dataset) throws EmptyResourceException {
+        return dataset.personService.getPersonsByAddress(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public List<String> getPersonsEmails(BenchmarkDataset dataset) {
+        return dataset.personService.getPersonsEmails(dataset.targetPerson.getCity());
+    }
+
+    /* ALERTS */
+
+    @Benchmark
+    public ChildAlertDTO createChildAlertList(BenchmarkDataset dataset) throws EmptyResourceException {
+        return dataset.personService.createChildAlertList(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public List<PersonAtThisAddressDTO> createPersonsAtThisAddressList(BenchmarkDataset dataset) {
+        return dataset.personService.createPersonsAtThisAddressList(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public CoveredPersonsListDTO createFireStationPersonsList(BenchmarkDataset dataset) {
+        return dataset.fireStationService.createFireStationPersonsList(dataset.targetStation);
+    }
+
+    @Benchmark
+    public List<String> createPhoneList(BenchmarkDataset dataset) {
+        return dataset.fireStationService.createPhoneList(dataset.targetStation);
+    }
+
+    @Benchmark
+    public PersonsListInCaseOfFireDTO createPersonsListInCaseOfFire(BenchmarkDataset dataset) {
+        return dataset.fireStationService.createPersonsListInCaseOfFire(dataset.targetPerson.getAddress());
+    }
+
+    @Benchmark
+    public List<FloodAlertDTO> createFloodAlertList(BenchmarkDataset dataset) {
+        return dataset.fireStationService.createFloodAlertList(dataset.floodStations);
+    }
+}
@@ -0,0 +1,48 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.service.ChangeStreamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class ChangeStreamController {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamController.class);
+
+    private final ChangeStreamService changeStreamService;
+
+    /* CONSTRUCTOR */
+    public ChangeStreamController(ChangeStreamService changeStreamService) {
+        this.changeStreamService = changeStreamService;
+    }
+
+    /* METHODS */
+
+    /**
+     * This endpoint streams every committed change of the persons, fire stations and medical records as Server-Sent Events.
+     * Each event has the sequence of the change as id, the changed list as name, and the change as JSON data:
+     * {"sequence": 12, "entity": "persons", "type": "UPDATED", "key": "John Boyd", "data": {...}}
+     * A subscriber which is too slow, or which resumes from a sequence no longer kept, receives a "resync" event
+     * with the current sequence, then the stream is closed.
+     * Example usage:
+     * GET /changes?since=42
+     *
+     * @param since the sequence of the last change already received, optional.
+     * @param lastEventId the id of the last event received, sent by the browser when it reconnects. It takes precedence over since.
+     * @return the SseEmitter sending the changes.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long afterSequence = lastEventId != null ? lastEventId : since;
+        logger.debug("Received request for the change stream after sequence {}", afterSequence);
+        return changeStreamService.subscribe(afterSequence);
+    }
+}
@@ -0,0 +1,121 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.repository.DataSnapshot;
+import com.safetynet.alerts.service.DataExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+@RestController
+public class DataExportController {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(DataExportController.class);
+
+    private final DataExportService dataExportService;
+
+    /* CONSTRUCTOR */
+    public DataExportController(DataExportService dataExportService) {
+        this.dataExportService = dataExportService;
+    }
+
+    /* METHODS */
+
+    /**
+     * This endpoint returns the whole dataset (persons, fire stations and medical records) in one JSON object.
+     * When the data file is up to date, the opened snapshot is sent as it is, without parsing nor serializing it, and a
+     * Range header can be used to resume an interrupted download. Otherwise, the in-memory data is serialized on the fly.
+     * The file is copied into the servlet output stream through a buffer: this is not a zero-copy sendfile, since Tomcat's
+     * sendfile reopens the file by its name once the request is handled, and could then send a newer version of the file
+     * than the one described by the ETag and the Content-Length.
+     * Example usage:
+     * GET /export
+     * Range: bytes=1024-
+     *
+     * @param range the optional Range header, only a single byte range is supported.
+     * @param ifRange the optional If-Range header, the range is ignored if it does not match the current ETag.
+     * @param response the HTTP response receiving the dataset:
+     *         - 200 OK: the whole dataset,
+     *         - 206 PARTIAL CONTENT: the requested range of the data file,
+     *         - 416 RANGE NOT SATISFIABLE: if the requested range is outside the data file.
+     * @throws IOException if an I/O error occurs while reading the file or writing the response.
+     */
+    @GetMapping("/export")
+    public void exportData(@RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                           @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                           HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try (DataSnapshot snapshot = dataExportService.openPersistedSnapshot()) {
+            if (snapshot == null) {
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+                dataExportService.writeDataset(response.getOutputStream());
+                return;
+            }
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, snapshot.getTag());
+
+            long size = snapshot.getSize();
+            long start = 0;
+            long end = size - 1;
+            HttpRange httpRange = parseSingleRange(range, ifRange, snapshot.getTag());
+            if (httpRange != null) {
+                try {
+                    start = httpRange.getRangeStart(size);
+                    end = httpRange.getRangeEnd(size);
+                } catch (IllegalArgumentException e) {
+                    logger.error("Range not satisfiable for the export: {}", range);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            long length = end - start + 1;
+            response.setContentLengthLong(length);
+            transfer(snapshot.getChannel(), start, length, Channels.newChannel(response.getOutputStream()));
+            logger.info("Exported {} bytes of the data file", length);
+        }
+    }
+
+    /**
+     * Parses the Range header, ignoring it when it is invalid, made of several ranges, or when If-Range does not match.
+     */
+    private HttpRange parseSingleRange(String range, String ifRange, String tag) {
+        if (range == null || (ifRange != null && !ifRange.equals(tag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.getFirst() : null;
+        } catch (IllegalArgumentException e) {
+            logger.warn("Ignoring invalid Range header: {}", range);
+            return null;
+        }
+    }
+
+    private void transfer(FileChannel channel, long position, long length, WritableByteChannel target) throws IOException {
+        long remaining = length;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.controller.dto.SlowRequestDTO;
+import com.safetynet.alerts.diagnostics.SlowRequestLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class DiagnosticsController {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(DiagnosticsController.class);
+
+    private final SlowRequestLog slowRequestLog;
+
+    /* CONSTRUCTOR */
+    public DiagnosticsController(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    /* METHODS */
+
+    /**
+     * This endpoint returns the last requests slower than the alerts.diagnostics.slow-request-threshold property,
+     * the most recent first, with the time spent in each stage: repository lookups, age computations, DTO building,
+     * serialization, and the rest of the request.
+     * Example usage:
+     * GET /diagnostics/slow-requests
+     * Response: [{"method": "GET", "uri": "/flood/stations?stations=1,2", "status": 200, "durationMillis": 812.4,
+     * "stages": [{"stage": "repositoryLookup", "calls": 57, "millis": 640.2}, ...]}]
+     *
+     * @return the list of the slow requests kept, and the HTTP status 200 OK.
+     */
+    @GetMapping(value = "/diagnostics/slow-requests")
+    public ResponseEntity<List<SlowRequestDTO>> getSlowRequests() {
+        List<SlowRequestDTO> slowRequests = slowRequestLog.getSlowRequests();
+        logger.info("Returning {} slow requests", slowRequests.size());
+        return ResponseEntity.ok(slowRequests);
+    }
+
+    /**
+     * This endpoint drops the slow requests kept, to observe a new period.
+     * Example usage:
+     * DELETE /diagnostics/slow-requests
+     *
+     * @return the HTTP status 204 No Content.
+     */
+    @DeleteMapping(value = "/diagnostics/slow-requests")
+    public ResponseEntity<Void> clearSlowRequests() {
+        slowRequestLog.clear();
+        logger.info("Slow requests cleared");
+        return ResponseEntity.noContent().build();
+    }
+}
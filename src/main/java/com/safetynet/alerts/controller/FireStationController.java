@@ -2,22 +2,31 @@ package com.safetynet.alerts.controller;
 
 import com.safetynet.alerts.controller.dto.CoveredPersonsListDTO;
 import com.safetynet.alerts.controller.dto.FloodAlertDTO;
+import com.safetynet.alerts.controller.dto.PageDTO;
 import com.safetynet.alerts.controller.dto.PersonsListInCaseOfFireDTO;
+import com.safetynet.alerts.controller.dto.StationReassignmentDTO;
+import com.safetynet.alerts.controller.dto.StationReassignmentReportDTO;
+import com.safetynet.alerts.diagnostics.Explainable;
 import com.safetynet.alerts.exceptions.ResourceNotFoundException;
 import com.safetynet.alerts.model.FireStation;
 import com.safetynet.alerts.service.FireStationService;
+import com.safetynet.alerts.service.PageCursor;
+import com.safetynet.alerts.service.StationReportService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.Set;
 
 @RestController
 public class FireStationController {
@@ -27,29 +36,52 @@ public class FireStationController {
 
     private final FireStationService fireStationService;
 
+    private final StationReportService stationReportService;
+
     /* CONSTRUCTOR */
-    public FireStationController(FireStationService fireStationService) {
+    public FireStationController(FireStationService fireStationService, StationReportService stationReportService) {
         this.fireStationService = fireStationService;
+        this.stationReportService = stationReportService;
     }
 
     /* METHODS */
 
     /**
      * This endpoint is used to fetch a list of all fire stations.
+     * The JSON array is assembled from the pre-encoded fragment of each fire station and written straight to the response.
      *
-     * @return a list of fire stations in the system.
+     * @param response the HTTP response receiving the list of fire stations in the system.
      *         - 200 OK: successful retrieval of the fire stations.
-     *         - 404 NOT FOUND: if no fire stations are found.
+     * @throws IOException if an I/O error occurs while writing the response.
+     */
+    @GetMapping(value = "/firestations", params = {"!cursor", "!limit"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getFireStations(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        int count = fireStationService.writeFireStations(response.getOutputStream());
+        logger.info("Successful response, found {} fire stations", count);
+    }
+
+    /**
+     * This endpoint returns one page of fire stations, ordered by address.
+     * Example usage:
+     * GET /firestations?limit=50
+     * GET /firestations?limit=50&cursor={nextCursor of the previous page}
+     *
+     * @param cursor the cursor returned with the previous page, to omit for the first page.
+     * @param limit the maximum number of fire stations in the page, between 1 and 1000.
+     * @return a PageDTO containing the fire stations and the cursor of the next page:
+     *         - 200 OK: the requested page,
+     *         - 400 BAD REQUEST: if the cursor or the limit is invalid.
      */
-    @GetMapping("/firestations")
-    public ResponseEntity<List<FireStation>> getFireStations() {
+    @GetMapping(value = "/firestations", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PageDTO<FireStation>> getFireStationsPage(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = PageCursor.DEFAULT_PAGE_SIZE) int limit) {
         try {
-            List<FireStation> fireStations = fireStationService.getFireStations();
-            logger.info("Successful response, found {} fire stations", fireStations.size());
-            return ResponseEntity.ok(fireStations);
-        } catch (ResourceNotFoundException e) {
+            PageDTO<FireStation> page = fireStationService.getFireStationsPage(cursor, limit);
+            logger.info("Returning a page of {} fire stations", page.getItems().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
             logger.error(e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.emptyList());
+            return ResponseEntity.badRequest().build();
         }
     }
 
@@ -62,6 +94,7 @@ public class FireStationController {
      * @return a CoveredPersonsListDTO object containing the list of persons whose address is covered by the fire station.
      */
     @GetMapping("/firestation")
+    @Explainable
     public ResponseEntity<CoveredPersonsListDTO> getFireStationPersonsList(@RequestParam String station_number) {
         logger.debug("Received request to get persons covered by station number: {}", station_number);
         try {
@@ -74,24 +107,39 @@ public class FireStationController {
         }
     }
 
+    /**
+     * This endpoint streams the list of persons covered by a fire station as Server-Sent Events: the current list first,
+     * then a new one each time a change affects the residents of the station or their number of children.
+     * Example usage:
+     * GET /firestation/subscribe?station_number=1
+     *
+     * @param station_number a String representing the fire station number to follow.
+     * @return the SseEmitter sending a "report" event with a CoveredPersonsListDTO for each change.
+     */
+    @GetMapping(value = "/firestation/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeFireStationPersonsList(@RequestParam String station_number) {
+        logger.debug("Received subscription to the persons covered by station number: {}", station_number);
+        return stationReportService.subscribe(station_number);
+    }
+
     /**
      * This endpoint returns a list of phone numbers of persons whose address is covered by a specific fire station.
      * Example usage:
      * GET /phoneAlert?fire_station=2
      *
      * @param firestation_number a String representing the station number for which the phone list is requested.
-     * @return a set of phone numbers for persons covered by the given fire station.
+     * @return the distinct phone numbers of the persons covered by the given fire station.
      */
     @GetMapping("/phoneAlert")
-    public ResponseEntity<Set<String>> getPhoneList(@RequestParam String firestation_number) {
+    public ResponseEntity<List<String>> getPhoneList(@RequestParam String firestation_number) {
         logger.debug("Received request for phone numbers for fire station number: {}", firestation_number);
         try {
-            Set<String> phoneList = fireStationService.createPhoneList(firestation_number);
+            List<String> phoneList = fireStationService.createPhoneList(firestation_number);
             logger.info("Returning {} phone numbers for fire station number: {}", phoneList.size() ,firestation_number);
             return ResponseEntity.ok(phoneList);
         } catch (ResourceNotFoundException e) {
             logger.error(e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.emptySet());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Collections.emptyList());
         }
     }
 
@@ -104,6 +152,7 @@ public class FireStationController {
      * @return a PersonsListInCaseOfFireDTO object containing the persons list.
      */
     @GetMapping("/fire")
+    @Explainable
     public ResponseEntity<PersonsListInCaseOfFireDTO> getPersonsListInCaseOfFire (@RequestParam String address) {
         try {
             PersonsListInCaseOfFireDTO personsList = fireStationService.createPersonsListInCaseOfFire(address);
@@ -124,6 +173,7 @@ public class FireStationController {
      * @return a List of FloodAlertDTO objects containing the address and list of persons living there.
      */
     @GetMapping("/flood/stations")
+    @Explainable
     public ResponseEntity<List<FloodAlertDTO>> getAddressesAndPersonsCovered(@RequestParam List<String> stations) {
         logger.debug("Received request for flood alerts for fire stations: {}", stations);
         try {
@@ -188,6 +238,34 @@ public class FireStationController {
         }
     }
 
+    /**
+     * Moves a set of addresses, or every address of a station, to another station in a single operation.
+     * Example usage:
+     * PUT /firestations/reassign
+     * Body: {"addresses": ["1509 Culver St", "29 15th St"], "toStation": "4"}
+     *   or: {"fromStation": "3", "toStation": "4"}
+     *
+     * @param reassignment a json with the addresses or the station to move and the target station, in the body of the request.
+     * @return a response entity with the report of the reassignment:
+     *         - 200 OK: with the moved addresses, their previous station and the number of people living there,
+     *         - 400 BAD REQUEST: if the request does not give a target station and either addresses or a station to move,
+     *         - 404 NOT FOUND: if no addresses are recorded for the station to move.
+     */
+    @PutMapping(value = "/firestations/reassign")
+    public ResponseEntity<StationReassignmentReportDTO> reassignStations(@RequestBody StationReassignmentDTO reassignment) {
+        try {
+            StationReassignmentReportDTO report = fireStationService.reassignStations(reassignment);
+            logger.info("Successfully reassigned {} addresses to station {}", report.getReassignedAddresses().size(), report.getToStation());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (ResourceNotFoundException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Deletes a fire station matching the given address.
      * Example usage:
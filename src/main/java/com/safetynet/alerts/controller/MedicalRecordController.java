@@ -1,16 +1,23 @@
 package com.safetynet.alerts.controller;
 
+import com.safetynet.alerts.controller.dto.BulkReportDTO;
+import com.safetynet.alerts.controller.dto.PageDTO;
 import com.safetynet.alerts.exceptions.ResourceNotFoundException;
 import com.safetynet.alerts.model.MedicalRecord;
 import com.safetynet.alerts.service.MedicalRecordService;
+import com.safetynet.alerts.service.PageCursor;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
-import java.util.List;
 import java.util.Objects;
 
 @RestController
@@ -29,18 +36,61 @@ public class MedicalRecordController {
 
     /**
      * This endpoint is used to fetch a list of all medical records.
+     * The JSON array is assembled from the pre-encoded fragment of each medical record and written straight to the response.
      *
-     * @return a list of MedicalRecord objects.
+     * @param response the HTTP response receiving the JSON array of MedicalRecord objects.
+     * @throws IOException if an I/O error occurs while writing the response.
      */
-    @GetMapping("/medicalrecords")
-    public List<MedicalRecord> getMedicalRecords() {
-        List<MedicalRecord> medicalRecords = medicalRecordService.getMedicalRecords();
-        if (medicalRecords.isEmpty()) {
+    @GetMapping(value = "/medicalrecords", params = {"!cursor", "!limit"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getMedicalRecords(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        int count = medicalRecordService.writeMedicalRecords(response.getOutputStream());
+        if (count == 0) {
             logger.warn("No medical records found");
         } else {
-            logger.info("Successfully found {} medical records.", medicalRecords.size());
+            logger.info("Successfully found {} medical records.", count);
+        }
+    }
+
+    /**
+     * This endpoint streams all medical records as newline-delimited JSON, one record per line, when the client accepts application/x-ndjson.
+     * Example usage:
+     * GET /medicalrecords
+     * Accept: application/x-ndjson
+     *
+     * @return a StreamingResponseBody writing one MedicalRecord object per line.
+     */
+    @GetMapping(value = "/medicalrecords", params = {"!cursor", "!limit"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamMedicalRecords() {
+        StreamingResponseBody body = outputStream -> {
+            int count = medicalRecordService.streamMedicalRecords(outputStream);
+            logger.info("Successfully streamed {} medical records.", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * This endpoint returns one page of medical records, ordered by last name then first name.
+     * Example usage:
+     * GET /medicalrecords?limit=50
+     * GET /medicalrecords?limit=50&cursor={nextCursor of the previous page}
+     *
+     * @param cursor the cursor returned with the previous page, to omit for the first page.
+     * @param limit the maximum number of medical records in the page, between 1 and 1000.
+     * @return a PageDTO containing the medical records and the cursor of the next page:
+     *         - 200 OK: the requested page,
+     *         - 400 BAD REQUEST: if the cursor or the limit is invalid.
+     */
+    @GetMapping(value = "/medicalrecords", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PageDTO<MedicalRecord>> getMedicalRecordsPage(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = PageCursor.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            PageDTO<MedicalRecord> page = medicalRecordService.getMedicalRecordsPage(cursor, limit);
+            logger.info("Returning a page of {} medical records", page.getItems().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
-        return medicalRecords;
     }
 
     /**
@@ -94,6 +144,33 @@ public class MedicalRecordController {
         }
     }
 
+    /**
+     * This endpoint creates or updates many medical records at once, for example for the nightly feed of a clinic.
+     * The body is either a JSON array of medical records or newline-delimited JSON (one medical record per line), read as a stream.
+     * All the valid medical records are applied together with a single write of the data file.
+     * Example usage:
+     * PUT /medicalrecords/bulk
+     * Content-Type: application/x-ndjson
+     * Body: {"firstName" : "Jane", "lastName" : "Eyre", "birthdate" : "03/06/1984", "medications" : [], "allergies" : []}
+     *       {"firstName" : "Edward", "lastName" : "Rochester", "birthdate" : "12/01/1970", "medications" : [], "allergies" : []}
+     *
+     * @param inputStream the body of the request.
+     * @return a BulkReportDTO with the result of each medical record and the HTTP status:
+     *          - 200 OK: if the feed has been processed, even if some medical records have been rejected,
+     *          - 400 BAD REQUEST: if the body is not valid JSON, in which case nothing is applied.
+     */
+    @PutMapping(value = "/medicalrecords/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkReportDTO> upsertMedicalRecords(InputStream inputStream) {
+        try {
+            BulkReportDTO report = medicalRecordService.upsertMedicalRecords(inputStream);
+            logger.info("Upserted {} medical records, {} rejected.", report.getAppliedCount(), report.getRejectedCount());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * This endpoint deletes a medical record from the system.
      * Example usage:
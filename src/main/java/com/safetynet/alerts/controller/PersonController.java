@@ -1,20 +1,30 @@
 package com.safetynet.alerts.controller;
 
+import com.safetynet.alerts.controller.dto.BulkReportDTO;
 import com.safetynet.alerts.controller.dto.ChildAlertDTO;
+import com.safetynet.alerts.controller.dto.PageDTO;
 import com.safetynet.alerts.controller.dto.PersonInfoLastNameDTO;
+import com.safetynet.alerts.diagnostics.Explainable;
 import com.safetynet.alerts.exceptions.EmptyResourceException;
 import com.safetynet.alerts.exceptions.ResourceNotFoundException;
 import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.service.PageCursor;
 import com.safetynet.alerts.service.PersonService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -35,18 +45,62 @@ public class PersonController {
 
     /**
      * This endpoint is used to fetch a list of all Persons.
+     * The JSON array is assembled from the pre-encoded fragment of each person and written straight to the response.
      *
-     * @return a list of Person objects.
+     * @param response the HTTP response receiving the JSON array of Person objects.
+     * @throws IOException if an I/O error occurs while writing the response.
      */
-    @GetMapping("/persons")
-    public List<Person> getPersons() {
-        List<Person> persons = personService.getPersons();
-        if (persons.isEmpty()) {
+    @GetMapping(value = "/persons", params = {"!cursor", "!limit"}, produces = MediaType.APPLICATION_JSON_VALUE)
+    public void getPersons(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        int count = personService.writePersons(response.getOutputStream());
+        if (count == 0) {
             logger.warn("Nobody found");
         } else {
-            logger.info("Successful response, found {} persons", persons.size());
+            logger.info("Successful response, found {} persons", count);
+        }
+    }
+
+    /**
+     * This endpoint streams all Persons as newline-delimited JSON, one person per line, when the client accepts application/x-ndjson.
+     * The persons are written as they are read from the repository, so the response starts immediately and uses constant memory.
+     * Example usage:
+     * GET /persons
+     * Accept: application/x-ndjson
+     *
+     * @return a StreamingResponseBody writing one Person object per line.
+     */
+    @GetMapping(value = "/persons", params = {"!cursor", "!limit"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPersons() {
+        StreamingResponseBody body = outputStream -> {
+            int count = personService.streamPersons(outputStream);
+            logger.info("Successfully streamed {} persons", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * This endpoint returns one page of persons, ordered by last name then first name.
+     * Example usage:
+     * GET /persons?limit=50
+     * GET /persons?limit=50&cursor={nextCursor of the previous page}
+     *
+     * @param cursor the cursor returned with the previous page, to omit for the first page.
+     * @param limit the maximum number of persons in the page, between 1 and 1000.
+     * @return a PageDTO containing the persons and the cursor of the next page:
+     *         - 200 OK: the requested page,
+     *         - 400 BAD REQUEST: if the cursor or the limit is invalid.
+     */
+    @GetMapping(value = "/persons", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<PageDTO<Person>> getPersonsPage(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = PageCursor.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            PageDTO<Person> page = personService.getPersonsPage(cursor, limit);
+            logger.info("Returning a page of {} persons", page.getItems().size());
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.badRequest().build();
         }
-        return persons;
     }
 
     /**
@@ -99,6 +153,7 @@ public class PersonController {
      * @return a ChildAlertDTO object containing a list of child and a list of other members of the family living at the given address.
      */
     @GetMapping("/childAlert")
+    @Explainable
     public ResponseEntity<ChildAlertDTO> getChildAlertList(@RequestParam String address) {
         try {
             ChildAlertDTO childAlert = personService.createChildAlertList(address);
@@ -122,6 +177,7 @@ public class PersonController {
      * @return a list of String representing emails.
      */
     @GetMapping("/communityEmail")
+    @Explainable
     public ResponseEntity<List<String>> getCommunityEmail(@RequestParam String city) {
         try {
             List<String> emailsList = personService.getPersonsEmails(city);
@@ -133,6 +189,25 @@ public class PersonController {
         }
     }
 
+    /**
+     * This endpoint streams the emails for a given city as newline-delimited JSON strings, when the client accepts application/x-ndjson.
+     * Example usage:
+     * GET /communityEmail?city=Paris
+     * Accept: application/x-ndjson
+     *
+     * @param city a String representing the city for which we make the request.
+     * @return a StreamingResponseBody writing one email per line.
+     */
+    @GetMapping(value = "/communityEmail", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCommunityEmail(@RequestParam String city) {
+        Iterator<String> emails = personService.findPersonsEmails(city);
+        StreamingResponseBody body = outputStream -> {
+            int count = personService.streamEmails(emails, outputStream);
+            logger.info("Successfully streamed {} emails for the city {}", count, city);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     /**
      * This endpoint add a Person to the system.
      * It takes a json of a person in the body.
@@ -162,6 +237,33 @@ public class PersonController {
         return ResponseEntity.created(location).build();
     }
 
+    /**
+     * This endpoint imports many persons at once, for example when onboarding a new town.
+     * The body is either a JSON array of persons or newline-delimited JSON (one person per line), read as a stream.
+     * All the valid persons are added together with a single write of the data file.
+     * Example usage:
+     * POST /persons/bulk
+     * Content-Type: application/x-ndjson
+     * Body: {"firstName": "Anne", "lastName": "Shirley", ...}
+     *       {"firstName": "Diana", "lastName": "Barry", ...}
+     *
+     * @param inputStream the body of the request.
+     * @return a BulkReportDTO with the result of each person and the HTTP status:
+     *         - 200 OK: if the import has been processed, even if some persons have been rejected,
+     *         - 400 BAD REQUEST: if the body is not valid JSON, in which case nobody is imported.
+     */
+    @PostMapping(value = "/persons/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkReportDTO> importPersons(InputStream inputStream) {
+        try {
+            BulkReportDTO report = personService.importPersons(inputStream);
+            logger.info("Imported {} persons, {} rejected", report.getAppliedCount(), report.getRejectedCount());
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Update an existing person from the system with new details.
      * Example usage:
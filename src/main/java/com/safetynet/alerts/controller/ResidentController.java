@@ -0,0 +1,67 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.controller.dto.BulkReportDTO;
+import com.safetynet.alerts.controller.dto.FullNameDTO;
+import com.safetynet.alerts.exceptions.ResourceNotFoundException;
+import com.safetynet.alerts.service.ResidentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+public class ResidentController {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(ResidentController.class);
+
+    private final ResidentService residentService;
+
+    /* CONSTRUCTOR */
+    public ResidentController(ResidentService residentService) {
+        this.residentService = residentService;
+    }
+
+    /* METHODS */
+
+    /**
+     * This endpoint deletes a resident: the person and their medical record, in a single operation.
+     * Example usage:
+     * DELETE /resident?first_name=Anne&last_name=Shirley
+     *
+     * @param first_name a String representing the resident's first name, to add in the url.
+     * @param last_name a String representing the resident's last name, to add in the url.
+     * @return ResponseEntity<Void> indicating the HTTP status:
+     *        - 200 OK: if the resident has been successfully deleted,
+     *        - 404 NOT FOUND: if neither a person nor a medical record has been found.
+     */
+    @DeleteMapping(value = "/resident")
+    public ResponseEntity<Void> deleteResident(@RequestParam String first_name, @RequestParam String last_name) {
+        try {
+            residentService.deleteResident(first_name, last_name);
+            logger.info("Successfully deleted resident {} {}", first_name, last_name);
+            return ResponseEntity.ok().build();
+        } catch (ResourceNotFoundException e) {
+            logger.error(e.getMessage());
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * This endpoint deletes many residents at once, with their medical records.
+     * Example usage:
+     * DELETE /residents
+     * Body: [{"firstName": "Anne", "lastName": "Shirley"}, {"firstName": "Diana", "lastName": "Barry"}]
+     *
+     * @param fullNames a json array of the names of the residents to delete, in the body of the request.
+     * @return a BulkReportDTO with the result of each name and the HTTP status 200 OK.
+     */
+    @DeleteMapping(value = "/residents")
+    public ResponseEntity<BulkReportDTO> deleteResidents(@RequestBody List<FullNameDTO> fullNames) {
+        BulkReportDTO report = residentService.deleteResidents(fullNames);
+        logger.info("Deleted {} residents, {} not found", report.getAppliedCount(), report.getRejectedCount());
+        return ResponseEntity.ok(report);
+    }
+}
@@ -0,0 +1,44 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.controller.dto.SyncDTO;
+import com.safetynet.alerts.service.SyncService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SyncController {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(SyncController.class);
+
+    private final SyncService syncService;
+
+    /* CONSTRUCTOR */
+    public SyncController(SyncService syncService) {
+        this.syncService = syncService;
+    }
+
+    /* METHODS */
+
+    /**
+     * This endpoint returns the persons, fire stations and medical records changed or deleted after the given version,
+     * so a client reconnecting only downloads the changes. Deleted entities are given by their key (full name or address).
+     * Without a version, or with a version which is not known anymore, the whole dataset is returned with "full": true.
+     * Example usage:
+     * GET /sync?since=42
+     * Response: {"version": 45, "full": false, "persons": [...], "deletedMedicalRecords": ["John Boyd"]}
+     *
+     * @param since the version returned by the previous synchronisation, optional.
+     * @return a SyncDTO with the new version and the changes, and the HTTP status 200 OK.
+     */
+    @GetMapping(value = "/sync")
+    public ResponseEntity<SyncDTO> sync(@RequestParam(required = false) Long since) {
+        SyncDTO sync = syncService.getChangesSince(since);
+        logger.info("Synchronisation from version {} to {}, full: {}", since, sync.getVersion(), sync.isFull());
+        return ResponseEntity.ok(sync);
+    }
+}
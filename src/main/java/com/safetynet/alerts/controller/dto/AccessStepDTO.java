@@ -0,0 +1,49 @@
+package com.safetynet.alerts.controller.dto;
+
+public class AccessStepDTO {
+    private final String entity;
+    private final String lookup;
+    private final String access;
+    private final int calls;
+    private final long touched;
+    private final long indexHits;
+    private final double millis;
+
+    public AccessStepDTO(String entity, String lookup, String access, int calls, long touched, long indexHits, double millis) {
+        this.entity = entity;
+        this.lookup = lookup;
+        this.access = access;
+        this.calls = calls;
+        this.touched = touched;
+        this.indexHits = indexHits;
+        this.millis = millis;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public String getLookup() {
+        return lookup;
+    }
+
+    public String getAccess() {
+        return access;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public long getTouched() {
+        return touched;
+    }
+
+    public long getIndexHits() {
+        return indexHits;
+    }
+
+    public double getMillis() {
+        return millis;
+    }
+}
@@ -0,0 +1,31 @@
+package com.safetynet.alerts.controller.dto;
+
+public class BulkItemResultDTO {
+    private final int index;
+    private final String key;
+    private final BulkItemStatus status;
+    private final String message;
+
+    public BulkItemResultDTO(int index, String key, BulkItemStatus status, String message) {
+        this.index = index;
+        this.key = key;
+        this.status = status;
+        this.message = message;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public BulkItemStatus getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,11 @@
+package com.safetynet.alerts.controller.dto;
+
+public enum BulkItemStatus {
+    CREATED,
+    UPDATED,
+    SUPERSEDED,
+    DELETED,
+    DUPLICATE,
+    INVALID,
+    NOT_FOUND
+}
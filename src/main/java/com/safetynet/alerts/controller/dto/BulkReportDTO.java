@@ -0,0 +1,27 @@
+package com.safetynet.alerts.controller.dto;
+
+import java.util.List;
+
+public class BulkReportDTO {
+    private final int appliedCount;
+    private final int rejectedCount;
+    private final List<BulkItemResultDTO> results;
+
+    public BulkReportDTO(int appliedCount, int rejectedCount, List<BulkItemResultDTO> results) {
+        this.appliedCount = appliedCount;
+        this.rejectedCount = rejectedCount;
+        this.results = results;
+    }
+
+    public int getAppliedCount() {
+        return appliedCount;
+    }
+
+    public int getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public List<BulkItemResultDTO> getResults() {
+        return results;
+    }
+}
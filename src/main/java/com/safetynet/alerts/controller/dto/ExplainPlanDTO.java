@@ -0,0 +1,27 @@
+package com.safetynet.alerts.controller.dto;
+
+import java.util.List;
+
+public class ExplainPlanDTO {
+    private final double elapsedMillis;
+    private final List<AccessStepDTO> accesses;
+    private final List<StageTimingDTO> stages;
+
+    public ExplainPlanDTO(double elapsedMillis, List<AccessStepDTO> accesses, List<StageTimingDTO> stages) {
+        this.elapsedMillis = elapsedMillis;
+        this.accesses = accesses;
+        this.stages = stages;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public List<AccessStepDTO> getAccesses() {
+        return accesses;
+    }
+
+    public List<StageTimingDTO> getStages() {
+        return stages;
+    }
+}
@@ -0,0 +1,19 @@
+package com.safetynet.alerts.controller.dto;
+
+public class ExplainedResultDTO {
+    private final Object result;
+    private final ExplainPlanDTO explain;
+
+    public ExplainedResultDTO(Object result, ExplainPlanDTO explain) {
+        this.result = result;
+        this.explain = explain;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public ExplainPlanDTO getExplain() {
+        return explain;
+    }
+}
@@ -0,0 +1,29 @@
+package com.safetynet.alerts.controller.dto;
+
+public class FullNameDTO {
+    private String firstName;
+    private String lastName;
+
+    public FullNameDTO() {}
+
+    public FullNameDTO(String firstName, String lastName) {
+        this.firstName = firstName;
+        this.lastName = lastName;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+}
@@ -0,0 +1,24 @@
+package com.safetynet.alerts.controller.dto;
+
+import java.util.List;
+
+public class PageDTO<T> {
+    private final List<T> items;
+    private final String nextCursor;
+
+    public PageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * @return the opaque cursor to send back to get the next page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,25 @@
+package com.safetynet.alerts.controller.dto;
+
+public class ReassignedAddressDTO {
+    private final String address;
+    private final String previousStation;
+    private final int peopleCount;
+
+    public ReassignedAddressDTO(String address, String previousStation, int peopleCount) {
+        this.address = address;
+        this.previousStation = previousStation;
+        this.peopleCount = peopleCount;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getPreviousStation() {
+        return previousStation;
+    }
+
+    public int getPeopleCount() {
+        return peopleCount;
+    }
+}
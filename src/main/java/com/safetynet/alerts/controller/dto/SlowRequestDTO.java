@@ -0,0 +1,46 @@
+package com.safetynet.alerts.controller.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public class SlowRequestDTO {
+    private final Instant startedAt;
+    private final String method;
+    private final String uri;
+    private final int status;
+    private final double durationMillis;
+    private final List<StageTimingDTO> stages;
+
+    public SlowRequestDTO(Instant startedAt, String method, String uri, int status, double durationMillis, List<StageTimingDTO> stages) {
+        this.startedAt = startedAt;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.durationMillis = durationMillis;
+        this.stages = stages;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public double getDurationMillis() {
+        return durationMillis;
+    }
+
+    public List<StageTimingDTO> getStages() {
+        return stages;
+    }
+}
@@ -0,0 +1,25 @@
+package com.safetynet.alerts.controller.dto;
+
+public class StageTimingDTO {
+    private final String stage;
+    private final int calls;
+    private final double millis;
+
+    public StageTimingDTO(String stage, int calls, double millis) {
+        this.stage = stage;
+        this.calls = calls;
+        this.millis = millis;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+
+    public int getCalls() {
+        return calls;
+    }
+
+    public double getMillis() {
+        return millis;
+    }
+}
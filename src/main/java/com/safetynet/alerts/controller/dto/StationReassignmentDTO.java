@@ -0,0 +1,41 @@
+package com.safetynet.alerts.controller.dto;
+
+import java.util.List;
+
+public class StationReassignmentDTO {
+    private List<String> addresses;
+    private String fromStation;
+    private String toStation;
+
+    public StationReassignmentDTO() {}
+
+    public StationReassignmentDTO(List<String> addresses, String fromStation, String toStation) {
+        this.addresses = addresses;
+        this.fromStation = fromStation;
+        this.toStation = toStation;
+    }
+
+    public List<String> getAddresses() {
+        return addresses;
+    }
+
+    public void setAddresses(List<String> addresses) {
+        this.addresses = addresses;
+    }
+
+    public String getFromStation() {
+        return fromStation;
+    }
+
+    public void setFromStation(String fromStation) {
+        this.fromStation = fromStation;
+    }
+
+    public String getToStation() {
+        return toStation;
+    }
+
+    public void setToStation(String toStation) {
+        this.toStation = toStation;
+    }
+}
@@ -0,0 +1,39 @@
+package com.safetynet.alerts.controller.dto;
+
+import java.util.List;
+
+public class StationReassignmentReportDTO {
+    private final String toStation;
+    private final int reassignedPeopleCount;
+    private final List<ReassignedAddressDTO> reassignedAddresses;
+    private final List<String> unchangedAddresses;
+    private final List<String> notFoundAddresses;
+
+    public StationReassignmentReportDTO(String toStation, int reassignedPeopleCount, List<ReassignedAddressDTO> reassignedAddresses, List<String> unchangedAddresses, List<String> notFoundAddresses) {
+        this.toStation = toStation;
+        this.reassignedPeopleCount = reassignedPeopleCount;
+        this.reassignedAddresses = reassignedAddresses;
+        this.unchangedAddresses = unchangedAddresses;
+        this.notFoundAddresses = notFoundAddresses;
+    }
+
+    public String getToStation() {
+        return toStation;
+    }
+
+    public int getReassignedPeopleCount() {
+        return reassignedPeopleCount;
+    }
+
+    public List<ReassignedAddressDTO> getReassignedAddresses() {
+        return reassignedAddresses;
+    }
+
+    public List<String> getUnchangedAddresses() {
+        return unchangedAddresses;
+    }
+
+    public List<String> getNotFoundAddresses() {
+        return notFoundAddresses;
+    }
+}
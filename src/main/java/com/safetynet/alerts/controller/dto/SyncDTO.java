@@ -0,0 +1,66 @@
+package com.safetynet.alerts.controller.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class SyncDTO {
+    private final long version;
+    private final boolean full;
+    private final List<Person> persons;
+    private final List<FireStation> fireStations;
+    private final List<MedicalRecord> medicalRecords;
+    private final List<String> deletedPersons;
+    private final List<String> deletedFireStations;
+    private final List<String> deletedMedicalRecords;
+
+    public SyncDTO(long version, boolean full, List<Person> persons, List<FireStation> fireStations, List<MedicalRecord> medicalRecords,
+                   List<String> deletedPersons, List<String> deletedFireStations, List<String> deletedMedicalRecords) {
+        this.version = version;
+        this.full = full;
+        this.persons = persons;
+        this.fireStations = fireStations;
+        this.medicalRecords = medicalRecords;
+        this.deletedPersons = deletedPersons;
+        this.deletedFireStations = deletedFireStations;
+        this.deletedMedicalRecords = deletedMedicalRecords;
+    }
+
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    public long getVersion() {
+        return version;
+    }
+
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    public boolean isFull() {
+        return full;
+    }
+
+    public List<Person> getPersons() {
+        return persons;
+    }
+
+    public List<FireStation> getFireStations() {
+        return fireStations;
+    }
+
+    public List<MedicalRecord> getMedicalRecords() {
+        return medicalRecords;
+    }
+
+    public List<String> getDeletedPersons() {
+        return deletedPersons;
+    }
+
+    public List<String> getDeletedFireStations() {
+        return deletedFireStations;
+    }
+
+    public List<String> getDeletedMedicalRecords() {
+        return deletedMedicalRecords;
+    }
+}
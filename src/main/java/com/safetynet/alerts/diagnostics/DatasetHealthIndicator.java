@@ -0,0 +1,52 @@
+package com.safetynet.alerts.diagnostics;
+
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import com.safetynet.alerts.service.DatasetLoader;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the state of the load of the dataset as the dataset health contributor, included in the readiness group:
+ * out of service while the data is loading or warming up, up with the size of the lists once it is ready, down if the load failed.
+ * The liveness group does not include it, so a slow load never gets the application restarted.
+ */
+@Component("dataset")
+public class DatasetHealthIndicator implements HealthIndicator {
+
+    /* VARIABLES */
+    private final DatasetLoader datasetLoader;
+    private final PersonRepository personRepository;
+    private final FireStationRepository fireStationRepository;
+    private final MedicalRecordRepository medicalRecordRepository;
+
+    /* CONSTRUCTOR */
+    public DatasetHealthIndicator(DatasetLoader datasetLoader, PersonRepository personRepository,
+                                  FireStationRepository fireStationRepository, MedicalRecordRepository medicalRecordRepository) {
+        this.datasetLoader = datasetLoader;
+        this.personRepository = personRepository;
+        this.fireStationRepository = fireStationRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+    }
+
+    /* METHODS */
+
+    @Override
+    public Health health() {
+        return switch (datasetLoader.getState()) {
+            case LOADING -> Health.outOfService().withDetail("state", "loading").build();
+            case WARMING_UP -> Health.outOfService().withDetail("state", "warming-up").build();
+            case FAILED -> Health.down(datasetLoader.getFailure()).withDetail("state", "failed").build();
+            case READY -> Health.up()
+                    .withDetail("state", "ready")
+                    .withDetail("loadMillis", datasetLoader.getLoadMillis())
+                    .withDetail("persons", personRepository.findAll().size())
+                    .withDetail("firestations", fireStationRepository.findAll().size())
+                    .withDetail("medicalrecords", medicalRecordRepository.findAll().size())
+                    .withDetail("warmUpCalls", datasetLoader.getWarmUpCalls())
+                    .build();
+        };
+    }
+}
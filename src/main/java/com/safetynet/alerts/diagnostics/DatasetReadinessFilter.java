@@ -0,0 +1,55 @@
+package com.safetynet.alerts.diagnostics;
+
+import com.safetynet.alerts.service.DatasetLoader;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers 503 Service Unavailable with a Retry-After header to the requests received before the dataset is loaded,
+ * instead of answering them from empty lists, and 500 if the load failed. The requests are served during the warm-up,
+ * as the data is loaded. The actuator endpoints are always served, so the probes can follow the load.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DatasetReadinessFilter extends OncePerRequestFilter {
+
+    /* VARIABLES */
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final DatasetLoader datasetLoader;
+
+    /* CONSTRUCTOR */
+    public DatasetReadinessFilter(DatasetLoader datasetLoader) {
+        this.datasetLoader = datasetLoader;
+    }
+
+    /* METHODS */
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        switch (datasetLoader.getState()) {
+            case READY, WARMING_UP -> filterChain.doFilter(request, response);
+            case LOADING -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "The dataset is loading");
+            }
+            case FAILED -> response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "The dataset could not be loaded");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.safetynet.alerts.diagnostics;
+
+import com.safetynet.alerts.controller.dto.AccessStepDTO;
+import com.safetynet.alerts.controller.dto.ExplainPlanDTO;
+import com.safetynet.alerts.controller.dto.ExplainedResultDTO;
+import com.safetynet.alerts.controller.dto.StageTimingDTO;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.List;
+
+/**
+ * Returns the result of an Explainable endpoint called with explain=true alongside its plan: the accesses made to
+ * each repository, by index or by scan, and the time of the stages closed before the serialization of the result.
+ */
+@ControllerAdvice
+public class ExplainAdvice implements ResponseBodyAdvice<Object> {
+
+    /* METHODS */
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return returnType.hasMethodAnnotation(Explainable.class);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTrace trace = RequestTrace.current();
+        if (trace == null || !trace.isExplaining()) {
+            return body;
+        }
+        List<AccessStepDTO> accesses = trace.getAccesses().stream()
+                .map(access -> new AccessStepDTO(access.getEntity(), access.getLookup(), access.getAccess(), access.getCalls(),
+                        access.getTouched(), access.getHits(), toMillis(access.getNanos())))
+                .toList();
+        List<StageTimingDTO> stages = trace.getClosedStages().entrySet().stream()
+                .map(stage -> new StageTimingDTO(stage.getKey(), stage.getValue().getCalls(), toMillis(stage.getValue().getNanos())))
+                .toList();
+        return new ExplainedResultDTO(body, new ExplainPlanDTO(toMillis(trace.getElapsedNanos()), accesses, stages));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
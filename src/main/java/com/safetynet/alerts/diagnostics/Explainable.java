@@ -0,0 +1,17 @@
+package com.safetynet.alerts.diagnostics;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint whose response can be explained: called with explain=true, its result is returned with the
+ * accesses made to the repositories and the time of each stage, by the ExplainAdvice.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Explainable {
+}
@@ -0,0 +1,316 @@
+package com.safetynet.alerts.diagnostics;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The time spent by the request of the current thread in each stage: repository lookups, age computations, DTO building
+ * and serialization. The stages nest, and each one only counts its own time, not the time of the stages it contains:
+ * an alert builder waiting for a lookup does not count the lookup twice.
+ * Outside of a traced request, entering a stage only costs a read of a ThreadLocal.
+ * When the request asks to be explained, the trace also counts the accesses to each repository: by index or by scan,
+ * with the entities touched, the index hits and the time of each access.
+ */
+public final class RequestTrace {
+
+    /* VARIABLES */
+    public static final String REPOSITORY_LOOKUP = "repositoryLookup";
+    public static final String AGE_COMPUTATION = "ageComputation";
+    public static final String DTO_BUILDING = "dtoBuilding";
+    public static final String SERIALIZATION = "serialization";
+    public static final String OTHER = "other";
+    public static final String INDEX = "index";
+    public static final String SCAN = "scan";
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final Span NO_SPAN = new Span(null, null);
+
+    private final long startNanos = System.nanoTime();
+    private long totalNanos = -1;
+    private final Map<String, StageTime> stages = new LinkedHashMap<>();
+    private final Deque<Span> openSpans = new ArrayDeque<>();
+    private boolean explaining;
+    private final Map<String, AccessStats> accesses = new LinkedHashMap<>();
+
+    /* CONSTRUCTOR */
+    private RequestTrace() {
+    }
+
+    /* METHODS */
+
+    /**
+     * Starts tracing the request of the current thread.
+     *
+     * @return the trace of the request, to finish once the response is written.
+     */
+    public static RequestTrace start() {
+        RequestTrace trace = new RequestTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Enters a stage of the request of the current thread, until the returned span is closed.
+     *
+     * @param stage the name of the stage.
+     * @return the span of the stage, which does nothing if the current thread does not trace a request.
+     */
+    public static Span enter(String stage) {
+        RequestTrace trace = CURRENT.get();
+        if (trace == null) {
+            return NO_SPAN;
+        }
+        Span span = new Span(trace, stage);
+        trace.openSpans.push(span);
+        return span;
+    }
+
+    /**
+     * Gives the trace of the request of the current thread.
+     *
+     * @return the trace, or null if the current thread does not trace a request.
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Records an access to a repository which is not timed, like reading a whole list, if the request is explained.
+     *
+     * @param entity the name of the list.
+     * @param lookup the name of the lookup.
+     * @param access INDEX or SCAN.
+     * @param touched the number of entities touched.
+     * @param hits the number of entities found through the index.
+     */
+    public static void recordAccess(String entity, String lookup, String access, int touched, int hits) {
+        RequestTrace trace = CURRENT.get();
+        if (trace != null && trace.explaining) {
+            trace.addAccess(entity, lookup, access, touched, hits, 0);
+        }
+    }
+
+    /**
+     * Asks the trace to count the accesses to the repositories, to explain the request.
+     */
+    public void explain() {
+        explaining = true;
+    }
+
+    public boolean isExplaining() {
+        return explaining;
+    }
+
+    /**
+     * Gives the accesses to the repositories counted so far, in the order they were first made.
+     *
+     * @return the accesses, grouped by list, lookup and kind of access.
+     */
+    public List<AccessStats> getAccesses() {
+        return new ArrayList<>(accesses.values());
+    }
+
+    /**
+     * Gives the time of the stages already closed, while the request is still running.
+     *
+     * @return the time and the number of calls of each stage closed so far, keyed by the name of the stage.
+     */
+    public Map<String, StageTime> getClosedStages() {
+        Map<String, StageTime> result = new LinkedHashMap<>();
+        stages.forEach((stage, time) -> result.put(stage, new StageTime(time.getNanos(), time.getCalls())));
+        return result;
+    }
+
+    /**
+     * Gives the time elapsed since the start of the request.
+     *
+     * @return the elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return totalNanos < 0 ? System.nanoTime() - startNanos : totalNanos;
+    }
+
+    /**
+     * Stops tracing the request: the stages still open, left by an exception for instance, are closed.
+     *
+     * @return the total duration of the request in nanoseconds.
+     */
+    public long finish() {
+        while (!openSpans.isEmpty()) {
+            openSpans.peek().close();
+        }
+        CURRENT.remove();
+        totalNanos = System.nanoTime() - startNanos;
+        return totalNanos;
+    }
+
+    /**
+     * Gives the time of each stage, in the order they were first entered, followed by the time outside of any stage.
+     *
+     * @return the time and the number of calls of each stage, keyed by the name of the stage.
+     * @throws IllegalStateException if the trace is not finished.
+     */
+    public Map<String, StageTime> getStages() {
+        if (totalNanos < 0) {
+            throw new IllegalStateException("The request trace is not finished");
+        }
+        Map<String, StageTime> result = new LinkedHashMap<>(stages);
+        long stagesNanos = stages.values().stream().mapToLong(StageTime::getNanos).sum();
+        result.put(OTHER, new StageTime(Math.max(totalNanos - stagesNanos, 0), 1));
+        return result;
+    }
+
+    private void addAccess(String entity, String lookup, String access, int touched, int hits, long nanos) {
+        accesses.computeIfAbsent(entity + '/' + lookup + '/' + access, key -> new AccessStats(entity, lookup, access))
+                .add(touched, hits, nanos);
+    }
+
+    private long close(Span span) {
+        if (!openSpans.contains(span)) {
+            return -1;
+        }
+        while (openSpans.peek() != span) {
+            openSpans.peek().close();
+        }
+        openSpans.pop();
+        long elapsed = System.nanoTime() - span.startNanos;
+        stages.computeIfAbsent(span.stage, stage -> new StageTime(0, 0)).add(elapsed - span.childNanos, 1);
+        Span parent = openSpans.peek();
+        if (parent != null) {
+            parent.childNanos += elapsed;
+        }
+        return elapsed;
+    }
+
+    /**
+     * A stage entered by the request, closed once the stage is over.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final RequestTrace trace;
+        private final String stage;
+        private final long startNanos;
+        private long childNanos;
+
+        private Span(RequestTrace trace, String stage) {
+            this.trace = trace;
+            this.stage = stage;
+            this.startNanos = trace == null ? 0 : System.nanoTime();
+        }
+
+        /**
+         * Ends the stage, and the stages entered inside it which are still open. Closing it again does nothing.
+         */
+        @Override
+        public void close() {
+            if (trace != null) {
+                trace.close(this);
+            }
+        }
+
+        /**
+         * Ends the stage of an access to a repository, and counts the access if the request is explained.
+         *
+         * @param entity the name of the list.
+         * @param lookup the name of the lookup.
+         * @param access INDEX or SCAN.
+         * @param touched the number of entities touched.
+         * @param hits the number of entities found through the index.
+         */
+        public void closeAccess(String entity, String lookup, String access, int touched, int hits) {
+            if (trace == null) {
+                return;
+            }
+            long elapsed = trace.close(this);
+            if (elapsed >= 0 && trace.explaining) {
+                trace.addAccess(entity, lookup, access, touched, hits, elapsed);
+            }
+        }
+    }
+
+    /**
+     * The time spent in a stage and the number of times it was entered.
+     */
+    public static final class StageTime {
+
+        private long nanos;
+        private int calls;
+
+        StageTime(long nanos, int calls) {
+            this.nanos = nanos;
+            this.calls = calls;
+        }
+
+        private void add(long nanos, int calls) {
+            this.nanos += nanos;
+            this.calls += calls;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+    }
+
+    /**
+     * The accesses of a request to a repository with one lookup and one kind of access.
+     */
+    public static final class AccessStats {
+
+        private final String entity;
+        private final String lookup;
+        private final String access;
+        private int calls;
+        private long touched;
+        private long hits;
+        private long nanos;
+
+        AccessStats(String entity, String lookup, String access) {
+            this.entity = entity;
+            this.lookup = lookup;
+            this.access = access;
+        }
+
+        private void add(int touched, int hits, long nanos) {
+            this.calls++;
+            this.touched += touched;
+            this.hits += hits;
+            this.nanos += nanos;
+        }
+
+        public String getEntity() {
+            return entity;
+        }
+
+        public String getLookup() {
+            return lookup;
+        }
+
+        public String getAccess() {
+            return access;
+        }
+
+        public int getCalls() {
+            return calls;
+        }
+
+        public long getTouched() {
+            return touched;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.safetynet.alerts.diagnostics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Traces each request from its arrival to the end of its response, and gives the slow ones to the SlowRequestLog.
+ * A request with explain=true also counts its accesses to the repositories, for the ExplainAdvice.
+ * The streamed and asynchronous responses are only traced until the request thread returns. The diagnostics and
+ * actuator endpoints are not traced, so reading the slow request log does not fill it.
+ */
+@Component
+public class SlowRequestFilter extends OncePerRequestFilter {
+
+    /* VARIABLES */
+    private final SlowRequestLog slowRequestLog;
+
+    /* CONSTRUCTOR */
+    public SlowRequestFilter(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    /* METHODS */
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/diagnostics/") || path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestTrace trace = RequestTrace.start();
+        if (Boolean.parseBoolean(request.getParameter("explain"))) {
+            trace.explain();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long durationNanos = trace.finish();
+            String uri = request.getQueryString() == null ? request.getRequestURI() : request.getRequestURI() + "?" + request.getQueryString();
+            slowRequestLog.record(trace, durationNanos, request.getMethod(), uri, response.getStatus());
+        }
+    }
+}
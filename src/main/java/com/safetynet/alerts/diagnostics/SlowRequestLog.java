@@ -0,0 +1,97 @@
+package com.safetynet.alerts.diagnostics;
+
+import com.safetynet.alerts.controller.dto.SlowRequestDTO;
+import com.safetynet.alerts.controller.dto.StageTimingDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the last requests slower than a threshold, with the time spent in each stage, in a bounded ring buffer:
+ * once full, the oldest slow request is dropped for each new one.
+ */
+@Component
+public class SlowRequestLog {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(SlowRequestLog.class);
+
+    private final long thresholdNanos;
+    private final int capacity;
+    private final Deque<SlowRequestDTO> slowRequests = new ArrayDeque<>();
+
+    /* CONSTRUCTOR */
+    /**
+     * @param threshold the duration from which a request is kept, from the alerts.diagnostics.slow-request-threshold property.
+     * @param capacity the maximum number of slow requests kept, from the alerts.diagnostics.slow-request-capacity property.
+     * @throws IllegalArgumentException if the threshold is negative or the capacity is not positive.
+     */
+    public SlowRequestLog(@Value("${alerts.diagnostics.slow-request-threshold:500ms}") Duration threshold,
+                          @Value("${alerts.diagnostics.slow-request-capacity:100}") int capacity) {
+        if (threshold.isNegative() || capacity < 1) {
+            throw new IllegalArgumentException("The slow request threshold must not be negative and the capacity must be positive: " + threshold + ", " + capacity);
+        }
+        this.thresholdNanos = threshold.toNanos();
+        this.capacity = capacity;
+    }
+
+    /* METHODS */
+
+    /**
+     * Keeps the given finished request if it is slower than the threshold.
+     *
+     * @param trace the finished trace of the request.
+     * @param durationNanos the duration of the request, as returned by RequestTrace.finish.
+     * @param method the HTTP method of the request.
+     * @param uri the URI of the request, with its query string.
+     * @param status the HTTP status of the response.
+     */
+    public void record(RequestTrace trace, long durationNanos, String method, String uri, int status) {
+        if (durationNanos < thresholdNanos) {
+            return;
+        }
+        List<StageTimingDTO> stages = new ArrayList<>();
+        trace.getStages().forEach((stage, time) -> stages.add(new StageTimingDTO(stage, time.getCalls(), toMillis(time.getNanos()))));
+        Instant startedAt = Instant.now().minusNanos(durationNanos);
+        SlowRequestDTO slowRequest = new SlowRequestDTO(startedAt, method, uri, status, toMillis(durationNanos), stages);
+        synchronized (slowRequests) {
+            if (slowRequests.size() == capacity) {
+                slowRequests.removeLast();
+            }
+            slowRequests.addFirst(slowRequest);
+        }
+        logger.warn("Slow request {} {} answered {} in {} ms", method, uri, status, slowRequest.getDurationMillis());
+    }
+
+    /**
+     * Gives the slow requests kept, the most recent first.
+     *
+     * @return a copy of the slow requests kept.
+     */
+    public List<SlowRequestDTO> getSlowRequests() {
+        synchronized (slowRequests) {
+            return new ArrayList<>(slowRequests);
+        }
+    }
+
+    /**
+     * Drops all the slow requests kept.
+     */
+    public void clear() {
+        synchronized (slowRequests) {
+            slowRequests.clear();
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,43 @@
+package com.safetynet.alerts.diagnostics;
+
+/**
+ * Marks the current thread as making synthetic calls, like the calls of the warm-up, which are not requests of a client:
+ * their repository lookups and alerts are then left out of the metrics and of the Java Flight Recorder events.
+ * Outside of synthetic calls, checking the mark only costs a read of a ThreadLocal.
+ */
+public final class SyntheticCalls {
+
+    /* VARIABLES */
+    private static final ThreadLocal<Boolean> RUNNING = new ThreadLocal<>();
+
+    /* CONSTRUCTOR */
+    private SyntheticCalls() {
+    }
+
+    /* METHODS */
+
+    /**
+     * Marks the calls of the current thread as synthetic, until the returned scope is closed.
+     *
+     * @return the scope of the synthetic calls.
+     */
+    public static Scope begin() {
+        RUNNING.set(Boolean.TRUE);
+        return RUNNING::remove;
+    }
+
+    /**
+     * @return true if the current thread is making synthetic calls.
+     */
+    public static boolean isRunning() {
+        return RUNNING.get() != null;
+    }
+
+    /**
+     * The scope of synthetic calls, closed by the thread which began it.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,54 @@
+package com.safetynet.alerts.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+public class ChangeEvent {
+    private final long sequence;
+    private final String entity;
+    private final ChangeType type;
+    private final String key;
+    @JsonIgnore
+    private final String indexKey;
+    private final Object data;
+
+    public ChangeEvent(long sequence, String entity, ChangeType type, String key, Object data) {
+        this(sequence, entity, type, key, key, data);
+    }
+
+    /**
+     * @param indexKey the key of the entity in the ordered index of its repository, unambiguous where the displayed key
+     *                 may not be (two full names joined with a space can be the same).
+     */
+    public ChangeEvent(long sequence, String entity, ChangeType type, String key, String indexKey, Object data) {
+        this.sequence = sequence;
+        this.entity = entity;
+        this.type = type;
+        this.key = key;
+        this.indexKey = indexKey;
+        this.data = data;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getEntity() {
+        return entity;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getIndexKey() {
+        return indexKey;
+    }
+
+    public Object getData() {
+        return data;
+    }
+}
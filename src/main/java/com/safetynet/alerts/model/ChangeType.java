@@ -0,0 +1,8 @@
+package com.safetynet.alerts.model;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    RELOADED
+}
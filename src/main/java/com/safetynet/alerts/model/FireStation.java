@@ -1,14 +1,22 @@
 package com.safetynet.alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class FireStation {
+    /** Number of a station whose number is not a positive int, compared as a String instead. */
+    public static final int UNNUMBERED_STATION = -1;
+
     private String address;
     private String station;
+    @JsonIgnore
+    private int stationNumber = UNNUMBERED_STATION;
 
     public FireStation() {}
 
     public FireStation(String address, String station) {
         this.address = address;
         this.station = station;
+        this.stationNumber = parseStation(station);
     }
 
     public String getAddress() {
@@ -25,6 +33,38 @@ public class FireStation {
 
     public void setStation(String station) {
         this.station = station;
+        this.stationNumber = parseStation(station);
+    }
+
+    /**
+     * Gives the station number as an int, to compare the stations without comparing Strings.
+     *
+     * @return the station number, or UNNUMBERED_STATION if the station is not a positive int.
+     */
+    public int getStationNumber() {
+        return stationNumber;
+    }
+
+    /**
+     * Parses a station number made of digits only, like "3", the JSON file keeping it as a String.
+     * A number with leading zeros, like "03", is not parsed, as it would not be written back the same way.
+     *
+     * @param station the station number as a String.
+     * @return the station number, or UNNUMBERED_STATION if the String is null, not made of digits, has leading zeros or is too large.
+     */
+    public static int parseStation(String station) {
+        if (station == null || station.isEmpty() || station.length() > 9 || (station.length() > 1 && station.charAt(0) == '0')) {
+            return UNNUMBERED_STATION;
+        }
+        int number = 0;
+        for (int i = 0; i < station.length(); i++) {
+            char character = station.charAt(i);
+            if (character < '0' || character > '9') {
+                return UNNUMBERED_STATION;
+            }
+            number = number * 10 + (character - '0');
+        }
+        return number;
     }
 
     @Override
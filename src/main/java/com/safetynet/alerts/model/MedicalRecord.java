@@ -1,6 +1,9 @@
 package com.safetynet.alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 
@@ -10,6 +13,8 @@ public class MedicalRecord {
     private String birthdate;
     private ArrayList<String> medications;
     private ArrayList<String> allergies;
+    @JsonIgnore
+    private Date parsedBirthdate;
 
     public MedicalRecord() {}
 
@@ -43,6 +48,15 @@ public class MedicalRecord {
 
     public void setBirthdate(String birthdate) {
         this.birthdate = birthdate;
+        this.parsedBirthdate = null;
+    }
+
+    public Date getParsedBirthdate() {
+        return parsedBirthdate;
+    }
+
+    public void setParsedBirthdate(Date parsedBirthdate) {
+        this.parsedBirthdate = parsedBirthdate;
     }
 
     public ArrayList<String> getMedications() {
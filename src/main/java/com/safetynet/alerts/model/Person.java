@@ -1,6 +1,11 @@
 package com.safetynet.alerts.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class Person {
+    /** Packed value of a phone number which is not made of 10 digits. */
+    public static final long UNPACKED_PHONE = -1;
+
     private String firstName;
     private String lastName;
     private String address;
@@ -8,6 +13,8 @@ public class Person {
     private String zip;
     private String phone;
     private String email;
+    @JsonIgnore
+    private long packedPhone = UNPACKED_PHONE;
 
     public Person() {
     }
@@ -19,6 +26,7 @@ public class Person {
         this.city = city;
         this.zip = zip;
         this.phone = phone;
+        this.packedPhone = packPhone(phone);
         this.email = email;
     }
 
@@ -68,6 +76,41 @@ public class Person {
 
     public void setPhone(String phone) {
         this.phone = phone;
+        this.packedPhone = packPhone(phone);
+    }
+
+    /**
+     * Gives the phone number packed in a long, to compare and deduplicate the phone numbers without hashing Strings.
+     *
+     * @return the 10 digits of the phone number, or UNPACKED_PHONE if the number is not made of 10 digits.
+     */
+    public long getPackedPhone() {
+        return packedPhone;
+    }
+
+    /**
+     * Packs a phone number like 841-874-6512 into the long 8418746512, the separators being ignored.
+     * Two numbers with the same packed value only differ by their separators.
+     *
+     * @param phone the phone number.
+     * @return the packed number, or UNPACKED_PHONE if the number is null or is not made of 10 digits.
+     */
+    public static long packPhone(String phone) {
+        if (phone == null) {
+            return UNPACKED_PHONE;
+        }
+        long packed = 0;
+        int digits = 0;
+        for (int i = 0; i < phone.length(); i++) {
+            char character = phone.charAt(i);
+            if (character >= '0' && character <= '9') {
+                packed = packed * 10 + (character - '0');
+                digits++;
+            } else if (character != '-' && character != ' ' && character != '.') {
+                return UNPACKED_PHONE;
+            }
+        }
+        return digits == 10 ? packed : UNPACKED_PHONE;
     }
 
     public String getEmail() {
@@ -0,0 +1,165 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Records every committed mutation of the repositories with a sequence number, keeps the most recent ones
+ * in a bounded ring so a subscriber can resume from a given sequence, and forwards new events to the listeners.
+ * Listeners are called while the log is locked, in sequence order, so they must not block.
+ */
+@Component
+public class ChangeLog {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLog.class);
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int DEFAULT_RETAINED_VERSIONS = 10000;
+    private final int capacity;
+    private final int retainedVersions;
+    private final Deque<ChangeEvent> recentEvents = new ArrayDeque<>();
+    private final List<Consumer<ChangeEvent>> listeners = new CopyOnWriteArrayList<>();
+    private long sequence;
+
+    /* CONSTRUCTORS */
+    /**
+     * Default constructor, keeps the default number of recent events.
+     */
+    public ChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of recent events kept to resume a stream.
+     */
+    public ChangeLog(int capacity) {
+        this(capacity, DEFAULT_RETAINED_VERSIONS);
+    }
+
+    /**
+     * @param capacity the number of recent events kept to resume a stream.
+     * @param retainedVersions the number of entity versions kept by the VersionIndex of each list for the synchronisation.
+     * @throws IllegalArgumentException if one of the sizes is lower than 1.
+     */
+    @Autowired
+    public ChangeLog(@Value("${alerts.changes.ring-size:" + DEFAULT_CAPACITY + "}") int capacity,
+                     @Value("${alerts.sync.retained-versions:" + DEFAULT_RETAINED_VERSIONS + "}") int retainedVersions) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The change log must keep at least one event: " + capacity);
+        }
+        if (retainedVersions < 1) {
+            throw new IllegalArgumentException("The version indexes must keep at least one version: " + retainedVersions);
+        }
+        this.capacity = capacity;
+        this.retainedVersions = retainedVersions;
+    }
+
+    /* METHODS */
+
+    /**
+     * Records a committed mutation and forwards it to the listeners.
+     *
+     * @param entity the name of the changed list, as in the JSON file ("persons", "firestations", "medicalrecords").
+     * @param type the kind of change.
+     * @param key the key of the changed entity (full name or address), or null when the whole list has been reloaded.
+     * @param data the entity after the change, or null for a deletion or a reload.
+     * @return the recorded ChangeEvent.
+     */
+    public ChangeEvent record(String entity, ChangeType type, String key, Object data) {
+        return record(entity, type, key, key, data);
+    }
+
+    /**
+     * Records a committed mutation of an entity whose displayed key is not unique, and forwards it to the listeners.
+     *
+     * @param entity the name of the changed list, as in the JSON file ("persons", "firestations", "medicalrecords").
+     * @param type the kind of change.
+     * @param key the displayed key of the changed entity (full name), or null when the whole list has been reloaded.
+     * @param indexKey the key of the changed entity in the ordered index of its repository.
+     * @param data the entity after the change, or null for a deletion or a reload.
+     * @return the recorded ChangeEvent.
+     */
+    public synchronized ChangeEvent record(String entity, ChangeType type, String key, String indexKey, Object data) {
+        ChangeEvent event = new ChangeEvent(++sequence, entity, type, key, indexKey, data);
+        if (recentEvents.size() == capacity) {
+            recentEvents.pollFirst();
+        }
+        recentEvents.addLast(event);
+        for (Consumer<ChangeEvent> listener : listeners) {
+            listener.accept(event);
+        }
+        logger.debug("Recorded change {}: {} {} {}", event.getSequence(), type, entity, key);
+        return event;
+    }
+
+    /**
+     * Gives the sequence number of the last recorded event.
+     *
+     * @return the last sequence number, 0 if nothing has been recorded yet.
+     */
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gives the number of entity versions kept by the VersionIndex of each list, beyond which the oldest are compacted.
+     *
+     * @return the number of retained versions.
+     */
+    public int getRetainedVersions() {
+        return retainedVersions;
+    }
+
+    /**
+     * Registers a listener for the events recorded from now on.
+     *
+     * @param listener the non-blocking listener receiving the events.
+     */
+    public synchronized void subscribe(Consumer<ChangeEvent> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Registers a listener after replaying the recent events following the given sequence, without any gap or repetition.
+     * If some of these events have already left the ring (or the sequence is unknown, for example after a restart),
+     * nothing is replayed and the listener only receives the events recorded from now on.
+     *
+     * @param afterSequence the sequence of the last event received by the subscriber.
+     * @param listener the non-blocking listener receiving the events.
+     * @return true if every event following afterSequence has been replayed, false if the subscriber has to resync.
+     */
+    public synchronized boolean subscribe(long afterSequence, Consumer<ChangeEvent> listener) {
+        boolean replayable = afterSequence <= sequence && afterSequence >= sequence - recentEvents.size();
+        if (replayable) {
+            for (ChangeEvent event : recentEvents) {
+                if (event.getSequence() > afterSequence) {
+                    listener.accept(event);
+                }
+            }
+        } else {
+            logger.info("Cannot replay the changes after {}, the log keeps the changes after {}", afterSequence, sequence - recentEvents.size());
+        }
+        listeners.add(listener);
+        return replayable;
+    }
+
+    /**
+     * Removes a listener, it won't receive any new event.
+     *
+     * @param listener the listener to remove.
+     */
+    public void unsubscribe(Consumer<ChangeEvent> listener) {
+        listeners.remove(listener);
+    }
+}
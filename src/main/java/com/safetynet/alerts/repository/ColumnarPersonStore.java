@@ -0,0 +1,300 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.model.Person;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A struct-of-arrays copy of the persons list, used by the PersonRepository for its scans with the columnar layout.
+ * Each row holds a person of the list, in list order. The address, city and last name, the fields scanned by the
+ * lookups, are stored as int codes in one array per field, so a scan compares ints in a contiguous array instead of
+ * following a reference to each Person and then to each String. The phone numbers are packed in a long array, to
+ * deduplicate the phones of a city without hashing Strings. Only the matching rows are then read as Person objects.
+ * The store follows the changes of the list without being rebuilt: a new person is appended, an updated person is
+ * patched in its row, and a deleted person leaves an empty row, skipped by the scans, until the repository rebuilds
+ * the store once the empty rows make up half of it. The codes of the values only grow.
+ * The changes are made under the write lock of a StampedLock, and the scans run with an optimistic read, scanning
+ * again under the read lock if a change happened meanwhile.
+ */
+class ColumnarPersonStore {
+
+    /* VARIABLES */
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int ADDRESS = 0;
+    private static final int CITY = 1;
+    private static final int LAST_NAME = 2;
+
+    private final StampedLock lock = new StampedLock();
+    private final Dictionary[] dictionaries = {new Dictionary(), new Dictionary(), new Dictionary()};
+    private final Map<String, Integer> rowByIndexKey = new HashMap<>();
+    private Table table;
+    private int size;
+    private int emptyRows;
+
+    /* CONSTRUCTOR */
+    /**
+     * Encodes the columns of the given persons.
+     *
+     * @param persons the persons list, the position of each person being its row.
+     */
+    ColumnarPersonStore(List<Person> persons) {
+        table = new Table(Math.max(INITIAL_CAPACITY, persons.size()));
+        persons.forEach(this::appendRow);
+    }
+
+    /* METHODS */
+
+    /**
+     * Gives the number of rows, the empty rows of the deleted persons included, which is the number of rows scanned by a lookup.
+     */
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    List<Person> findByAddress(String address) {
+        return read(() -> select(ADDRESS, address));
+    }
+
+    List<Person> findByCity(String city) {
+        return read(() -> select(CITY, city));
+    }
+
+    List<Person> findByLastName(String lastName) {
+        return read(() -> select(LAST_NAME, lastName));
+    }
+
+    /**
+     * Collects the distinct phone numbers of the persons living in the given city. The packed phones of the matching
+     * rows are deduplicated in a LongHashSet, and a Person is only read for each new phone. The phones which are not
+     * made of 10 digits are deduplicated as Strings.
+     *
+     * @param city the city to look for.
+     * @return the distinct phone numbers of the city, in list order.
+     */
+    List<String> phonesByCity(String city) {
+        return read(() -> {
+            List<String> phones = new ArrayList<>();
+            int code = dictionaries[CITY].code(city);
+            if (code == Dictionary.ABSENT) {
+                return phones;
+            }
+            Table rows = table;
+            int[] cities = rows.codes[CITY];
+            int scanned = Math.min(size, rows.persons.length);
+            LongHashSet packedPhones = new LongHashSet(INITIAL_CAPACITY);
+            Set<String> unpackedPhones = null;
+            for (int row = 0; row < scanned; row++) {
+                if (cities[row] == code) {
+                    long packedPhone = rows.phones[row];
+                    Person person = rows.persons[row];
+                    if (person == null) {
+                        continue;
+                    }
+                    if (packedPhone != Person.UNPACKED_PHONE) {
+                        if (packedPhones.add(packedPhone)) {
+                            phones.add(person.getPhone());
+                        }
+                    } else {
+                        unpackedPhones = unpackedPhones == null ? new HashSet<>() : unpackedPhones;
+                        if (unpackedPhones.add(person.getPhone())) {
+                            phones.add(person.getPhone());
+                        }
+                    }
+                }
+            }
+            return phones;
+        });
+    }
+
+    /**
+     * Appends new persons at the end of the rows, as they are appended to the persons list.
+     *
+     * @param persons the new persons.
+     */
+    void appendAll(Collection<Person> persons) {
+        long stamp = lock.writeLock();
+        try {
+            persons.forEach(this::appendRow);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Patches the row of a person with its new values, keeping its position.
+     *
+     * @param person the updated person, replacing the person with the same name.
+     */
+    void replace(Person person) {
+        long stamp = lock.writeLock();
+        try {
+            Integer row = rowByIndexKey.get(PersonRepository.indexKey(person));
+            if (row != null) {
+                writeRow(row, person);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Empties the rows of deleted persons, which the scans then skip.
+     *
+     * @param persons the deleted persons.
+     */
+    void removeAll(Collection<Person> persons) {
+        long stamp = lock.writeLock();
+        try {
+            for (Person person : persons) {
+                Integer row = rowByIndexKey.remove(PersonRepository.indexKey(person));
+                if (row != null) {
+                    table.persons[row] = null;
+                    Arrays.stream(table.codes).forEach(codes -> codes[row] = Dictionary.ABSENT);
+                    table.phones[row] = Person.UNPACKED_PHONE;
+                    emptyRows++;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Tells if the empty rows make up half of the store, the repository then rebuilding it from the persons list.
+     */
+    boolean needsCompaction() {
+        long stamp = lock.readLock();
+        try {
+            return emptyRows > INITIAL_CAPACITY && emptyRows * 2 > size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Runs a scan with an optimistic read, and runs it again under the read lock if the store changed meanwhile.
+     * The optimistic scan reads the table once and never goes past its length, so a concurrent change can only make
+     * it return a result which is then discarded.
+     */
+    private <T> T read(Supplier<T> scan) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            T result = scan.get();
+            if (lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return scan.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<Person> select(int field, String value) {
+        List<Person> selected = new ArrayList<>();
+        int code = dictionaries[field].code(value);
+        if (code == Dictionary.ABSENT) {
+            return selected;
+        }
+        Table rows = table;
+        int[] codes = rows.codes[field];
+        int scanned = Math.min(size, rows.persons.length);
+        for (int row = 0; row < scanned; row++) {
+            if (codes[row] == code) {
+                Person person = rows.persons[row];
+                if (person != null) {
+                    selected.add(person);
+                }
+            }
+        }
+        return selected;
+    }
+
+    private void appendRow(Person person) {
+        if (size == table.persons.length) {
+            table = table.grow(size * 2);
+        }
+        rowByIndexKey.put(PersonRepository.indexKey(person), size);
+        writeRow(size, person);
+        size++;
+    }
+
+    private void writeRow(int row, Person person) {
+        table.codes[ADDRESS][row] = dictionaries[ADDRESS].encode(person.getAddress());
+        table.codes[CITY][row] = dictionaries[CITY].encode(person.getCity());
+        table.codes[LAST_NAME][row] = dictionaries[LAST_NAME].encode(person.getLastName());
+        table.phones[row] = person.getPackedPhone();
+        table.persons[row] = person;
+    }
+
+    /**
+     * The rows of the store, replaced by a larger copy when they are full.
+     */
+    private static class Table {
+
+        final Person[] persons;
+        final int[][] codes;
+        final long[] phones;
+
+        Table(int capacity) {
+            this(new Person[capacity], new int[][] {new int[capacity], new int[capacity], new int[capacity]}, new long[capacity]);
+        }
+
+        private Table(Person[] persons, int[][] codes, long[] phones) {
+            this.persons = persons;
+            this.codes = codes;
+            this.phones = phones;
+        }
+
+        Table grow(int capacity) {
+            return new Table(Arrays.copyOf(persons, capacity),
+                    Arrays.stream(codes).map(column -> Arrays.copyOf(column, capacity)).toArray(int[][]::new),
+                    Arrays.copyOf(phones, capacity));
+        }
+    }
+
+    /**
+     * The code of each distinct value of a column. The codes are only added by the changes, under the write lock,
+     * and read by the scans, which may run concurrently with an optimistic read.
+     */
+    private static class Dictionary {
+
+        static final int ABSENT = -1;
+
+        private final Map<String, Integer> codeByValue = new ConcurrentHashMap<>();
+
+        int encode(String value) {
+            if (value == null) {
+                return ABSENT;
+            }
+            Integer code = codeByValue.get(value);
+            if (code == null) {
+                code = codeByValue.size();
+                codeByValue.put(value, code);
+            }
+            return code;
+        }
+
+        int code(String value) {
+            Integer code = value == null ? null : codeByValue.get(value);
+            return code == null ? ABSENT : code;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.safetynet.alerts.repository;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event of a read or a write of the JSON data file, split in its steps: reading the bytes and
+ * parsing them, or serializing the data and forcing it to the disk.
+ * The stack trace is kept, to know which change of which repository rewrote the whole file.
+ */
+@Name("com.safetynet.alerts.DataFile")
+@Label("Data File I/O")
+@Category({"SafetyNet Alerts", "Persistence"})
+@Description("A read or a write of the JSON data file")
+@StackTrace(true)
+class DataFileEvent extends Event {
+
+    /* VARIABLES */
+    @Label("Operation")
+    String operation;
+
+    @Label("Path")
+    String path;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Read Time")
+    @Description("Time to read the bytes of the file")
+    @Timespan
+    long readTime;
+
+    @Label("Parse Time")
+    @Description("Time to parse the bytes into a JSON tree")
+    @Timespan
+    long parseTime;
+
+    @Label("Serialize Time")
+    @Description("Time to serialize the JSON tree and write it to the temporary file")
+    @Timespan
+    long serializeTime;
+
+    @Label("Fsync Time")
+    @Description("Time to force the temporary file to the disk")
+    @Timespan
+    long fsyncTime;
+}
@@ -1,13 +1,31 @@
 package com.safetynet.alerts.repository;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 @Repository
 public class DataRepository {
@@ -16,29 +34,51 @@ public class DataRepository {
     Logger logger = LoggerFactory.getLogger(DataRepository.class);
     public ObjectMapper objectMapper = new ObjectMapper();
     private final File file;
+    private volatile WrittenFile writtenFile;
+    private long writeCount;
+    private final Timer readTimer;
+    private final Timer writeTimer;
+    private final Counter readBytes;
+    private final Counter writtenBytes;
 
     /* CONSTRUCTORS */
     /**
      * Default constructor, uses the default data file.
      */
     public DataRepository() {
-        this.file = new File("./src/main/resources/data.json");
-        logger.info("Using default data file: {}", file.getPath());
+        this("./src/main/resources/data.json");
     }
 
     /**
-     * Constructor with file path for flexibility during testing or evolutions
+     * Constructor with file path for flexibility during testing or evolutions.
      * @param path the path to the JSON file.
      */
     public DataRepository(String path) {
+        this(path, new SimpleMeterRegistry());
+    }
+
+    /**
+     * The application reads the path from the alerts.data.path property, to run on a generated data file for instance.
+     * The reads and writes of the file are timed, and the bytes read and written counted, to follow the cost of the
+     * whole file being rewritten on each change.
+     * @param path the path to the JSON file.
+     * @param meterRegistry the registry of the metrics of the file.
+     */
+    @Autowired
+    public DataRepository(@Value("${alerts.data.path:./src/main/resources/data.json}") String path, MeterRegistry meterRegistry) {
         this.file = new File(path);
-        logger.info("Using custom data file: {}", file.getPath());
+        logger.info("Using data file: {}", file.getPath());
+        this.readTimer = Timer.builder("alerts.data.read").description("Time to read and parse the data file").register(meterRegistry);
+        this.writeTimer = Timer.builder("alerts.data.write").description("Time to write the data file").register(meterRegistry);
+        this.readBytes = Counter.builder("alerts.data.read.bytes").description("Bytes read from the data file").baseUnit("bytes").register(meterRegistry);
+        this.writtenBytes = Counter.builder("alerts.data.written.bytes").description("Bytes written to the data file").baseUnit("bytes").register(meterRegistry);
     }
 
     /* METHODS */
 
     /**
-     * Read the JSON file and turn the content in a JsonNode object in order to exploit it
+     * Read the JSON file and turn the content in a JsonNode object in order to exploit it.
+     * The read is committed as a DataFileEvent, with its read and parse times, when a Java Flight Recorder recording enables it.
      *
      * @return JsonNode of the Data from the file.
      * @throws RuntimeException if  an I/O error occurs during file reading
@@ -46,7 +86,25 @@ public class DataRepository {
     public JsonNode getData() {
         try {
             logger.info("Reading data from file: {}", file.getPath());
-            return objectMapper.readTree(file);
+            DataFileEvent event = new DataFileEvent();
+            event.begin();
+            long start = System.nanoTime();
+            byte[] content = Files.readAllBytes(file.toPath());
+            long read = System.nanoTime();
+            JsonNode data = objectMapper.readTree(content);
+            long parsed = System.nanoTime();
+            readTimer.record(parsed - start, TimeUnit.NANOSECONDS);
+            readBytes.increment(content.length);
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "read";
+                event.path = file.getPath();
+                event.bytes = content.length;
+                event.readTime = read - start;
+                event.parseTime = parsed - read;
+                event.commit();
+            }
+            return data;
 
         } catch (IOException e) {
             throw new RuntimeException("Error reading data from file: " + file.getPath(), e);
@@ -54,17 +112,160 @@ public class DataRepository {
     }
 
     /**
-     * Write the JsonNode with the new data into the JSON file
+     * Write the JsonNode with the new data into the JSON file.
+     * The data is written to a temporary file which then replaces the JSON file, so readers never see a partial file.
+     * The write is committed as a DataFileEvent, with its serialize and fsync times, when a Java Flight Recorder recording enables it.
      *
      * @param data a JsonNode with the updated data
      * @throws RuntimeException if an I/O error occurs during file writing
      */
-    public void writeData(JsonNode data) {
+    public synchronized void writeData(JsonNode data) {
+        writtenFile = null;
+        Path target = file.toPath().toAbsolutePath();
+        Path temporaryFile = null;
         try {
             logger.info("Writing data to file: {}", file.getPath());
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, data);
+            DataFileEvent event = new DataFileEvent();
+            event.begin();
+            long start = System.nanoTime();
+            long serialized;
+            long synced;
+            temporaryFile = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+            try (FileOutputStream outputStream = new FileOutputStream(temporaryFile.toFile())) {
+                objectMapper.writerWithDefaultPrettyPrinter().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValue(outputStream, data);
+                serialized = System.nanoTime();
+                outputStream.getChannel().force(true);
+                synced = System.nanoTime();
+            }
+            Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            BasicFileAttributes attributes = Files.readAttributes(target, BasicFileAttributes.class);
+            writtenFile = new WrittenFile(attributes, ++writeCount);
+            writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            writtenBytes.increment(attributes.size());
+            event.end();
+            if (event.shouldCommit()) {
+                event.operation = "write";
+                event.path = file.getPath();
+                event.bytes = attributes.size();
+                event.serializeTime = serialized - start;
+                event.fsyncTime = synced - serialized;
+                event.commit();
+            }
         } catch (IOException e) {
+            deleteQuietly(temporaryFile);
             throw new RuntimeException("Error writing data to file: " + file.getPath(), e);
         }
     }
+
+    /**
+     * Replace several sections of the JSON file (for example "persons" and "medicalrecords") with a single write,
+     * so a change spanning several lists is never persisted halfway.
+     * The file is read, changed and written under the lock of the DataRepository: two repositories writing their own
+     * section at the same time never lose each other's change, so the last written file always holds every list.
+     *
+     * @param sections the new values of each section, keyed by the name of the section in the JSON file.
+     * @throws RuntimeException if an I/O error occurs during file reading or writing
+     */
+    public synchronized void writeSections(Map<String, ?> sections) {
+        writeSections((ObjectNode) getData(), sections);
+    }
+
+    /**
+     * Replace several sections of the given JSON data, already read from the file, and write it with a single write.
+     *
+     * @param rootNode the JSON data of the whole file, as returned by getData.
+     * @param sections the new values of each section, keyed by the name of the section in the JSON file.
+     * @throws RuntimeException if an I/O error occurs during file writing
+     */
+    public synchronized void writeSections(ObjectNode rootNode, Map<String, ?> sections) {
+        logger.debug("Writing sections {} to file: {}", sections.keySet(), file.getPath());
+        sections.forEach((name, values) -> rootNode.set(name, objectMapper.valueToTree(values)));
+        writeData(rootNode);
+    }
+
+    /**
+     * Check if the JSON file still holds the last data written by the application.
+     * It is not the case if the last write failed, or if the file has been modified outside the application.
+     *
+     * @return true if the file on disk matches the in-memory data, false otherwise.
+     */
+    public boolean isSnapshotCurrent() {
+        WrittenFile expected = writtenFile;
+        try {
+            return expected != null && expected.matches(Files.readAttributes(file.toPath(), BasicFileAttributes.class));
+        } catch (IOException e) {
+            logger.warn("Unable to read the attributes of the data file: {}", file.getPath());
+            return false;
+        }
+    }
+
+    /**
+     * Open the JSON file for reading, if it still holds the last data written by the application.
+     * The file is opened first, then its attributes are compared with those of the last write, the file key included:
+     * as the file is always replaced by a new one and never rewritten in place, a file found with the same key before
+     * and after the open is the one which was opened, and the snapshot stays consistent even if a new write happens meanwhile.
+     *
+     * @return a DataSnapshot of the file, or null if the in-memory data is ahead of the file.
+     * @throws IOException if an I/O error occurs while opening the file.
+     */
+    public DataSnapshot openSnapshot() throws IOException {
+        WrittenFile expected = writtenFile;
+        if (expected == null || !isSnapshotCurrent()) {
+            logger.debug("The data file is not up to date with the in-memory data: {}", file.getPath());
+            return null;
+        }
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            BasicFileAttributes opened = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            if (!expected.matches(opened) || channel.size() != opened.size()) {
+                logger.debug("The data file was replaced while being opened: {}", file.getPath());
+                channel.close();
+                return null;
+            }
+            return new DataSnapshot(channel, opened.size(), expected.tag());
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Unable to delete the temporary file: {}", path);
+        }
+    }
+
+    /**
+     * The attributes of the file written by the application, with the number of the write.
+     */
+    private static class WrittenFile {
+
+        private final BasicFileAttributes attributes;
+        private final long writeNumber;
+
+        WrittenFile(BasicFileAttributes attributes, long writeNumber) {
+            this.attributes = attributes;
+            this.writeNumber = writeNumber;
+        }
+
+        boolean matches(BasicFileAttributes actual) {
+            return actual.size() == attributes.size()
+                    && actual.lastModifiedTime().equals(attributes.lastModifiedTime())
+                    && Objects.equals(actual.fileKey(), attributes.fileKey());
+        }
+
+        /**
+         * Builds an entity tag from the modification time, size and file key of the file and the number of the write,
+         * so two writes of the same size within the same millisecond still get different tags.
+         */
+        String tag() {
+            return "\"" + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "-" + Long.toHexString(attributes.size())
+                    + "-" + Integer.toHexString(Objects.hashCode(attributes.fileKey())) + "-" + Long.toHexString(writeNumber) + "\"";
+        }
+    }
 }
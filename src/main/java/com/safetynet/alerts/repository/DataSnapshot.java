@@ -0,0 +1,40 @@
+package com.safetynet.alerts.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * An opened, read-only view of the JSON data file, as last written by the application.
+ */
+public class DataSnapshot implements Closeable {
+    private final FileChannel channel;
+    private final long size;
+    private final String tag;
+
+    public DataSnapshot(FileChannel channel, long size, String tag) {
+        this.channel = channel;
+        this.size = size;
+        this.tag = tag;
+    }
+
+    public FileChannel getChannel() {
+        return channel;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return an entity tag identifying this version of the file, usable as an HTTP ETag.
+     */
+    public String getTag() {
+        return tag;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -3,31 +3,73 @@ package com.safetynet.alerts.repository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
 import com.safetynet.alerts.model.FireStation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Repository
 public class FireStationRepository {
     /* VARIABLES */
     private static final Logger logger = LoggerFactory.getLogger(FireStationRepository.class);
-    List<FireStation> fireStations;
+    public static final String ENTITY = "firestations";
+    volatile List<FireStation> fireStations;
     private final DataRepository dataRepository;
+    private final ChangeLog changeLog;
+    private final RepositoryMetrics metrics;
+    private final StringDictionary dictionary;
+    private volatile StationIndex stationIndex = StationIndex.EMPTY;
+    private final VersionIndex versions;
+    private final NavigableMap<String, FireStation> fireStationsByAddress = new ConcurrentSkipListMap<>();
+    private final JsonFragmentCache<FireStation> fragments = new JsonFragmentCache<>(FireStation.class, FireStation::getAddress);
 
-    /* CONSTRUCTOR */
+    /* CONSTRUCTORS */
+    /**
+     * Constructor with a private change log, metrics registry and dictionary, for the tests of the repository alone.
+     * The fire stations list is loaded right away.
+     * @param dataRepository the repository of the JSON file.
+     */
     public FireStationRepository(DataRepository dataRepository) {
-        this.dataRepository = dataRepository;
+        this(dataRepository, new ChangeLog(), new SimpleMeterRegistry(), new StringDictionary());
         createListFireStations();
     }
 
+    /**
+     * The fire stations list stays empty until the DatasetLoader loads the data, once the application context is refreshed.
+     * @param dataRepository the repository of the JSON file.
+     * @param changeLog the log receiving every committed change of the fire stations.
+     * @param meterRegistry the registry of the size and scan metrics of the fire stations list.
+     * @param dictionary the dictionary sharing the addresses and station numbers of the fire stations.
+     */
+    @Autowired
+    public FireStationRepository(DataRepository dataRepository, ChangeLog changeLog, MeterRegistry meterRegistry, StringDictionary dictionary) {
+        this.dataRepository = dataRepository;
+        this.changeLog = changeLog;
+        this.dictionary = dictionary;
+        this.versions = new VersionIndex(ENTITY, changeLog.getRetainedVersions());
+        changeLog.subscribe(versions);
+        this.fireStations = new CopyOnWriteArrayList<>();
+        this.metrics = new RepositoryMetrics(meterRegistry, ENTITY, () -> fireStations.size());
+    }
+
     /* METHODS */
 
     /**
@@ -36,17 +78,33 @@ public class FireStationRepository {
      * @throws RuntimeException if an error occurs while creating the list
      */
     public void createListFireStations() {
+        createListFireStations(dataRepository.getData());
+        updateFireStationsList(this.fireStations);
+    }
+
+    /**
+     * Creates the fire stations list from the "firestations" key of the given JSON data, removing the duplicates, without writing the JSON file:
+     * the DatasetLoader parses the three lists of a single read of the file in parallel, then writes them back at once.
+     *
+     * @param data the JSON data of the whole file.
+     * @throws RuntimeException if an error occurs while creating the list
+     */
+    public void createListFireStations(JsonNode data) {
         try {
             logger.debug("Creating fire stations list from JSON file.");
-            JsonNode data = dataRepository.getData();
             JsonNode fireStationsNode = data.get("firestations");
 
             ObjectMapper objectMapper = new ObjectMapper();
             TypeReference<List<FireStation>> typeReferenceList = new TypeReference<>() {};
             List<FireStation> fireStationsData = objectMapper.readValue(fireStationsNode.traverse(), typeReferenceList);
+            fireStationsData.forEach(this::canonicalize);
 
-            this.fireStations = validateFireStationsData(fireStationsData);
-            updateFireStationsList(this.fireStations);
+            this.fireStations = new CopyOnWriteArrayList<>(validateFireStationsData(fireStationsData));
+            fragments.clear();
+            fireStationsByAddress.clear();
+            fireStations.forEach(fireStation -> fireStationsByAddress.put(fireStation.getAddress(), fireStation));
+            stationIndex = new StationIndex(fireStations);
+            changeLog.record(ENTITY, ChangeType.RELOADED, null, null);
             logger.info("Successfully created fire stations list with {} fire stations.", fireStations.size());
         } catch (IOException e) {
             throw new RuntimeException("Error while creating FireStations List", e);
@@ -84,36 +142,121 @@ public class FireStationRepository {
      */
     public List<FireStation> findAll() {
         logger.debug("Fetching all fire stations.");
-        return fireStations;
+        List<FireStation> all = fireStations;
+        RequestTrace.recordAccess(ENTITY, "findAll", RequestTrace.SCAN, all.size(), 0);
+        return all;
+    }
+
+    /**
+     * Writes all fire stations as a JSON array, concatenating the cached JSON fragment of each fire station.
+     *
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of fire stations written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeAllAsJson(OutputStream outputStream) throws IOException {
+        logger.debug("Writing all fire stations as JSON.");
+        return fragments.writeArray(fireStations, outputStream);
+    }
+
+    /**
+     * Reads the fire stations following the given key in the ordered index, ordered by address.
+     *
+     * @param afterKey the index key to start after, or null to start from the first fire station.
+     * @param limit the maximum number of fire stations to read.
+     * @return a list of at most limit fire stations, in index order.
+     */
+    public List<FireStation> findFireStationsPage(String afterKey, int limit) {
+        logger.debug("Reading a page of {} fire stations after {}.", limit, afterKey);
+        NavigableMap<String, FireStation> tail = afterKey == null ? fireStationsByAddress : fireStationsByAddress.tailMap(afterKey, false);
+        List<FireStation> page = new ArrayList<>();
+        for (FireStation fireStation : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(fireStation);
+        }
+        return page;
+    }
+
+    /**
+     * Reads the last change of every fire station changed or deleted after the given version, a deletion being a change without data.
+     *
+     * @param version the version already known by the caller, a sequence of the ChangeLog.
+     * @return the changes after this version, in version order.
+     */
+    public List<ChangeEvent> findChangesAfter(long version) {
+        return versions.findChangesAfter(version);
+    }
+
+    /**
+     * Gives the version of the last reload of the fire stations list, before which the changes are not known anymore.
+     *
+     * @return the sequence of the last reload in the ChangeLog.
+     */
+    public long getResetVersion() {
+        return versions.getResetVersion();
+    }
+
+    /**
+     * Finds a fire station through the ordered index, without browsing the fire stations list.
+     *
+     * @param address a String of an address.
+     * @return the fire station covering this address, or null if not found.
+     */
+    public FireStation findByIndexKey(String address) {
+        RequestTrace.Span span = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP);
+        FireStation fireStation = fireStationsByAddress.get(address);
+        int found = fireStation == null ? 0 : 1;
+        span.closeAccess(ENTITY, "findByIndexKey", RequestTrace.INDEX, found, found);
+        return fireStation;
     }
 
     public FireStation getFireStationByAddress(String inputAddress) {
         logger.debug("Looking for fire station for the address: {}", inputAddress);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        int scanned = 0;
         for (FireStation firesStation : fireStations) {
+            scanned++;
             if (firesStation.getAddress().equals(inputAddress)) {
                 logger.debug("Found the fire station: {}", firesStation);
+                metrics.recordScan(event, "getFireStationByAddress", inputAddress, scanned);
                 return firesStation;
             }
         }
+        metrics.recordScan(event, "getFireStationByAddress", inputAddress, scanned);
         logger.warn("FireStation not found for the address: {}", inputAddress);
         return null;
     }
 
     /**
-     * Browse through the fire stations to create a list of addresses covered by the given station number.
+     * Creates the list of addresses covered by the given station number, from the StationIndex for a numbered station,
+     * or by browsing the fire stations otherwise.
      *
      * @param stationNumber a String representing the number of the fire station.
      * @return a List of String with the addresses covered by the fire station.
      */
     public ArrayList<String> getCoveredAddresses(String stationNumber) {
         logger.debug("Fetching addresses covered by station number: {}", stationNumber);
+        int number = FireStation.parseStation(stationNumber);
+        if (number != FireStation.UNNUMBERED_STATION) {
+            RequestTrace.Span span = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP);
+            String[] indexedAddresses = stationIndex.addresses(number);
+            ArrayList<String> coveredAddresses = new ArrayList<>(Arrays.asList(indexedAddresses));
+            span.closeAccess(ENTITY, "getCoveredAddresses", RequestTrace.INDEX, indexedAddresses.length, indexedAddresses.length);
+            logger.debug("Found {} addresses covered by station number: {}", coveredAddresses.size(), stationNumber);
+            return coveredAddresses;
+        }
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        List<FireStation> scannedFireStations = findAll();
         ArrayList<String> coveredAddresses = new ArrayList<>();
-        for(FireStation firesStation : findAll()) {
+        for(FireStation firesStation : scannedFireStations) {
             if(firesStation.getStation().equals(stationNumber)) {
                 coveredAddresses.add(firesStation.getAddress());
                 logger.debug("Adding to the covered addresses list: {}", firesStation.getAddress());
             }
         }
+        metrics.recordScan(event, "getCoveredAddresses", stationNumber, scannedFireStations.size());
         logger.debug("Found {} addresses covered by station number: {}", coveredAddresses.size(), stationNumber);
         return coveredAddresses;
     }
@@ -140,10 +283,15 @@ public class FireStationRepository {
      * @param fireStation a new Fire Station to add.
      * @return the added fire station.
      */
-    public FireStation save(FireStation fireStation) {
+    public synchronized FireStation save(FireStation fireStation) {
         logger.debug("Saving new fire station: {}", fireStation);
+        canonicalize(fireStation);
         fireStations.add(fireStation);
+        fragments.refresh(fireStation);
+        fireStationsByAddress.put(fireStation.getAddress(), fireStation);
+        stationIndex = new StationIndex(fireStations);
         updateFireStationsList(fireStations);
+        changeLog.record(ENTITY, ChangeType.CREATED, fireStation.getAddress(), fireStation);
         logger.info("Fire station saved successfully.");
         return fireStation;
     }
@@ -154,39 +302,85 @@ public class FireStationRepository {
      * @param inputFireStation a Fire Station with updated data
      * @return the updated FireStation
      */
-    public FireStation update(FireStation inputFireStation) {
+    public synchronized FireStation update(FireStation inputFireStation) {
         logger.debug("Updating fire station: {}", inputFireStation);
+        canonicalize(inputFireStation);
         FireStation fireStationToUpdate = getFireStationByAddress(inputFireStation.getAddress());
         fireStations.set(fireStations.indexOf(fireStationToUpdate), inputFireStation);
+        fragments.refresh(inputFireStation);
+        fireStationsByAddress.put(inputFireStation.getAddress(), inputFireStation);
+        stationIndex = new StationIndex(fireStations);
         updateFireStationsList(fireStations);
+        changeLog.record(ENTITY, ChangeType.UPDATED, inputFireStation.getAddress(), inputFireStation);
         logger.info("Fire station updated successfully: {}", inputFireStation);
         return inputFireStation;
     }
 
+    /**
+     * Moves many addresses to new station numbers and updates the JSON file a single time.
+     * The new list is built in one pass and written first, so the in-memory data is left unchanged if the JSON file cannot be written.
+     *
+     * @param newStationByAddress the new station number of each address to move.
+     */
+    public synchronized void reassignStations(Map<String, String> newStationByAddress) {
+        logger.debug("Reassigning {} addresses.", newStationByAddress.size());
+        List<FireStation> reassignedFireStations = new ArrayList<>(fireStations.size());
+        List<FireStation> movedFireStations = new ArrayList<>(newStationByAddress.size());
+        for (FireStation fireStation : fireStations) {
+            String newStation = newStationByAddress.get(fireStation.getAddress());
+            if (newStation == null) {
+                reassignedFireStations.add(fireStation);
+            } else {
+                FireStation movedFireStation = new FireStation(fireStation.getAddress(), dictionary.canonical(newStation));
+                reassignedFireStations.add(movedFireStation);
+                movedFireStations.add(movedFireStation);
+            }
+        }
+        updateFireStationsList(reassignedFireStations);
+
+        this.fireStations = new CopyOnWriteArrayList<>(reassignedFireStations);
+        stationIndex = new StationIndex(fireStations);
+        for (FireStation movedFireStation : movedFireStations) {
+            fragments.refresh(movedFireStation);
+            fireStationsByAddress.put(movedFireStation.getAddress(), movedFireStation);
+            changeLog.record(ENTITY, ChangeType.UPDATED, movedFireStation.getAddress(), movedFireStation);
+        }
+        logger.info("{} addresses reassigned successfully.", movedFireStations.size());
+    }
+
     /**
      * Delete the fireStation matching the given address and update the JSON file
      *
      * @param inputAddress a String representing the address we want to delete
      */
-    public void delete(String inputAddress) {
+    public synchronized void delete(String inputAddress) {
         logger.debug("Deleting fire station with address: {}", inputAddress);
         FireStation fireStationToDelete = getFireStationByAddress(inputAddress);
         fireStations.remove(fireStationToDelete);
+        fragments.evict(fireStationToDelete);
+        fireStationsByAddress.remove(inputAddress);
+        stationIndex = new StationIndex(fireStations);
         updateFireStationsList(fireStations);
+        changeLog.record(ENTITY, ChangeType.DELETED, inputAddress, null);
         logger.info("Fire station with address {} deleted successfully.", inputAddress);
     }
 
     /**
-     * Turn the Fire Station list into a JsonNode object in order to write in the JSON file as values for the key "firestations"
+     * Replaces the address and station number of a fire station by their canonical instance, shared with the persons and the other fire stations.
+     */
+    private void canonicalize(FireStation fireStation) {
+        fireStation.setAddress(dictionary.canonical(fireStation.getAddress()));
+        fireStation.setStation(dictionary.canonical(fireStation.getStation()));
+    }
+
+    /**
+     * Write the Fire Station list in the JSON file as values for the key "firestations", the other sections of the file being kept as they are.
      *
      * @param fireStations the list of fire stations with new data to write to the JSON File
      */
     public void updateFireStationsList(List<FireStation> fireStations) {
         logger.debug("Updating fire stations list in the JSON file.");
-        ObjectNode rootNode = (ObjectNode) dataRepository.getData();
-        ObjectMapper objectMapper = new ObjectMapper();
-        rootNode.set("firestations", objectMapper.valueToTree(fireStations));
-        dataRepository.writeData(rootNode);
+        dataRepository.writeSections(Map.of("firestations", fireStations));
         logger.info("Fire stations list updated successfully, now {} fire stations.", fireStations.size());
     }
 }
@@ -0,0 +1,139 @@
+package com.safetynet.alerts.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps the JSON encoding of each entity of a repository, so that a full list can be written
+ * by concatenating the pre-encoded fragments instead of serializing every element on every call.
+ * The owning repository refreshes or evicts a fragment whenever the matching entity changes.
+ *
+ * @param <T> the type of the cached entities.
+ */
+public class JsonFragmentCache<T> {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(JsonFragmentCache.class);
+    /**
+     * The number of lines written between two flushes of the NDJSON streams, large enough to fill the response buffer
+     * and small enough to deliver the first lines without waiting for the whole list.
+     */
+    public static final int STREAM_FLUSH_BATCH_SIZE = 256;
+    private final ObjectWriter writer;
+    private final Function<T, String> keyExtractor;
+    private final Map<String, byte[]> fragments = new ConcurrentHashMap<>();
+
+    /* CONSTRUCTOR */
+    /**
+     * @param type the class of the cached entities.
+     * @param keyExtractor the function giving the unique key of an entity (full name, address...).
+     */
+    public JsonFragmentCache(Class<T> type, Function<T, String> keyExtractor) {
+        this.writer = new ObjectMapper().writerFor(type);
+        this.keyExtractor = keyExtractor;
+    }
+
+    /* METHODS */
+
+    /**
+     * Retrieves the JSON fragment of the given entity, encoding it if it is not cached yet.
+     *
+     * @param entity the entity to encode.
+     * @return the UTF-8 JSON bytes of the entity.
+     */
+    public byte[] getFragment(T entity) {
+        return fragments.computeIfAbsent(keyExtractor.apply(entity), key -> encode(entity));
+    }
+
+    /**
+     * Encodes the given entity again and replaces its cached fragment.
+     *
+     * @param entity the entity which has been created or updated.
+     */
+    public void refresh(T entity) {
+        fragments.put(keyExtractor.apply(entity), encode(entity));
+    }
+
+    /**
+     * Removes the cached fragment of the given entity.
+     *
+     * @param entity the entity which has been deleted.
+     */
+    public void evict(T entity) {
+        if (entity == null) {
+            return;
+        }
+        fragments.remove(keyExtractor.apply(entity));
+    }
+
+    /**
+     * Removes every cached fragment, used when the whole list is reloaded.
+     */
+    public void clear() {
+        fragments.clear();
+    }
+
+    /**
+     * Writes the given entities as a JSON array by concatenating their fragments.
+     *
+     * @param entities the entities to write, in the order of the output.
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of entities written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeArray(Iterable<T> entities, OutputStream outputStream) throws IOException {
+        int count = 0;
+        outputStream.write('[');
+        for (T entity : entities) {
+            if (count > 0) {
+                outputStream.write(',');
+            }
+            outputStream.write(getFragment(entity));
+            count++;
+        }
+        outputStream.write(']');
+        logger.debug("Wrote a JSON array of {} cached fragments", count);
+        return count;
+    }
+
+    /**
+     * Writes the given entities as newline-delimited JSON (one fragment per line), flushing the stream
+     * after each batch so the first lines are delivered without waiting for the whole list.
+     *
+     * @param entities the entities to write, in the order of the output.
+     * @param outputStream the stream receiving the lines.
+     * @param flushBatchSize the number of lines written between two flushes.
+     * @return the number of entities written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeLines(Iterable<T> entities, OutputStream outputStream, int flushBatchSize) throws IOException {
+        int count = 0;
+        for (T entity : entities) {
+            outputStream.write(getFragment(entity));
+            outputStream.write('\n');
+            if (++count % flushBatchSize == 0) {
+                outputStream.flush();
+            }
+        }
+        outputStream.flush();
+        logger.debug("Wrote {} cached fragments as lines", count);
+        return count;
+    }
+
+    private byte[] encode(T entity) {
+        try {
+            return writer.writeValueAsBytes(entity);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error while encoding " + keyExtractor.apply(entity), e);
+        }
+    }
+}
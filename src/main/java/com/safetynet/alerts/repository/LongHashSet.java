@@ -0,0 +1,92 @@
+package com.safetynet.alerts.repository;
+
+import java.util.Arrays;
+
+/**
+ * A set of longs in an open addressing hash table, which stores the values in a long array instead of boxing each
+ * of them in a Long and a HashMap entry, to deduplicate the packed phone numbers of an alert or of a city.
+ * The value Long.MIN_VALUE marks the empty slots, so it cannot be added.
+ */
+public class LongHashSet {
+
+    /* VARIABLES */
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] values;
+    private int size;
+
+    /* CONSTRUCTOR */
+    /**
+     * @param expectedSize the number of values expected, to size the table without growing it.
+     */
+    public LongHashSet(int expectedSize) {
+        // A table at most half full keeps the probe sequences short.
+        values = new long[Integer.highestOneBit(Math.max(expectedSize, 2) * 2 - 1) * 2];
+        Arrays.fill(values, EMPTY);
+    }
+
+    /* METHODS */
+
+    /**
+     * Adds a value if it is not already in the set.
+     *
+     * @param value the value to add.
+     * @return true if the value was added, false if it was already in the set.
+     * @throws IllegalArgumentException if the value is Long.MIN_VALUE.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be added to a LongHashSet");
+        }
+        int mask = values.length - 1;
+        int slot = slot(value, mask);
+        while (values[slot] != EMPTY) {
+            if (values[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+        if (++size * 2 > values.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        int mask = values.length - 1;
+        int slot = slot(value, mask);
+        while (values[slot] != EMPTY) {
+            if (values[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldValues = values;
+        values = new long[oldValues.length * 2];
+        Arrays.fill(values, EMPTY);
+        int mask = values.length - 1;
+        for (long value : oldValues) {
+            if (value != EMPTY) {
+                int slot = slot(value, mask);
+                while (values[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                values[slot] = value;
+            }
+        }
+    }
+
+    private static int slot(long value, int mask) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -3,32 +3,74 @@ package com.safetynet.alerts.repository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
 import com.safetynet.alerts.model.MedicalRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Repository
 public class MedicalRecordRepository {
 
     /* VARIABLES */
     private static final Logger logger = LoggerFactory.getLogger(MedicalRecordRepository.class);
-    List<MedicalRecord> medicalRecords;
+    public static final String ENTITY = "medicalrecords";
+    volatile List<MedicalRecord> medicalRecords;
     private final DataRepository dataRepository;
+    private final ChangeLog changeLog;
+    private final RepositoryMetrics metrics;
+    private final StringDictionary dictionary;
+    private final VersionIndex versions;
+    private final NavigableMap<String, MedicalRecord> medicalRecordsByFullName = new ConcurrentSkipListMap<>();
+    private final JsonFragmentCache<MedicalRecord> fragments = new JsonFragmentCache<>(MedicalRecord.class, MedicalRecordRepository::indexKey);
 
-    /* CONSTRUCTOR */
+    /* CONSTRUCTORS */
+    /**
+     * Constructor with a private change log, metrics registry and dictionary, for the tests of the repository alone.
+     * The medical records list is loaded right away.
+     * @param dataRepository the repository of the JSON file.
+     */
     public MedicalRecordRepository(DataRepository dataRepository) {
-        this.dataRepository = dataRepository;
+        this(dataRepository, new ChangeLog(), new SimpleMeterRegistry(), new StringDictionary());
         createListMedicalRecords();
     }
 
+    /**
+     * The medical records list stays empty until the DatasetLoader loads the data, once the application context is refreshed.
+     * @param dataRepository the repository of the JSON file.
+     * @param changeLog the log receiving every committed change of the medical records.
+     * @param meterRegistry the registry of the size and scan metrics of the medical records list.
+     * @param dictionary the dictionary sharing the medications and allergies of the medical records.
+     */
+    @Autowired
+    public MedicalRecordRepository(DataRepository dataRepository, ChangeLog changeLog, MeterRegistry meterRegistry, StringDictionary dictionary) {
+        this.dataRepository = dataRepository;
+        this.changeLog = changeLog;
+        this.dictionary = dictionary;
+        this.versions = new VersionIndex(ENTITY, changeLog.getRetainedVersions());
+        changeLog.subscribe(versions);
+        this.medicalRecords = new CopyOnWriteArrayList<>();
+        this.metrics = new RepositoryMetrics(meterRegistry, ENTITY, () -> medicalRecords.size());
+    }
+
     /* METHODS */
 
     /**
@@ -37,17 +79,32 @@ public class MedicalRecordRepository {
      * @throws RuntimeException if an error occurs while creating the list
      */
     public void createListMedicalRecords() {
+        createListMedicalRecords(dataRepository.getData());
+        updateMedicalRecordsList(this.medicalRecords);
+    }
+
+    /**
+     * Creates the medical records list from the "medicalrecords" key of the given JSON data, removing the duplicates, without writing the JSON file:
+     * the DatasetLoader parses the three lists of a single read of the file in parallel, then writes them back at once.
+     *
+     * @param data the JSON data of the whole file.
+     * @throws RuntimeException if an error occurs while creating the list
+     */
+    public void createListMedicalRecords(JsonNode data) {
         try {
             logger.debug("Creating medical records list from JSON file");
-            JsonNode data = dataRepository.getData();
             JsonNode medicalRecordNode = data.get("medicalrecords");
 
             ObjectMapper objectMapper = new ObjectMapper();
             TypeReference<List<MedicalRecord>> typeReferenceList = new TypeReference<>() {};
             List<MedicalRecord> medicalRecordsData = objectMapper.readValue(medicalRecordNode.traverse(), typeReferenceList);
+            medicalRecordsData.forEach(this::canonicalize);
 
-            this.medicalRecords = validateMedicalRecordsData(medicalRecordsData);
-            updateMedicalRecordsList(this.medicalRecords);
+            this.medicalRecords = new CopyOnWriteArrayList<>(validateMedicalRecordsData(medicalRecordsData));
+            fragments.clear();
+            medicalRecordsByFullName.clear();
+            medicalRecords.forEach(medicalRecord -> medicalRecordsByFullName.put(indexKey(medicalRecord), medicalRecord));
+            changeLog.record(ENTITY, ChangeType.RELOADED, null, null);
             logger.info("Medical records list created successfully with {} medical records", medicalRecords.size());
         } catch (IOException e) {
             throw new RuntimeException("Error while creating MedicalRecords list", e);
@@ -86,7 +143,107 @@ public class MedicalRecordRepository {
      */
     public List<MedicalRecord> findAll() {
         logger.debug("Finding all medical records");
-        return medicalRecords;
+        List<MedicalRecord> all = medicalRecords;
+        RequestTrace.recordAccess(ENTITY, "findAll", RequestTrace.SCAN, all.size(), 0);
+        return all;
+    }
+
+    /**
+     * Writes all medical records as a JSON array, concatenating the cached JSON fragment of each medical record.
+     *
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of medical records written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeAllAsJson(OutputStream outputStream) throws IOException {
+        logger.debug("Writing all medical records as JSON");
+        return fragments.writeArray(medicalRecords, outputStream);
+    }
+
+    /**
+     * Writes all medical records as newline-delimited JSON, one cached JSON fragment per line.
+     *
+     * @param outputStream the stream receiving the lines.
+     * @return the number of medical records written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeAllAsNdjson(OutputStream outputStream) throws IOException {
+        logger.debug("Streaming all medical records as NDJSON");
+        return fragments.writeLines(medicalRecords, outputStream, JsonFragmentCache.STREAM_FLUSH_BATCH_SIZE);
+    }
+
+    /**
+     * Reads the medical records following the given key in the ordered index, ordered by last name then first name.
+     *
+     * @param afterKey the index key to start after, or null to start from the first medical record.
+     * @param limit the maximum number of medical records to read.
+     * @return a list of at most limit medical records, in index order.
+     */
+    public List<MedicalRecord> findMedicalRecordsPage(String afterKey, int limit) {
+        logger.debug("Reading a page of {} medical records after {}", limit, afterKey);
+        NavigableMap<String, MedicalRecord> tail = afterKey == null ? medicalRecordsByFullName : medicalRecordsByFullName.tailMap(afterKey, false);
+        List<MedicalRecord> page = new ArrayList<>();
+        for (MedicalRecord medicalRecord : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(medicalRecord);
+        }
+        return page;
+    }
+
+    /**
+     * Finds a medical record through the ordered index.
+     *
+     * @param indexKey the index key of the medical record, as given by {@link #indexKey(MedicalRecord)}.
+     * @return the medical record or null if not found.
+     */
+    public MedicalRecord findByIndexKey(String indexKey) {
+        RequestTrace.Span span = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP);
+        MedicalRecord medicalRecord = medicalRecordsByFullName.get(indexKey);
+        int found = medicalRecord == null ? 0 : 1;
+        span.closeAccess(ENTITY, "findByIndexKey", RequestTrace.INDEX, found, found);
+        return medicalRecord;
+    }
+
+    /**
+     * Reads the last change of every medical record changed or deleted after the given version, a deletion being a change without data.
+     *
+     * @param version the version already known by the caller, a sequence of the ChangeLog.
+     * @return the changes after this version, in version order.
+     */
+    public List<ChangeEvent> findChangesAfter(long version) {
+        return versions.findChangesAfter(version);
+    }
+
+    /**
+     * Gives the version of the last reload of the medical records list, before which the changes are not known anymore.
+     *
+     * @return the sequence of the last reload in the ChangeLog.
+     */
+    public long getResetVersion() {
+        return versions.getResetVersion();
+    }
+
+    /**
+     * Gives the key of a medical record in the ordered index: the last name, then the first name.
+     *
+     * @param medicalRecord a MedicalRecord object.
+     * @return the index key of the medical record.
+     */
+    public static String indexKey(MedicalRecord medicalRecord) {
+        return indexKey(medicalRecord.getFirstName(), medicalRecord.getLastName());
+    }
+
+    /**
+     * Gives the key in the ordered index of the medical record of the person with the given first name and last name.
+     *
+     * @param firstName a string representing the first name of the person
+     * @param lastName a string representing the last name of the person
+     * @return the index key of the medical record.
+     */
+    public static String indexKey(String firstName, String lastName) {
+        return lastName + '\u0000' + firstName;
     }
 
     /**
@@ -98,12 +255,17 @@ public class MedicalRecordRepository {
      */
     public MedicalRecord findMedicalRecordsByFullName(String firstName, String lastName) {
         logger.debug("Finding medical record for {} {}", firstName, lastName);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        int scanned = 0;
         for (MedicalRecord medicalRecord : medicalRecords) {
+            scanned++;
             if(medicalRecord.getFirstName().equals(firstName) && medicalRecord.getLastName().equals(lastName)) {
                 logger.debug("Found medical record for {} {}", firstName, lastName);
+                metrics.recordScan(event, "findMedicalRecordsByFullName", firstName, lastName, scanned);
                 return medicalRecord;
             }
         }
+        metrics.recordScan(event, "findMedicalRecordsByFullName", firstName, lastName, scanned);
         logger.warn("No medical record found for {} {}", firstName, lastName);
         return null;
     }
@@ -114,27 +276,87 @@ public class MedicalRecordRepository {
      * @param medicalRecord a new medical record to add
      * @return the added medical record
      */
-    public MedicalRecord save(MedicalRecord medicalRecord) {
+    public synchronized MedicalRecord save(MedicalRecord medicalRecord) {
         logger.debug("Saving new medical record for {} {}", medicalRecord.getFirstName(), medicalRecord.getLastName());
+        canonicalize(medicalRecord);
         medicalRecords.add(medicalRecord);
+        fragments.refresh(medicalRecord);
+        medicalRecordsByFullName.put(indexKey(medicalRecord), medicalRecord);
         updateMedicalRecordsList(medicalRecords);
+        recordChange(ChangeType.CREATED, medicalRecord);
         logger.info("Medical record saved successfully for {} {}", medicalRecord.getFirstName(), medicalRecord.getLastName());
         return medicalRecord;
     }
 
+    /**
+     * Creates or replaces many medical records at once and updates the JSON file a single time.
+     * Existing medical records are replaced at their position, new ones are added at the end of the list.
+     * The new list is written first, so the in-memory data is left unchanged if the JSON file cannot be written.
+     *
+     * @param inputMedicalRecords the medical records to create or update, with unique full names.
+     * @return the number of medical records which have been created.
+     */
+    public synchronized int upsertAll(Collection<MedicalRecord> inputMedicalRecords) {
+        logger.debug("Upserting {} medical records", inputMedicalRecords.size());
+        inputMedicalRecords.forEach(this::canonicalize);
+        Map<String, MedicalRecord> pendingMedicalRecords = new LinkedHashMap<>();
+        inputMedicalRecords.forEach(medicalRecord -> pendingMedicalRecords.put(indexKey(medicalRecord), medicalRecord));
+
+        List<MedicalRecord> upsertedMedicalRecords = new ArrayList<>(medicalRecords.size() + pendingMedicalRecords.size());
+        for (MedicalRecord medicalRecord : medicalRecords) {
+            MedicalRecord replacement = pendingMedicalRecords.remove(indexKey(medicalRecord));
+            upsertedMedicalRecords.add(replacement == null ? medicalRecord : replacement);
+        }
+        Set<String> createdKeys = new HashSet<>(pendingMedicalRecords.keySet());
+        int createdCount = createdKeys.size();
+        upsertedMedicalRecords.addAll(pendingMedicalRecords.values());
+        updateMedicalRecordsList(upsertedMedicalRecords);
+
+        this.medicalRecords = new CopyOnWriteArrayList<>(upsertedMedicalRecords);
+        for (MedicalRecord inputMedicalRecord : inputMedicalRecords) {
+            fragments.refresh(inputMedicalRecord);
+            medicalRecordsByFullName.put(indexKey(inputMedicalRecord), inputMedicalRecord);
+            recordChange(createdKeys.contains(indexKey(inputMedicalRecord)) ? ChangeType.CREATED : ChangeType.UPDATED, inputMedicalRecord);
+        }
+        logger.info("Medical records upserted successfully: {} created, {} updated", createdCount, inputMedicalRecords.size() - createdCount);
+        return createdCount;
+    }
+
+    /**
+     * Replaces the medical records list by the remaining medical records once the caller has written the removal
+     * to the JSON file, and drops the removed medical records from the ordered index and the JSON fragments.
+     *
+     * @param remainingMedicalRecords the medical records list without the removed ones, as written to the JSON file.
+     * @param removedMedicalRecords the medical records which have been removed.
+     */
+    public synchronized void applyRemoval(List<MedicalRecord> remainingMedicalRecords, Collection<MedicalRecord> removedMedicalRecords) {
+        logger.debug("Removing {} medical records from memory", removedMedicalRecords.size());
+        this.medicalRecords = new CopyOnWriteArrayList<>(remainingMedicalRecords);
+        for (MedicalRecord medicalRecord : removedMedicalRecords) {
+            fragments.evict(medicalRecord);
+            medicalRecordsByFullName.remove(indexKey(medicalRecord));
+            recordChange(ChangeType.DELETED, medicalRecord);
+        }
+        logger.info("{} medical records removed, now {} entries", removedMedicalRecords.size(), medicalRecords.size());
+    }
+
     /**
      * Update an existing medical record with the new data and update the JSON file
      *
      * @param inputMedicalRecord a medical record with updated data
      * @return the updated medical record
      */
-    public MedicalRecord update(MedicalRecord inputMedicalRecord) {
+    public synchronized MedicalRecord update(MedicalRecord inputMedicalRecord) {
         logger.debug("Updating medical record for {} {}", inputMedicalRecord.getFirstName(), inputMedicalRecord.getLastName());
+        canonicalize(inputMedicalRecord);
         for (MedicalRecord medicalRecord : medicalRecords) {
             if(medicalRecord.getFirstName().equals(inputMedicalRecord.getFirstName()) &&
                medicalRecord.getLastName().equals(inputMedicalRecord.getLastName())) {
                 medicalRecords.set(medicalRecords.indexOf(medicalRecord), inputMedicalRecord);
+                fragments.refresh(inputMedicalRecord);
+                medicalRecordsByFullName.put(indexKey(inputMedicalRecord), inputMedicalRecord);
                 updateMedicalRecordsList(medicalRecords);
+                recordChange(ChangeType.UPDATED, inputMedicalRecord);
                 logger.info("Medical record updated successfully for {} {}", inputMedicalRecord.getFirstName(), inputMedicalRecord.getLastName());
                 return inputMedicalRecord;
             }
@@ -147,13 +369,16 @@ public class MedicalRecordRepository {
      *
      * @param inputMedicalRecord a MedicalRecord object to delete.
      */
-    public void delete(MedicalRecord inputMedicalRecord) {
+    public synchronized void delete(MedicalRecord inputMedicalRecord) {
         logger.debug("Deleting medical record for {} {}", inputMedicalRecord.getFirstName(), inputMedicalRecord.getLastName());
         for (MedicalRecord medicalRecord : medicalRecords) {
             if(medicalRecord.getFirstName().equals(inputMedicalRecord.getFirstName()) &&
                     medicalRecord.getLastName().equals(inputMedicalRecord.getLastName())) {
                 medicalRecords.remove(medicalRecord);
+                fragments.evict(medicalRecord);
+                medicalRecordsByFullName.remove(indexKey(medicalRecord));
                 updateMedicalRecordsList(medicalRecords);
+                recordChange(ChangeType.DELETED, medicalRecord);
                 logger.info("Medical record deleted successfully for {} {}", inputMedicalRecord.getFirstName(), inputMedicalRecord.getLastName());
                 return;
             }
@@ -161,16 +386,25 @@ public class MedicalRecordRepository {
     }
 
     /**
-     * Turn the medical records list into a JsonNode object in order to write it int the JSON file as value for the key "medicalrecords"
+     * Replaces the medications and allergies of a medical record by their canonical instances, shared with the other medical records.
+     */
+    private void canonicalize(MedicalRecord medicalRecord) {
+        medicalRecord.setMedications(dictionary.canonical(medicalRecord.getMedications()));
+        medicalRecord.setAllergies(dictionary.canonical(medicalRecord.getAllergies()));
+    }
+
+    private void recordChange(ChangeType type, MedicalRecord medicalRecord) {
+        changeLog.record(ENTITY, type, medicalRecord.getFirstName() + " " + medicalRecord.getLastName(), indexKey(medicalRecord), type == ChangeType.DELETED ? null : medicalRecord);
+    }
+
+    /**
+     * Write the medical records list in the JSON file as value for the key "medicalrecords", the other sections of the file being kept as they are.
      *
      * @param medicalRecords the list of medical records with the new data to write to the JSON file
      */
     public void updateMedicalRecordsList(List<MedicalRecord> medicalRecords) {
         logger.debug("Updating medical records list");
-        ObjectNode rootNode = (ObjectNode) dataRepository.getData();
-        ObjectMapper objectMapper = new ObjectMapper();
-        rootNode.set("medicalrecords", objectMapper.valueToTree(medicalRecords));
-        dataRepository.writeData(rootNode);
+        dataRepository.writeSections(Map.of("medicalrecords", medicalRecords));
         logger.info("Medical records updated successfully, now {} entries", medicalRecords.size());
     }
 }
@@ -3,32 +3,100 @@ package com.safetynet.alerts.repository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
 import com.safetynet.alerts.model.Person;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
 
 @Repository
 public class PersonRepository {
     /* VARIABLES */
     private static final Logger logger = LoggerFactory.getLogger(PersonRepository.class);
-    List<Person> persons;
+    public static final String ENTITY = "persons";
+    public static final String OBJECT_LAYOUT = "objects";
+    public static final String COLUMNAR_LAYOUT = "columnar";
+    volatile List<Person> persons;
     private final DataRepository dataRepository;
+    private final ChangeLog changeLog;
+    private final RepositoryMetrics metrics;
+    private final StringDictionary dictionary;
+    private final boolean columnar;
+    private volatile ColumnarPersonStore columns = new ColumnarPersonStore(List.of());
+    private final VersionIndex versions;
+    private final NavigableMap<String, Person> personsByFullName = new ConcurrentSkipListMap<>();
+    private final JsonFragmentCache<Person> fragments = new JsonFragmentCache<>(Person.class, PersonRepository::indexKey);
 
-    /* CONSTRUCTOR */
+    /* CONSTRUCTORS */
+    /**
+     * Constructor with a private change log, metrics registry and dictionary, for the tests of the repository alone.
+     * The persons list is loaded right away.
+     * @param dataRepository the repository of the JSON file.
+     */
     public PersonRepository(DataRepository dataRepository) {
-        this.dataRepository = dataRepository;
+        this(dataRepository, new ChangeLog(), new SimpleMeterRegistry(), new StringDictionary());
         createListPersons();
     }
 
+    /**
+     * The persons list stays empty until the DatasetLoader loads the data, once the application context is refreshed.
+     * @param dataRepository the repository of the JSON file.
+     * @param changeLog the log receiving every committed change of the persons.
+     * @param meterRegistry the registry of the size and scan metrics of the persons list.
+     * @param dictionary the dictionary sharing the addresses, cities and zips of the persons.
+     */
+    public PersonRepository(DataRepository dataRepository, ChangeLog changeLog, MeterRegistry meterRegistry, StringDictionary dictionary) {
+        this(dataRepository, changeLog, meterRegistry, dictionary, OBJECT_LAYOUT);
+    }
+
+    /**
+     * The persons list stays empty until the DatasetLoader loads the data, once the application context is refreshed.
+     * @param dataRepository the repository of the JSON file.
+     * @param changeLog the log receiving every committed change of the persons.
+     * @param meterRegistry the registry of the size and scan metrics of the persons list.
+     * @param dictionary the dictionary sharing the addresses, cities and zips of the persons.
+     * @param layout OBJECT_LAYOUT to scan the persons list, or COLUMNAR_LAYOUT to scan a ColumnarPersonStore copy of it,
+     *               from the alerts.persons.layout property.
+     * @throws IllegalArgumentException if the layout is unknown.
+     */
+    @Autowired
+    public PersonRepository(DataRepository dataRepository, ChangeLog changeLog, MeterRegistry meterRegistry, StringDictionary dictionary,
+                            @Value("${alerts.persons.layout:" + OBJECT_LAYOUT + "}") String layout) {
+        if (!OBJECT_LAYOUT.equals(layout) && !COLUMNAR_LAYOUT.equals(layout)) {
+            throw new IllegalArgumentException("Unknown persons layout " + layout + ", expected " + OBJECT_LAYOUT + " or " + COLUMNAR_LAYOUT);
+        }
+        this.dataRepository = dataRepository;
+        this.changeLog = changeLog;
+        this.dictionary = dictionary;
+        this.columnar = COLUMNAR_LAYOUT.equals(layout);
+        this.versions = new VersionIndex(ENTITY, changeLog.getRetainedVersions());
+        changeLog.subscribe(versions);
+        this.persons = new CopyOnWriteArrayList<>();
+        this.metrics = new RepositoryMetrics(meterRegistry, ENTITY, () -> persons.size());
+    }
+
     /* METHODS */
 
     /**
@@ -38,17 +106,33 @@ public class PersonRepository {
      * @throws RuntimeException if an error occurs while creating the list
      */
     public void createListPersons() {
+        createListPersons(dataRepository.getData());
+        updatePersonsList(this.persons);
+    }
+
+    /**
+     * Creates the persons list from the "persons" key of the given JSON data, removing the duplicates, without writing the JSON file:
+     * the DatasetLoader parses the three lists of a single read of the file in parallel, then writes them back at once.
+     *
+     * @param data the JSON data of the whole file.
+     * @throws RuntimeException if an error occurs while creating the list
+     */
+    public void createListPersons(JsonNode data) {
         try {
             logger.debug("Creating persons list from the JSON file.");
-            JsonNode data = dataRepository.getData();
             JsonNode personsNode = data.get("persons");
 
             ObjectMapper objectMapper = new ObjectMapper();
             TypeReference<List<Person>> typeReferenceList = new TypeReference<>() {};
             List<Person> personsData = objectMapper.readValue(personsNode.traverse(), typeReferenceList);
+            personsData.forEach(this::canonicalize);
 
-            this.persons = validatePersonsData(personsData);
-            updatePersonsList(this.persons);
+            this.persons = new CopyOnWriteArrayList<>(validatePersonsData(personsData));
+            fragments.clear();
+            personsByFullName.clear();
+            persons.forEach(person -> personsByFullName.put(indexKey(person), person));
+            refreshColumns();
+            changeLog.record(ENTITY, ChangeType.RELOADED, null, null);
             logger.info("Persons list created, with {} persons.", persons.size());
         } catch (IOException e) {
             throw new RuntimeException("Error while creating Persons List", e);
@@ -87,7 +171,121 @@ public class PersonRepository {
      */
     public List<Person> findAll() {
         logger.debug("Finding all persons.");
-        return persons;
+        List<Person> all = persons;
+        RequestTrace.recordAccess(ENTITY, "findAll", RequestTrace.SCAN, all.size(), 0);
+        return all;
+    }
+
+    /**
+     * Writes all persons as a JSON array, concatenating the cached JSON fragment of each person.
+     *
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of persons written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeAllAsJson(OutputStream outputStream) throws IOException {
+        logger.debug("Writing all persons as JSON.");
+        return fragments.writeArray(persons, outputStream);
+    }
+
+    /**
+     * Writes all persons as newline-delimited JSON, one cached JSON fragment per line.
+     *
+     * @param outputStream the stream receiving the lines.
+     * @return the number of persons written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeAllAsNdjson(OutputStream outputStream) throws IOException {
+        logger.debug("Streaming all persons as NDJSON.");
+        return fragments.writeLines(persons, outputStream, JsonFragmentCache.STREAM_FLUSH_BATCH_SIZE);
+    }
+
+    /**
+     * Reads the persons following the given key in the ordered index, ordered by last name then first name.
+     *
+     * @param afterKey the index key to start after, or null to start from the first person.
+     * @param limit the maximum number of persons to read.
+     * @return a list of at most limit persons, in index order.
+     */
+    public List<Person> findPersonsPage(String afterKey, int limit) {
+        logger.debug("Reading a page of {} persons after {}.", limit, afterKey);
+        NavigableMap<String, Person> tail = afterKey == null ? personsByFullName : personsByFullName.tailMap(afterKey, false);
+        List<Person> page = new ArrayList<>();
+        for (Person person : tail.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(person);
+        }
+        return page;
+    }
+
+    /**
+     * Reads the last change of every person changed or deleted after the given version, a deletion being a change without data.
+     *
+     * @param version the version already known by the caller, a sequence of the ChangeLog.
+     * @return the changes after this version, in version order.
+     */
+    public List<ChangeEvent> findChangesAfter(long version) {
+        return versions.findChangesAfter(version);
+    }
+
+    /**
+     * Gives the version of the last reload of the persons list, before which the changes are not known anymore.
+     *
+     * @return the sequence of the last reload in the ChangeLog.
+     */
+    public long getResetVersion() {
+        return versions.getResetVersion();
+    }
+
+    /**
+     * Gives the key of a person in the ordered index: the last name, then the first name.
+     *
+     * @param person a Person object.
+     * @return the index key of the person.
+     */
+    public static String indexKey(Person person) {
+        return indexKey(person.getFirstName(), person.getLastName());
+    }
+
+    /**
+     * Gives the key in the ordered index of the person with the given first name and last name.
+     *
+     * @param firstName a string representing the first name of the person
+     * @param lastName a string representing the last name of the person
+     * @return the index key of the person.
+     */
+    public static String indexKey(String firstName, String lastName) {
+        return lastName + '\u0000' + firstName;
+    }
+
+    /**
+     * Check in the ordered index if a person with the given index key exists, without browsing the persons list.
+     *
+     * @param indexKey the index key of the person, as given by indexKey(firstName, lastName).
+     * @return true if the person exists, false otherwise.
+     */
+    public boolean existsByIndexKey(String indexKey) {
+        RequestTrace.Span span = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP);
+        boolean exists = personsByFullName.containsKey(indexKey);
+        int found = exists ? 1 : 0;
+        span.closeAccess(ENTITY, "existsByIndexKey", RequestTrace.INDEX, found, found);
+        return exists;
+    }
+
+    /**
+     * Finds a person through the ordered index, without browsing the persons list.
+     *
+     * @param indexKey the index key of the person, as given by indexKey(firstName, lastName).
+     * @return the person or null if not found.
+     */
+    public Person findByIndexKey(String indexKey) {
+        RequestTrace.Span span = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP);
+        Person person = personsByFullName.get(indexKey);
+        int found = person == null ? 0 : 1;
+        span.closeAccess(ENTITY, "findByIndexKey", RequestTrace.INDEX, found, found);
+        return person;
     }
 
     /**
@@ -99,12 +297,25 @@ public class PersonRepository {
      */
     public Person findPersonByFullName(String firstName, String lastName) {
         logger.debug("Finding person named {} {}.", firstName, lastName);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        if (columnar) {
+            Person person = personsByFullName.get(indexKey(firstName, lastName));
+            metrics.recordIndexLookup(event, "findPersonByFullName", firstName, lastName, person == null ? 0 : 1);
+            if (person == null) {
+                logger.warn("Person not found: {} {}.", firstName, lastName);
+            }
+            return person;
+        }
+        int scanned = 0;
         for (Person person : persons) {
+            scanned++;
             if(person.getFirstName().equals(firstName) && person.getLastName().equals(lastName)) {
                 logger.debug("Found person named {} {}.", firstName, lastName);
+                metrics.recordScan(event, "findPersonByFullName", firstName, lastName, scanned);
                 return person;
             }
         }
+        metrics.recordScan(event, "findPersonByFullName", firstName, lastName, scanned);
         logger.warn("Person not found: {} {}.", firstName, lastName);
         return null;
     }
@@ -117,13 +328,23 @@ public class PersonRepository {
      */
     public List<Person> findPersonsByLastName(String lastName) {
         logger.debug("Finding persons named {}.", lastName);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        if (columnar) {
+            ColumnarPersonStore store = columns;
+            List<Person> outputPersonsList = store.findByLastName(lastName);
+            metrics.recordScan(event, "findPersonsByLastName", lastName, store.size());
+            logger.debug("Found {} persons named {}.", outputPersonsList.size(), lastName);
+            return outputPersonsList;
+        }
+        List<Person> scannedPersons = persons;
         List<Person> outputPersonsList = new ArrayList<>();
-        for (Person person : persons) {
+        for (Person person : scannedPersons) {
             if(person.getLastName().equals(lastName)) {
                 outputPersonsList.add(person);
                 logger.debug("Adding {} {} to the list of persons named {}.", person.getFirstName(), person.getLastName(), lastName);
             }
         }
+        metrics.recordScan(event, "findPersonsByLastName", lastName, scannedPersons.size());
         logger.debug("Found {} persons named {}.", outputPersonsList.size(), lastName);
         return outputPersonsList;
     }
@@ -136,13 +357,23 @@ public class PersonRepository {
      */
     public List<Person> findPersonByAddress(String address) {
         logger.debug("Finding persons living at {}.", address);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        if (columnar) {
+            ColumnarPersonStore store = columns;
+            List<Person> outputPersonsList = store.findByAddress(address);
+            metrics.recordScan(event, "findPersonByAddress", address, store.size());
+            logger.debug("Found {} persons living at {}.", outputPersonsList.size(), address);
+            return outputPersonsList;
+        }
+        List<Person> scannedPersons = persons;
         List<Person> outputPersonsList = new ArrayList<>();
-        for (Person person : persons) {
+        for (Person person : scannedPersons) {
             if(person.getAddress().equals(address)) {
                 outputPersonsList.add(person);
                 logger.debug("Adding {} {} to the list of persons living at {}.", person.getFirstName(), person.getLastName(), address);
             }
         }
+        metrics.recordScan(event, "findPersonByAddress", address, scannedPersons.size());
         logger.debug("Found {} persons living at {}.", outputPersonsList.size(), address);
         return outputPersonsList;
     }
@@ -155,44 +386,150 @@ public class PersonRepository {
      */
     public List<Person> findPersonsByCity(String city) {
         logger.debug("Finding persons living in {}.", city);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        if (columnar) {
+            ColumnarPersonStore store = columns;
+            List<Person> outputPersonsList = store.findByCity(city);
+            metrics.recordScan(event, "findPersonsByCity", city, store.size());
+            logger.debug("Found {} persons living in {}.", outputPersonsList.size(), city);
+            return outputPersonsList;
+        }
+        List<Person> scannedPersons = persons;
         List<Person> outputPersonsList = new ArrayList<>();
-        for (Person person : persons) {
+        for (Person person : scannedPersons) {
             if(person.getCity().equals(city)) {
                 outputPersonsList.add(person);
                 logger.debug("Adding {} {} to the list of persons in {}.", person.getFirstName(), person.getLastName(), city);
             }
         }
+        metrics.recordScan(event, "findPersonsByCity", city, scannedPersons.size());
         logger.debug("Found {} persons living in {}.", outputPersonsList.size(), city);
         return outputPersonsList;
     }
 
+    /**
+     * Lazily browse the persons list to find those living in the given city, without building a list.
+     *
+     * @param city a String representing a city
+     * @return a Stream of the persons living in the city
+     */
+    public Stream<Person> streamPersonsByCity(String city) {
+        logger.debug("Streaming persons living in {}.", city);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        if (columnar) {
+            ColumnarPersonStore store = columns;
+            List<Person> outputPersonsList = store.findByCity(city);
+            metrics.recordScan(event, "streamPersonsByCity", city, store.size());
+            return outputPersonsList.stream();
+        }
+        List<Person> scannedPersons = persons;
+        metrics.recordScan(event, "streamPersonsByCity", city, scannedPersons.size());
+        return scannedPersons.stream().filter(person -> person.getCity().equals(city));
+    }
+
+    /**
+     * Browse the persons list to find the distinct phone numbers of those living in the given city.
+     *
+     * @param city a String representing a city
+     * @return the distinct phone numbers of the persons living in the city, in list order
+     */
+    public List<String> findPhonesByCity(String city) {
+        logger.debug("Finding phones of the persons living in {}.", city);
+        RepositoryLookupEvent event = RepositoryLookupEvent.start();
+        if (columnar) {
+            ColumnarPersonStore store = columns;
+            List<String> phones = store.phonesByCity(city);
+            metrics.recordScan(event, "findPhonesByCity", city, store.size());
+            logger.debug("Found {} phones in {}.", phones.size(), city);
+            return phones;
+        }
+        List<Person> scannedPersons = persons;
+        List<String> phones = new ArrayList<>();
+        Set<String> foundPhones = new HashSet<>();
+        for (Person person : scannedPersons) {
+            if(person.getCity().equals(city) && foundPhones.add(person.getPhone())) {
+                phones.add(person.getPhone());
+            }
+        }
+        metrics.recordScan(event, "findPhonesByCity", city, scannedPersons.size());
+        logger.debug("Found {} phones in {}.", phones.size(), city);
+        return phones;
+    }
+
     /**
      * Add a new person to the list of persons and update the JSON file.
      *
      * @param person a new Person to add.
      * @return the added person
      */
-    public Person save(Person person) {
+    public synchronized Person save(Person person) {
         logger.debug("Saving person {} {}.", person.getFirstName(), person.getLastName());
+        canonicalize(person);
         persons.add(person);
+        fragments.refresh(person);
+        personsByFullName.put(indexKey(person), person);
+        appendColumns(List.of(person));
         updatePersonsList(persons);
+        recordChange(ChangeType.CREATED, person);
         logger.info("Person saved: {} {}", person.getFirstName(), person.getLastName());
         return person;
     }
 
+    /**
+     * Add several new persons to the list of persons and update the JSON file only once.
+     * If the JSON file cannot be written, none of the persons is kept in the list.
+     *
+     * @param newPersons the new persons to add, which must not already exist.
+     * @return the added persons.
+     */
+    public synchronized List<Person> saveAll(List<Person> newPersons) {
+        logger.debug("Saving {} persons.", newPersons.size());
+        newPersons.forEach(this::canonicalize);
+        persons.addAll(newPersons);
+        for (Person person : newPersons) {
+            fragments.refresh(person);
+            personsByFullName.put(indexKey(person), person);
+        }
+        appendColumns(newPersons);
+        try {
+            updatePersonsList(persons);
+        } catch (RuntimeException e) {
+            logger.error("Persons could not be saved, rolling back {} persons.", newPersons.size());
+            Set<Person> addedPersons = Collections.newSetFromMap(new IdentityHashMap<>());
+            addedPersons.addAll(newPersons);
+            persons.removeIf(addedPersons::contains);
+            for (Person person : newPersons) {
+                fragments.evict(person);
+                personsByFullName.remove(indexKey(person));
+            }
+            removeColumns(newPersons);
+            throw e;
+        }
+        newPersons.forEach(person -> recordChange(ChangeType.CREATED, person));
+        logger.info("{} persons saved.", newPersons.size());
+        return newPersons;
+    }
+
     /**
      * Update an existing person with the new data and update the JSON file.
      *
      * @param inputPerson a person with updated data.
      * @return the updated person.
      */
-    public Person update(Person inputPerson) {
+    public synchronized Person update(Person inputPerson) {
         logger.debug("Updating person {} {}.", inputPerson.getFirstName(), inputPerson.getLastName());
+        canonicalize(inputPerson);
         for (Person person : persons) {
             if(person.getFirstName().equals(inputPerson.getFirstName()) &&
                     person.getLastName().equals(inputPerson.getLastName())) {
                 persons.set(persons.indexOf(person), inputPerson);
+                fragments.refresh(inputPerson);
+                personsByFullName.put(indexKey(inputPerson), inputPerson);
+                if (columnar) {
+                    columns.replace(inputPerson);
+                }
                 updatePersonsList(persons);
+                recordChange(ChangeType.UPDATED, inputPerson);
                 logger.info("Person {} {} updated.", person.getFirstName(), person.getLastName());
                 return inputPerson;
             }
@@ -205,12 +542,16 @@ public class PersonRepository {
      *
      * @param inputPerson a Person object to delete.
      */
-    public void delete(Person inputPerson) {
+    public synchronized void delete(Person inputPerson) {
         logger.debug("Deleting person named {} {}.", inputPerson.getFirstName(), inputPerson.getLastName());
         for (Person person : persons) {
             if (person.getFirstName().equals(inputPerson.getFirstName()) && person.getLastName().equals(inputPerson.getLastName())) {
                 persons.remove(person);
+                fragments.evict(person);
+                personsByFullName.remove(indexKey(person));
+                removeColumns(List.of(person));
                 updatePersonsList(persons);
+                recordChange(ChangeType.DELETED, person);
                 logger.info("{} {} deleted.", person.getFirstName(), person.getLastName());
                 return;
             }
@@ -218,16 +559,76 @@ public class PersonRepository {
     }
 
     /**
-     * Turn the persons list into a JsonNode Object in order to write it as values for the key "persons" in the JSON file.
+     * Replaces the persons list by the remaining persons once the caller has written the removal to the JSON file,
+     * and drops the removed persons from the ordered index and the JSON fragments.
+     *
+     * @param remainingPersons the persons list without the removed persons, as written to the JSON file.
+     * @param removedPersons the persons which have been removed.
+     */
+    public synchronized void applyRemoval(List<Person> remainingPersons, Collection<Person> removedPersons) {
+        logger.debug("Removing {} persons from memory.", removedPersons.size());
+        this.persons = new CopyOnWriteArrayList<>(remainingPersons);
+        removeColumns(removedPersons);
+        for (Person person : removedPersons) {
+            fragments.evict(person);
+            personsByFullName.remove(indexKey(person));
+            recordChange(ChangeType.DELETED, person);
+        }
+        logger.info("{} persons removed, now {} persons.", removedPersons.size(), persons.size());
+    }
+
+    /**
+     * Builds the columns of the current persons list, with the columnar layout.
+     */
+    private void refreshColumns() {
+        if (columnar) {
+            columns = new ColumnarPersonStore(persons);
+        }
+    }
+
+    /**
+     * Appends the rows of new persons to the columns, with the columnar layout.
+     */
+    private void appendColumns(Collection<Person> newPersons) {
+        if (columnar) {
+            columns.appendAll(newPersons);
+        }
+    }
+
+    /**
+     * Empties the rows of removed persons in the columns, with the columnar layout, and rebuilds the columns once
+     * the empty rows make up half of them.
+     */
+    private void removeColumns(Collection<Person> removedPersons) {
+        if (columnar) {
+            columns.removeAll(removedPersons);
+            if (columns.needsCompaction()) {
+                refreshColumns();
+            }
+        }
+    }
+
+    /**
+     * Replaces the address, city and zip of a person by their canonical instance, shared with the other persons and the fire stations.
+     */
+    private void canonicalize(Person person) {
+        person.setAddress(dictionary.canonical(person.getAddress()));
+        person.setCity(dictionary.canonical(person.getCity()));
+        person.setZip(dictionary.canonical(person.getZip()));
+    }
+
+    private void recordChange(ChangeType type, Person person) {
+        changeLog.record(ENTITY, type, person.getFirstName() + " " + person.getLastName(), indexKey(person), type == ChangeType.DELETED ? null : person);
+    }
+
+    /**
+     * Write the persons list as values for the key "persons" in the JSON file, the other sections of the file being kept as they are.
      *
      * @param persons a list of person with new data to write to the JSON file.
      */
     public void updatePersonsList(List<Person> persons) {
         logger.debug("Updating persons list.");
-        ObjectNode rootNode = (ObjectNode) dataRepository.getData();
-        ObjectMapper objectMapper = new ObjectMapper();
-        rootNode.set("persons", objectMapper.valueToTree(persons));
-        dataRepository.writeData(rootNode);
+        dataRepository.writeSections(Map.of("persons", persons));
         logger.info("Persons list updated, now {} persons.", persons.size());
     }
 }
@@ -0,0 +1,55 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of a lookup browsing a list of a repository, to correlate a slow request with the
+ * scans it made, the garbage collections and the file I/O in the same recording.
+ * When no recording enables it, begin and commit do nothing, and the JIT compiler usually removes the allocation of the event.
+ * A request makes many lookups, so the event is only enabled by the jfr/alerts.jfc profile, not by the default settings.
+ */
+@Name("com.safetynet.alerts.RepositoryLookup")
+@Label("Repository Lookup")
+@Category({"SafetyNet Alerts", "Repository"})
+@Description("A lookup browsing the list of a repository")
+@StackTrace(false)
+@Enabled(false)
+class RepositoryLookupEvent extends Event {
+
+    /* VARIABLES */
+    @Label("Entity")
+    String entity;
+
+    @Label("Lookup")
+    String lookup;
+
+    @Label("Key")
+    String key;
+
+    @Label("Entities Scanned")
+    int scanned;
+
+    // Not recorded by Java Flight Recorder: the repository lookup stage of the slow request log.
+    transient RequestTrace.Span span;
+
+    /* METHODS */
+
+    /**
+     * Creates the event of a lookup and starts its timing, and enters the repository lookup stage of the current request.
+     *
+     * @return the started event, committed by RepositoryMetrics.recordScan.
+     */
+    static RepositoryLookupEvent start() {
+        RepositoryLookupEvent event = new RepositoryLookupEvent();
+        event.span = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP);
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,117 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import com.safetynet.alerts.diagnostics.SyntheticCalls;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The metrics of a repository: the size of its list, and the number of entities browsed by each lookup.
+ * The distribution summary alerts.repository.scanned of a lookup counts the lookups, the total of the entities
+ * browsed and the longest scan, so the cost of the scans of the lists can be followed on the dashboards.
+ * Each lookup is also committed as a RepositoryLookupEvent, when a Java Flight Recorder recording enables it.
+ * The lookups of synthetic calls, like the warm-up, are neither recorded nor committed.
+ */
+class RepositoryMetrics {
+
+    /* VARIABLES */
+    private final MeterRegistry meterRegistry;
+    private final String entity;
+    private final Map<String, DistributionSummary> scannedByLookup = new ConcurrentHashMap<>();
+
+    /* CONSTRUCTOR */
+    /**
+     * Registers the gauge alerts.repository.size of the list of the repository.
+     *
+     * @param meterRegistry the registry of the metrics.
+     * @param entity the name of the list, used as the entity tag.
+     * @param size gives the current size of the list.
+     */
+    RepositoryMetrics(MeterRegistry meterRegistry, String entity, Supplier<Integer> size) {
+        this.meterRegistry = meterRegistry;
+        this.entity = entity;
+        Gauge.builder("alerts.repository.size", size, currentSize -> currentSize.get())
+                .description("Number of entities in the list of the repository")
+                .tag("entity", entity)
+                .strongReference(true)
+                .register(meterRegistry);
+    }
+
+    /* METHODS */
+
+    /**
+     * Records the number of entities browsed by one lookup, commits its Java Flight Recorder event and ends its stage in the current request.
+     *
+     * @param event the event started at the beginning of the lookup.
+     * @param lookup the name of the lookup, used as the lookup tag.
+     * @param key the value looked for.
+     * @param scanned the number of entities browsed.
+     */
+    void recordScan(RepositoryLookupEvent event, String lookup, String key, int scanned) {
+        event.span.closeAccess(entity, lookup, RequestTrace.SCAN, scanned, 0);
+        if (SyntheticCalls.isRunning()) {
+            return;
+        }
+        scannedByLookup.computeIfAbsent(lookup, this::registerScanSummary).record(scanned);
+        event.end();
+        if (event.shouldCommit()) {
+            event.entity = entity;
+            event.lookup = lookup;
+            event.key = key;
+            event.scanned = scanned;
+            event.commit();
+        }
+    }
+
+    /**
+     * Records the number of entities browsed by one lookup of a full name, the key being built only if the event is committed.
+     *
+     * @param event the event started at the beginning of the lookup.
+     * @param lookup the name of the lookup, used as the lookup tag.
+     * @param firstName the first name looked for.
+     * @param lastName the last name looked for.
+     * @param scanned the number of entities browsed.
+     */
+    void recordScan(RepositoryLookupEvent event, String lookup, String firstName, String lastName, int scanned) {
+        recordScan(event, lookup, event.isEnabled() ? firstName + " " + lastName : null, scanned);
+    }
+
+    /**
+     * Records a lookup of a full name answered by an index: it touches the entity found, if any, without browsing the list.
+     *
+     * @param event the event started at the beginning of the lookup.
+     * @param lookup the name of the lookup, used as the lookup tag.
+     * @param firstName the first name looked for.
+     * @param lastName the last name looked for.
+     * @param found the number of entities found, 0 or 1.
+     */
+    void recordIndexLookup(RepositoryLookupEvent event, String lookup, String firstName, String lastName, int found) {
+        event.span.closeAccess(entity, lookup, RequestTrace.INDEX, found, found);
+        if (SyntheticCalls.isRunning()) {
+            return;
+        }
+        scannedByLookup.computeIfAbsent(lookup, this::registerScanSummary).record(found);
+        event.end();
+        if (event.shouldCommit()) {
+            event.entity = entity;
+            event.lookup = lookup;
+            event.key = firstName + " " + lastName;
+            event.scanned = found;
+            event.commit();
+        }
+    }
+
+    private DistributionSummary registerScanSummary(String lookup) {
+        return DistributionSummary.builder("alerts.repository.scanned")
+                .description("Number of entities browsed by a lookup")
+                .baseUnit("entities")
+                .tag("entity", entity)
+                .tag("lookup", lookup)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,81 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.model.FireStation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The addresses covered by each numbered station, in an open addressing hash table keyed by the int station number:
+ * a lookup hashes an int and compares ints, without boxing the key nor comparing Strings.
+ * The addresses of a station are in the order of the fire stations list. The stations whose number is not a positive
+ * int are not indexed, the FireStationRepository scans the list for them.
+ * An index is immutable: the repository builds a new one from the list after each change of the list.
+ */
+class StationIndex {
+
+    /* VARIABLES */
+    static final StationIndex EMPTY = new StationIndex(List.of());
+
+    private static final String[] NO_ADDRESSES = new String[0];
+
+    private final int[] stations;
+    private final String[][] addresses;
+    private final int mask;
+
+    /* CONSTRUCTOR */
+    /**
+     * Indexes the addresses of the numbered stations of the given fire stations.
+     *
+     * @param fireStations the fire stations list.
+     */
+    StationIndex(List<FireStation> fireStations) {
+        Map<Integer, List<String>> addressesByStation = new LinkedHashMap<>();
+        for (FireStation fireStation : fireStations) {
+            if (fireStation.getStationNumber() != FireStation.UNNUMBERED_STATION) {
+                addressesByStation.computeIfAbsent(fireStation.getStationNumber(), station -> new ArrayList<>()).add(fireStation.getAddress());
+            }
+        }
+        // A table at most half full keeps the probe sequences short.
+        int capacity = Integer.highestOneBit(Math.max(addressesByStation.size(), 1) * 2) * 2;
+        this.mask = capacity - 1;
+        this.stations = new int[capacity];
+        this.addresses = new String[capacity][];
+        Arrays.fill(stations, FireStation.UNNUMBERED_STATION);
+        for (Map.Entry<Integer, List<String>> entry : addressesByStation.entrySet()) {
+            int slot = slot(entry.getKey());
+            while (stations[slot] != FireStation.UNNUMBERED_STATION) {
+                slot = (slot + 1) & mask;
+            }
+            stations[slot] = entry.getKey();
+            addresses[slot] = entry.getValue().toArray(new String[0]);
+        }
+    }
+
+    /* METHODS */
+
+    /**
+     * Gives the addresses covered by a numbered station.
+     *
+     * @param station the station number, as given by FireStation.getStationNumber.
+     * @return the addresses covered by the station, in list order, empty if the station covers no address. The array must not be changed.
+     */
+    String[] addresses(int station) {
+        int slot = slot(station);
+        while (stations[slot] != FireStation.UNNUMBERED_STATION) {
+            if (stations[slot] == station) {
+                return addresses[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NO_ADDRESSES;
+    }
+
+    private int slot(int station) {
+        int hash = station * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
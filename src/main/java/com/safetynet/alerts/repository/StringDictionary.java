@@ -0,0 +1,183 @@
+package com.safetynet.alerts.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives one canonical instance for each value of the repeated fields of the entities: the address, city and zip of the
+ * persons, the address and station of the fire stations, and the medications and allergies of the medical records.
+ * Jackson creates a new String for each occurrence of a value, so without it every member of a household keeps its
+ * own copy of the same address; the repositories replace the values by their canonical instance at load and on each
+ * mutation, and the DTOs built from the entities share them too.
+ * The values are held weakly, so a value which no entity references any more is dropped from the dictionary.
+ * The dictionary is shared by the three repositories, as the persons and the fire stations have the same addresses.
+ * It is a ConcurrentHashMap of weak keys without any lock of its own, so the parsers loading the lists in parallel and
+ * the mutations look up their values concurrently; two threads adding the same new value agree on one of them through
+ * putIfAbsent.
+ */
+@Component
+public class StringDictionary {
+
+    /* VARIABLES */
+    private final boolean enabled;
+    private final Map<ValueReference, ValueReference> canonicalValues = new ConcurrentHashMap<>();
+    private final ReferenceQueue<String> droppedValues = new ReferenceQueue<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /* CONSTRUCTORS */
+    /**
+     * An enabled dictionary, without metrics, for the tests of the repositories alone.
+     */
+    public StringDictionary() {
+        this.enabled = true;
+    }
+
+    /**
+     * @param enabled false to keep the values as parsed, from the alerts.dictionary.enabled property.
+     * @param meterRegistry the registry of the gauge alerts.dictionary.size.
+     */
+    @Autowired
+    public StringDictionary(@Value("${alerts.dictionary.enabled:true}") boolean enabled, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        Gauge.builder("alerts.dictionary.size", this, StringDictionary::size)
+                .description("Number of distinct values in the dictionary of the repeated fields")
+                .register(meterRegistry);
+    }
+
+    /* METHODS */
+
+    /**
+     * Gives the canonical instance of a value, the value itself being kept as the canonical instance if it is new.
+     *
+     * @param value the value to look up, may be null.
+     * @return the canonical instance equal to the value, or the value itself if the dictionary is disabled or the value is null.
+     */
+    public String canonical(String value) {
+        if (!enabled || value == null) {
+            return value;
+        }
+        ValueReference reference = canonicalValues.get(new Lookup(value));
+        String canonicalValue = reference == null ? null : reference.get();
+        if (canonicalValue == null) {
+            expungeDroppedValues();
+            ValueReference newReference = new ValueReference(value, droppedValues);
+            reference = canonicalValues.putIfAbsent(newReference, newReference);
+            canonicalValue = reference == null ? null : reference.get();
+            if (canonicalValue == null) {
+                misses.increment();
+                return value;
+            }
+        }
+        hits.increment();
+        return canonicalValue;
+    }
+
+    /**
+     * Gives a list of the canonical instances of the values of a list.
+     *
+     * @param values the values to look up, may be null.
+     * @return a new list of the canonical instances, or null if the values are null.
+     */
+    public ArrayList<String> canonical(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        ArrayList<String> canonicalValues = new ArrayList<>(values.size());
+        for (String value : values) {
+            canonicalValues.add(canonical(value));
+        }
+        return canonicalValues;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the number of distinct values currently held.
+     */
+    public int size() {
+        expungeDroppedValues();
+        return canonicalValues.size();
+    }
+
+    /**
+     * @return the number of values replaced by an existing canonical instance.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of values kept as a new canonical instance.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Removes the entries of the values collected since the last call.
+     */
+    private void expungeDroppedValues() {
+        Reference<? extends String> dropped;
+        while ((dropped = droppedValues.poll()) != null) {
+            canonicalValues.remove(dropped);
+        }
+    }
+
+    /**
+     * A key of the dictionary, holding its value weakly. It keeps the hash of the value, and once its value is
+     * collected it is only equal to itself, until it is removed.
+     */
+    private static final class ValueReference extends WeakReference<String> {
+
+        private final int hash;
+
+        private ValueReference(String value, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = value.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ValueReference other)) return false;
+            String value = get();
+            return value != null && value.equals(other.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The key used to look up a value, equal to the entry holding the same value.
+     */
+    private record Lookup(String value) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ValueReference reference && value.equals(reference.get());
+        }
+
+        @Override
+        public int hashCode() {
+            return value.hashCode();
+        }
+    }
+}
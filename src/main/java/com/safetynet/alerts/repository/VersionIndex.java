@@ -0,0 +1,98 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the version of each entity of a repository: the sequence of its last change in the ChangeLog.
+ * Only the last change of each entity is kept, and a deletion is kept as a tombstone (a change without data),
+ * so the changes after a version can be read without browsing the whole list.
+ * A reload of the list clears the index: the versions before the reload cannot be synchronised anymore.
+ * Past the retained number of versions, the oldest changes and tombstones are compacted and the reset version is raised
+ * to the last compacted one, so a client older than that gets a full synchronisation instead.
+ */
+public class VersionIndex implements Consumer<ChangeEvent> {
+
+    /* VARIABLES */
+    private final String entity;
+    private final int retainedVersions;
+    private final NavigableMap<Long, ChangeEvent> changesByVersion = new TreeMap<>();
+    private final Map<String, Long> versionByKey = new HashMap<>();
+    private long resetVersion;
+
+    /* CONSTRUCTOR */
+    /**
+     * @param entity the name of the list whose changes are indexed, as recorded in the ChangeLog.
+     * @param retainedVersions the number of versions kept before the oldest are compacted.
+     */
+    public VersionIndex(String entity, int retainedVersions) {
+        this.entity = entity;
+        this.retainedVersions = retainedVersions;
+    }
+
+    /* METHODS */
+
+    /**
+     * Indexes a change recorded in the ChangeLog, ignoring the changes of the other lists.
+     *
+     * @param event the recorded change.
+     */
+    @Override
+    public synchronized void accept(ChangeEvent event) {
+        if (!entity.equals(event.getEntity())) {
+            return;
+        }
+        if (event.getType() == ChangeType.RELOADED) {
+            changesByVersion.clear();
+            versionByKey.clear();
+            resetVersion = event.getSequence();
+            return;
+        }
+        Long previousVersion = versionByKey.put(event.getIndexKey(), event.getSequence());
+        if (previousVersion != null) {
+            changesByVersion.remove(previousVersion);
+        }
+        changesByVersion.put(event.getSequence(), event);
+        while (changesByVersion.size() > retainedVersions) {
+            ChangeEvent oldest = changesByVersion.pollFirstEntry().getValue();
+            versionByKey.remove(oldest.getIndexKey());
+            resetVersion = oldest.getSequence();
+        }
+    }
+
+    /**
+     * Gives the version of the last reload of the list, or of the last compacted change if it is more recent.
+     *
+     * @return the oldest version from which the changes can be read.
+     */
+    public synchronized long getResetVersion() {
+        return resetVersion;
+    }
+
+    /**
+     * Reads the last change of every entity changed or deleted after the given version, in version order.
+     *
+     * @param version the version already known by the caller.
+     * @return the changes after this version, a deletion being a change without data.
+     */
+    public synchronized List<ChangeEvent> findChangesAfter(long version) {
+        return new ArrayList<>(changesByVersion.tailMap(version, false).values());
+    }
+
+    /**
+     * Gives the number of indexed entities, tombstones included.
+     *
+     * @return the number of entities having a version.
+     */
+    public synchronized int size() {
+        return versionByKey.size();
+    }
+}
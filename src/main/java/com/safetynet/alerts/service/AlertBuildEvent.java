@@ -0,0 +1,71 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import com.safetynet.alerts.diagnostics.SyntheticCalls;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event of the building of an alert by the FireStationService or the PersonService.
+ * The repository lookups made for the alert are recorded as nested RepositoryLookup events on the same thread.
+ */
+@Name("com.safetynet.alerts.AlertBuild")
+@Label("Alert Build")
+@Category({"SafetyNet Alerts", "Alert"})
+@Description("The building of an alert")
+@StackTrace(false)
+class AlertBuildEvent extends Event {
+
+    /* VARIABLES */
+    @Label("Alert")
+    String alert;
+
+    @Label("Key")
+    @Description("The station, address, name or city of the alert")
+    String key;
+
+    @Label("Results")
+    @Description("Number of persons, phones, addresses or emails in the alert")
+    int results;
+
+    // Not recorded by Java Flight Recorder: the DTO building stage of the slow request log.
+    transient RequestTrace.Span span;
+
+    /* METHODS */
+
+    /**
+     * Creates the event of an alert and starts its timing, and enters the DTO building stage of the current request.
+     *
+     * @param alert the name of the alert.
+     * @return the started event.
+     */
+    static AlertBuildEvent start(String alert) {
+        AlertBuildEvent event = new AlertBuildEvent();
+        event.alert = alert;
+        event.span = RequestTrace.enter(RequestTrace.DTO_BUILDING);
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Commits the event of an alert built successfully, if a recording enables it and its duration reaches the threshold,
+     * and ends its stage in the current request. The stage of an alert failing is ended with the request.
+     * The alerts of synthetic calls, like the warm-up, are not committed.
+     *
+     * @param key the station, address, name or city of the alert, turned into a string only if the event is committed.
+     * @param results the number of results of the alert.
+     */
+    void commit(Object key, int results) {
+        span.close();
+        end();
+        if (shouldCommit() && !SyntheticCalls.isRunning()) {
+            this.key = String.valueOf(key);
+            this.results = results;
+            commit();
+        }
+    }
+}
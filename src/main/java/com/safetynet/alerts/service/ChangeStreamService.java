@@ -0,0 +1,197 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.repository.ChangeLog;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Service
+public class ChangeStreamService {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamService.class);
+    public static final String RESYNC_EVENT = "resync";
+    public static final String HEARTBEAT_COMMENT = "heartbeat";
+    private static final Object HEARTBEAT = new Object();
+
+    private final ChangeLog changeLog;
+
+    private final int subscriberBufferSize;
+
+    // A sender blocked on a slow client only holds a virtual thread, so the number of subscribers does not bound the platform threads.
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor();
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    /* CONSTRUCTOR */
+    public ChangeStreamService(ChangeLog changeLog, @Value("${alerts.changes.subscriber-buffer:256}") int subscriberBufferSize,
+                               @Value("${alerts.sse.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.changeLog = changeLog;
+        this.subscriberBufferSize = subscriberBufferSize;
+        heartbeats.scheduleAtFixedRate(this::sendHeartbeats, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /* METHODS */
+
+    /**
+     * Opens a stream of the committed changes for one subscriber.
+     * The changes following afterSequence are replayed first, when they are still in the change log.
+     * Each subscriber has a bounded buffer: a subscriber too slow to empty it, or asking for changes which are not
+     * in the change log anymore, receives a "resync" event with the current sequence and its stream is closed.
+     * It should then reload the full lists and subscribe again from this sequence.
+     * A heartbeat comment is sent to an idle subscriber at each heartbeat interval, so a closed connection is detected
+     * by the failed write and its subscriber removed.
+     *
+     * @param afterSequence the sequence of the last change received by the subscriber, or null to only follow the new changes.
+     * @return the SseEmitter sending the changes.
+     */
+    public SseEmitter subscribe(Long afterSequence) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscription subscription = new Subscription(emitter);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(e -> subscription.close());
+        subscriptions.add(subscription);
+        if (afterSequence == null) {
+            changeLog.subscribe(subscription);
+        } else if (!changeLog.subscribe(afterSequence, subscription)) {
+            subscription.resync();
+        }
+        logger.info("New change stream subscriber after sequence {}", afterSequence);
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.forEach(Subscription::heartbeat);
+    }
+
+    /**
+     * The buffer of one subscriber: filled by the change log without blocking, and emptied by a sender thread.
+     */
+    private class Subscription implements Consumer<ChangeEvent> {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> pending = new ArrayBlockingQueue<>(subscriberBufferSize);
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile boolean dropped;
+
+        private Subscription(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        @Override
+        public void accept(ChangeEvent event) {
+            if (dropped) {
+                return;
+            }
+            if (!pending.offer(event)) {
+                logger.warn("Change stream subscriber too slow, {} changes pending, sending a resync", pending.size());
+                resync();
+                return;
+            }
+            send();
+        }
+
+        /**
+         * Queues a heartbeat when no change is waiting to be sent, a pending change being enough to detect a closed connection.
+         */
+        private void heartbeat() {
+            if (!dropped && pending.isEmpty() && pending.offer(HEARTBEAT)) {
+                send();
+            }
+        }
+
+        private void close() {
+            dropped = true;
+            subscriptions.remove(this);
+            changeLog.unsubscribe(this);
+        }
+
+        /**
+         * Drops the subscriber: the pending changes are replaced by a resync marker and the stream will be closed.
+         */
+        private void resync() {
+            dropped = true;
+            changeLog.unsubscribe(this);
+            pending.clear();
+            pending.offer(new ResyncMarker(changeLog.getSequence()));
+            send();
+        }
+
+        private void send() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Object next;
+                while ((next = pending.poll()) != null) {
+                    if (next == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                    } else if (next instanceof ChangeEvent event) {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(event.getSequence()))
+                                .name(event.getEntity())
+                                .data(event, MediaType.APPLICATION_JSON));
+                    } else {
+                        ResyncMarker marker = (ResyncMarker) next;
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(marker.sequence))
+                                .name(RESYNC_EVENT)
+                                .data(Map.of("sequence", marker.sequence), MediaType.APPLICATION_JSON));
+                        emitter.complete();
+                        return;
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Change stream subscriber gone: {}", e.getMessage());
+                close();
+                pending.clear();
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // A change may have been queued after the last poll, while this sender was still marked as running.
+            if (!pending.isEmpty()) {
+                send();
+            }
+        }
+    }
+
+    private static class ResyncMarker {
+        private final long sequence;
+
+        private ResyncMarker(long sequence) {
+            this.sequence = sequence;
+        }
+    }
+}
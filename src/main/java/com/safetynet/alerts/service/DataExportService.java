@@ -0,0 +1,73 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.DataSnapshot;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+@Service
+public class DataExportService {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    private final DataRepository dataRepository;
+
+    private final PersonRepository personRepository;
+
+    private final FireStationRepository fireStationRepository;
+
+    private final MedicalRecordRepository medicalRecordRepository;
+
+    /* CONSTRUCTOR */
+    public DataExportService(DataRepository dataRepository, PersonRepository personRepository, FireStationRepository fireStationRepository, MedicalRecordRepository medicalRecordRepository) {
+        this.dataRepository = dataRepository;
+        this.personRepository = personRepository;
+        this.fireStationRepository = fireStationRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+    }
+
+    /* METHODS */
+
+    /**
+     * Opens the persisted data file, so it can be sent as it is.
+     *
+     * @return a DataSnapshot of the data file, or null if the in-memory data is ahead of the file.
+     * @throws IOException if an I/O error occurs while opening the file.
+     */
+    public DataSnapshot openPersistedSnapshot() throws IOException {
+        DataSnapshot snapshot = dataRepository.openSnapshot();
+        if (snapshot == null) {
+            logger.warn("The data file is behind the in-memory data, the export will be serialized");
+        } else {
+            logger.debug("Exporting the data file, {} bytes", snapshot.getSize());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the whole in-memory dataset into the given stream, with the same layout as the data file.
+     *
+     * @param outputStream the stream receiving the JSON object.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public void writeDataset(OutputStream outputStream) throws IOException {
+        logger.debug("Serializing the whole dataset");
+        outputStream.write("{\"persons\":".getBytes(StandardCharsets.UTF_8));
+        int persons = personRepository.writeAllAsJson(outputStream);
+        outputStream.write(",\"firestations\":".getBytes(StandardCharsets.UTF_8));
+        int fireStations = fireStationRepository.writeAllAsJson(outputStream);
+        outputStream.write(",\"medicalrecords\":".getBytes(StandardCharsets.UTF_8));
+        int medicalRecords = medicalRecordRepository.writeAllAsJson(outputStream);
+        outputStream.write('}');
+        logger.info("Serialized the dataset with {} persons, {} fire stations and {} medical records", persons, fireStations, medicalRecords);
+    }
+}
@@ -0,0 +1,222 @@
+package com.safetynet.alerts.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Loads the persons, fire stations and medical records once the application context is refreshed, so the context and
+ * the HTTP port do not wait for the data file to be parsed: the liveness of the application is reported right away,
+ * and its readiness once the data is loaded, and warmed up by the WarmUpService when alerts.warmup.enabled is true.
+ * The file is read once, then its three lists are parsed in parallel and written back in a single write, to persist
+ * the removal of the duplicates. With alerts.data.async-load=false, the load blocks the refresh of the context instead.
+ * With spring.context.exit=onRefresh, as in the CDS training run of the fast-startup profile, the JVM halts before the
+ * context is refreshed: the data is then loaded once the singletons are created, so the archive holds the classes of the load.
+ */
+@Service
+public class DatasetLoader implements SmartInitializingSingleton {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(DatasetLoader.class);
+
+    public enum State { LOADING, WARMING_UP, READY, FAILED }
+
+    public static final String EXIT_ON_REFRESH = "onRefresh";
+
+    private final ApplicationContext applicationContext;
+    private final DataRepository dataRepository;
+    private final PersonRepository personRepository;
+    private final FireStationRepository fireStationRepository;
+    private final MedicalRecordRepository medicalRecordRepository;
+    private final WarmUpService warmUpService;
+    private final boolean asyncLoad;
+    private final boolean exitOnRefresh;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final CompletableFuture<Void> loaded = new CompletableFuture<>();
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile long loadMillis = -1;
+    private volatile Map<String, Integer> warmUpCalls = Map.of();
+
+    /* CONSTRUCTOR */
+    /**
+     * @param asyncLoad false to load the data in the thread refreshing the context, from the alerts.data.async-load property.
+     * @param contextExit EXIT_ON_REFRESH to load the data before the refresh of the context, from the spring.context.exit property.
+     */
+    public DatasetLoader(ApplicationContext applicationContext, DataRepository dataRepository, PersonRepository personRepository,
+                         FireStationRepository fireStationRepository, MedicalRecordRepository medicalRecordRepository,
+                         WarmUpService warmUpService, @Value("${alerts.data.async-load:true}") boolean asyncLoad,
+                         @Value("${spring.context.exit:}") String contextExit) {
+        this.applicationContext = applicationContext;
+        this.dataRepository = dataRepository;
+        this.personRepository = personRepository;
+        this.fireStationRepository = fireStationRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.warmUpService = warmUpService;
+        this.asyncLoad = asyncLoad;
+        this.exitOnRefresh = EXIT_ON_REFRESH.equals(contextExit);
+    }
+
+    /* METHODS */
+
+    /**
+     * Loads the data in the thread creating the context when the context exits on refresh, since it is never refreshed then.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (exitOnRefresh && started.compareAndSet(false, true)) {
+            load();
+        }
+    }
+
+    /**
+     * Starts the load once the application context is refreshed, in a background thread unless alerts.data.async-load is false.
+     *
+     * @param event the refresh event, ignored if it comes from another context or if the load already started.
+     */
+    @EventListener
+    public void onContextRefreshed(ContextRefreshedEvent event) {
+        if (event.getApplicationContext() != applicationContext || !started.compareAndSet(false, true)) {
+            return;
+        }
+        if (asyncLoad) {
+            Thread loader = new Thread(this::load, "dataset-loader");
+            loader.setDaemon(true);
+            loader.start();
+        } else {
+            load();
+        }
+    }
+
+    /**
+     * Reads the data file, parses the persons, fire stations and medical records in parallel and writes the validated
+     * lists back to the file, then warms up the alerts if the warm-up is enabled. A failure of the load is kept and
+     * reported by the readiness of the application; a failure of the warm-up is only logged.
+     */
+    public void load() {
+        if (!loadData()) {
+            return;
+        }
+        if (warmUpService.isEnabled()) {
+            try {
+                warmUpCalls = warmUpService.warmUp();
+            } catch (RuntimeException e) {
+                logger.warn("The warm-up failed, the application reports ready without it: {}", e.getMessage(), e);
+            }
+        }
+        ready.complete(null);
+    }
+
+    private boolean loadData() {
+        long start = System.nanoTime();
+        logger.info("Loading the dataset.");
+        ExecutorService parsers = Executors.newFixedThreadPool(3);
+        try {
+            JsonNode data = dataRepository.getData();
+            CompletableFuture.allOf(
+                    CompletableFuture.runAsync(() -> personRepository.createListPersons(data), parsers),
+                    CompletableFuture.runAsync(() -> fireStationRepository.createListFireStations(data), parsers),
+                    CompletableFuture.runAsync(() -> medicalRecordRepository.createListMedicalRecords(data), parsers)
+            ).join();
+
+            Map<String, Object> sections = new LinkedHashMap<>();
+            sections.put("persons", personRepository.findAll());
+            sections.put("firestations", fireStationRepository.findAll());
+            sections.put("medicalrecords", medicalRecordRepository.findAll());
+            dataRepository.writeSections((ObjectNode) data, sections);
+
+            loadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            loaded.complete(null);
+            logger.info("Dataset loaded in {} ms: {} persons, {} fire stations, {} medical records.", loadMillis,
+                    personRepository.findAll().size(), fireStationRepository.findAll().size(), medicalRecordRepository.findAll().size());
+            return true;
+        } catch (RuntimeException e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            loaded.completeExceptionally(cause);
+            ready.completeExceptionally(cause);
+            logger.error("The dataset could not be loaded: {}", cause.getMessage(), cause);
+            return false;
+        } finally {
+            parsers.shutdown();
+        }
+    }
+
+    /**
+     * Gives the state of the load.
+     *
+     * @return LOADING until the data is loaded, WARMING_UP during the warm-up, then READY, or FAILED if the load failed.
+     */
+    public State getState() {
+        if (!loaded.isDone()) {
+            return State.LOADING;
+        }
+        if (loaded.isCompletedExceptionally()) {
+            return State.FAILED;
+        }
+        return ready.isDone() ? State.READY : State.WARMING_UP;
+    }
+
+    /**
+     * Gives the cause of the failure of the load.
+     *
+     * @return the exception which stopped the load, or null if the load did not fail.
+     */
+    public Throwable getFailure() {
+        return loaded.handle((result, failure) -> failure).getNow(null);
+    }
+
+    /**
+     * Gives the duration of the load.
+     *
+     * @return the duration in milliseconds, or -1 if the data is not loaded.
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * Gives the number of calls made by each alert during the warm-up.
+     *
+     * @return the calls by alert, empty if the warm-up is disabled or not done yet.
+     */
+    public Map<String, Integer> getWarmUpCalls() {
+        return warmUpCalls;
+    }
+
+    /**
+     * Gives a future completed once the data is loaded and warmed up, completed exceptionally if the load fails.
+     *
+     * @return the future of the readiness.
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready.copy();
+    }
+
+    /**
+     * Gives a future completed once the data is loaded, completed exceptionally if the load fails.
+     *
+     * @return the future of the load.
+     */
+    public CompletableFuture<Void> whenLoaded() {
+        return loaded.copy();
+    }
+}
@@ -6,13 +6,20 @@ import com.safetynet.alerts.exceptions.ResourceNotFoundException;
 import com.safetynet.alerts.model.FireStation;
 import com.safetynet.alerts.model.Person;
 import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.LongHashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Service
@@ -48,6 +55,37 @@ public class FireStationService {
         return fireStations;
     }
 
+    /**
+     * Retrieves one page of fire stations, ordered by address.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param limit the maximum number of fire stations in the page.
+     * @return a PageDTO containing the fire stations and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    public PageDTO<FireStation> getFireStationsPage(String cursor, int limit) {
+        logger.debug("Retrieving a page of {} fire stations", limit);
+        PageCursor.checkLimit(limit);
+        List<FireStation> fireStations = fireStationRepository.findFireStationsPage(PageCursor.decode(cursor), limit + 1);
+        PageDTO<FireStation> page = PageCursor.toPage(fireStations, limit, FireStation::getAddress);
+        logger.debug("Retrieved a page of {} fire stations", page.getItems().size());
+        return page;
+    }
+
+    /**
+     * Writes the list of all fire stations as JSON into the given stream, without serializing each station again.
+     *
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of fire stations written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeFireStations(OutputStream outputStream) throws IOException {
+        logger.debug("writing all fire stations");
+        int count = fireStationRepository.writeAllAsJson(outputStream);
+        logger.debug("Wrote {} fire stations", count);
+        return count;
+    }
+
     /**
      * Create an object listing all persons whose address is covered by a fire station, grouped by adults and children.
      *
@@ -57,6 +95,7 @@ public class FireStationService {
      */
     public CoveredPersonsListDTO createFireStationPersonsList(String stationNumber) {
         logger.debug("Creating list of persons covered by fire station {}", stationNumber);
+        AlertBuildEvent event = AlertBuildEvent.start("firestation");
         int childCounter = 0;
         int adultsCounter = 0;
         ArrayList<PersonDTO> fireStationPersonsList = new ArrayList<>();
@@ -64,49 +103,83 @@ public class FireStationService {
         if (coveredAddresses.isEmpty()) {
             throw new ResourceNotFoundException("No addresses recorded for the station number: " + stationNumber);
         }
+        Map<String, List<Person>> personsByAddress = groupPersonsByAddress(coveredAddresses);
         for (String address : coveredAddresses) {
-            for (Person person : personService.getPersons())  {
-                if (person.getAddress().equals(address)) {
-                    if (medicalRecordService.isChild(person.getFirstName(), person.getLastName())) {
-                        childCounter++;
-                    } else {
-                        adultsCounter++;
-                    }
-                    fireStationPersonsList.add(new PersonDTO(person.getFirstName(), person.getLastName(), person.getAddress(), person.getPhone()));
+            for (Person person : personsByAddress.getOrDefault(address, List.of()))  {
+                if (medicalRecordService.isChild(person.getFirstName(), person.getLastName())) {
+                    childCounter++;
+                } else {
+                    adultsCounter++;
                 }
+                fireStationPersonsList.add(new PersonDTO(person.getFirstName(), person.getLastName(), person.getAddress(), person.getPhone()));
             }
         }
         logger.debug("Fire station {} covers {} adults and {} children", stationNumber, adultsCounter, childCounter);
+        event.commit(stationNumber, fireStationPersonsList.size());
         return new CoveredPersonsListDTO(childCounter, adultsCounter, fireStationPersonsList);
     }
 
     /**
      * Retrieves a list of phone numbers of persons covered by a given fire station.
+     * The phone numbers are deduplicated on their packed value in a LongHashSet, so the list is built without a HashSet
+     * entry per number, and two writings of the same number, like 841-874-6512 and 8418746512, are only given once.
+     * A number which cannot be packed is deduplicated as a String.
      *
      * @param firestationNumber the number of the fire station.
-     * @return a set of phone numbers to avoid duplicates.
+     * @return the distinct phone numbers, in the order of the covered addresses.
      * @throws ResourceNotFoundException if no addresses are recorded for the given station number.
      */
-    public Set<String> createPhoneList(String firestationNumber) {
-        logger.debug("Creating phone list for fire station {}, which covers {} addresses", firestationNumber, fireStationRepository.getCoveredAddresses(firestationNumber));
-        Set<String> phoneList = new HashSet<>();
+    public List<String> createPhoneList(String firestationNumber) {
+        logger.debug("Creating phone list for fire station {}", firestationNumber);
+        AlertBuildEvent event = AlertBuildEvent.start("phoneAlert");
         List<String> coveredAddresses = fireStationRepository.getCoveredAddresses(firestationNumber);
         if (coveredAddresses.isEmpty()) {
             throw new ResourceNotFoundException("No addresses recorded for the station number: " + firestationNumber);
         }
+        List<String> phoneList = new ArrayList<>();
+        LongHashSet packedPhones = new LongHashSet(coveredAddresses.size());
+        Set<String> unpackedPhones = null;
+        Map<String, List<Person>> personsByAddress = groupPersonsByAddress(coveredAddresses);
         for (String address : coveredAddresses) {
             logger.debug("Processing address: {}", address);
-            for (Person person : personService.getPersons())  {
-                if (person.getAddress().equals(address)) {
+            for (Person person : personsByAddress.getOrDefault(address, List.of()))  {
+                long packedPhone = person.getPackedPhone();
+                boolean newPhone;
+                if (packedPhone != Person.UNPACKED_PHONE) {
+                    newPhone = packedPhones.add(packedPhone);
+                } else {
+                    unpackedPhones = unpackedPhones == null ? new HashSet<>() : unpackedPhones;
+                    newPhone = unpackedPhones.add(person.getPhone());
+                }
+                if (newPhone) {
                     phoneList.add(person.getPhone());
                     logger.debug("Adding number of {} : {} ", person.getFirstName(), person.getPhone());
                 }
             }
         }
         logger.debug("Fire station {} covers {} phone", firestationNumber, phoneList.size());
+        event.commit(firestationNumber, phoneList.size());
         return phoneList;
     }
 
+    /**
+     * Groups the persons living at the covered addresses by address, in a single pass over the persons list, so each
+     * address gets its persons in list order without scanning the list again.
+     *
+     * @param coveredAddresses the addresses covered by a fire station.
+     * @return the persons of each covered address, an address without persons having no entry.
+     */
+    private Map<String, List<Person>> groupPersonsByAddress(List<String> coveredAddresses) {
+        Set<String> addresses = new HashSet<>(coveredAddresses);
+        Map<String, List<Person>> personsByAddress = new HashMap<>();
+        for (Person person : personService.getPersons()) {
+            if (addresses.contains(person.getAddress())) {
+                personsByAddress.computeIfAbsent(person.getAddress(), address -> new ArrayList<>()).add(person);
+            }
+        }
+        return personsByAddress;
+    }
+
     /**
      * Creates a list of persons living at a specific address, including their medical records.
      *
@@ -116,12 +189,14 @@ public class FireStationService {
      */
     public PersonsListInCaseOfFireDTO createPersonsListInCaseOfFire(String address) {
         logger.debug("Creating list of persons at the address {}", address);
+        AlertBuildEvent event = AlertBuildEvent.start("fire");
         String stationNumber = fireStationRepository.getStationNumber(address);
         if (stationNumber == null) {
             throw new ResourceNotFoundException("No data for this address: " + address);
         }
         ArrayList<PersonAtThisAddressDTO> personsAtThisAddressList = personService.createPersonsAtThisAddressList(address);
         logger.info("A list of {} persons at the address {} in case of fire, covered by fire station {} has been created", personsAtThisAddressList.size(), address, stationNumber);
+        event.commit(address, personsAtThisAddressList.size());
         return new PersonsListInCaseOfFireDTO(stationNumber, personsAtThisAddressList);
     }
 
@@ -133,6 +208,7 @@ public class FireStationService {
      */
     public List<FloodAlertDTO> createFloodAlertList(List<String> stations) {
         logger.debug("Creating flood alert list for stations {}", stations);
+        AlertBuildEvent event = AlertBuildEvent.start("flood");
         List<FloodAlertDTO> floodAlertList = new ArrayList<>();
         for (String station : stations) {
             for (String address : fireStationRepository.getCoveredAddresses(station)) {
@@ -144,6 +220,7 @@ public class FireStationService {
             }
         }
         logger.info("Flood alert list created for stations {}, with {} addresses covered", stations, floodAlertList.size());
+        event.commit(stations, floodAlertList.size());
         return floodAlertList;
     }
 
@@ -179,6 +256,75 @@ public class FireStationService {
         return fireStationRepository.update(fireStation);
     }
 
+    /**
+     * Moves a set of addresses, or every address of a station, to another station with a single write of the JSON file.
+     * The addresses are looked up in the index of the fire stations, and the people living at the moved addresses
+     * are counted with a single pass over the persons list.
+     *
+     * @param reassignment the addresses or the station to move, and the station number to move them to.
+     * @return a StationReassignmentReportDTO with the moved addresses, their previous station and the number of people living there.
+     * @throws IllegalArgumentException if the target station is missing or is not a station number, if neither or both
+     *         addresses and fromStation are given, or if an address is null or blank.
+     * @throws ResourceNotFoundException if no addresses are recorded for fromStation.
+     */
+    public StationReassignmentReportDTO reassignStations(StationReassignmentDTO reassignment) {
+        String toStation = reassignment.getToStation();
+        String fromStation = reassignment.getFromStation();
+        boolean hasAddresses = reassignment.getAddresses() != null && !reassignment.getAddresses().isEmpty();
+        boolean hasFromStation = fromStation != null && !fromStation.isBlank();
+        if (toStation == null || toStation.isBlank() || hasAddresses == hasFromStation) {
+            throw new IllegalArgumentException("A target station and either a list of addresses or a station to move are required");
+        }
+        if (FireStation.parseStation(toStation) == FireStation.UNNUMBERED_STATION) {
+            throw new IllegalArgumentException("The target station must be a station number: " + toStation);
+        }
+        if (hasAddresses && reassignment.getAddresses().stream().anyMatch(address -> address == null || address.isBlank())) {
+            throw new IllegalArgumentException("The addresses to move must not be null or blank");
+        }
+        logger.debug("Reassigning {} to station {}", hasFromStation ? "station " + fromStation : reassignment.getAddresses(), toStation);
+
+        List<ReassignedAddressDTO> reassignedAddresses = new ArrayList<>();
+        List<String> unchangedAddresses = new ArrayList<>();
+        List<String> notFoundAddresses = new ArrayList<>();
+        int reassignedPeopleCount = 0;
+        synchronized (fireStationRepository) {
+            Set<String> addresses = new LinkedHashSet<>(hasFromStation ? fireStationRepository.getCoveredAddresses(fromStation) : reassignment.getAddresses());
+            if (addresses.isEmpty()) {
+                throw new ResourceNotFoundException("No addresses recorded for the station number: " + fromStation);
+            }
+            Map<String, String> previousStationByAddress = new LinkedHashMap<>();
+            for (String address : addresses) {
+                FireStation fireStation = fireStationRepository.findByIndexKey(address);
+                if (fireStation == null) {
+                    notFoundAddresses.add(address);
+                } else if (fireStation.getStation().equals(toStation)) {
+                    unchangedAddresses.add(address);
+                } else {
+                    previousStationByAddress.put(address, fireStation.getStation());
+                }
+            }
+
+            if (!previousStationByAddress.isEmpty()) {
+                Map<String, Integer> peopleCountByAddress = new HashMap<>();
+                for (Person person : personService.getPersons()) {
+                    if (previousStationByAddress.containsKey(person.getAddress())) {
+                        peopleCountByAddress.merge(person.getAddress(), 1, Integer::sum);
+                    }
+                }
+                Map<String, String> newStationByAddress = new HashMap<>();
+                for (Map.Entry<String, String> entry : previousStationByAddress.entrySet()) {
+                    int peopleCount = peopleCountByAddress.getOrDefault(entry.getKey(), 0);
+                    reassignedAddresses.add(new ReassignedAddressDTO(entry.getKey(), entry.getValue(), peopleCount));
+                    reassignedPeopleCount += peopleCount;
+                    newStationByAddress.put(entry.getKey(), toStation);
+                }
+                fireStationRepository.reassignStations(newStationByAddress);
+            }
+        }
+        logger.info("{} addresses and {} people reassigned to station {}", reassignedAddresses.size(), reassignedPeopleCount, toStation);
+        return new StationReassignmentReportDTO(toStation, reassignedPeopleCount, reassignedAddresses, unchangedAddresses, notFoundAddresses);
+    }
+
     /**
      * Deletes a fire station by its address.
      *
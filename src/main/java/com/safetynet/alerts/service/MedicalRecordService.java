@@ -1,5 +1,16 @@
 package com.safetynet.alerts.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.safetynet.alerts.controller.dto.BulkItemResultDTO;
+import com.safetynet.alerts.controller.dto.BulkItemStatus;
+import com.safetynet.alerts.controller.dto.BulkReportDTO;
+import com.safetynet.alerts.controller.dto.PageDTO;
+import com.safetynet.alerts.diagnostics.RequestTrace;
 import com.safetynet.alerts.exceptions.ResourceAlreadyExistException;
 import com.safetynet.alerts.exceptions.ResourceNotFoundException;
 import com.safetynet.alerts.model.MedicalRecord;
@@ -8,11 +19,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 @Service
@@ -20,6 +38,9 @@ public class MedicalRecordService {
 
     /* VARIABLES */
     private static final Logger logger = LoggerFactory.getLogger(MedicalRecordService.class);
+    private static final String BIRTHDATE_PATTERN = "dd/MM/yyyy";
+    private static final ObjectReader nodeReader = new ObjectMapper().readerFor(JsonNode.class);
+    private static final ObjectReader medicalRecordReader = new ObjectMapper().readerFor(MedicalRecord.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
     private final MedicalRecordRepository medicalRecordRepository;
 
@@ -41,6 +62,51 @@ public class MedicalRecordService {
         return medicalRecords;
     }
 
+    /**
+     * Retrieves one page of medical records, ordered by last name then first name.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param limit the maximum number of medical records in the page.
+     * @return a PageDTO containing the medical records and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    public PageDTO<MedicalRecord> getMedicalRecordsPage(String cursor, int limit) {
+        logger.debug("Retrieving a page of {} medical records", limit);
+        PageCursor.checkLimit(limit);
+        List<MedicalRecord> medicalRecords = medicalRecordRepository.findMedicalRecordsPage(PageCursor.decode(cursor), limit + 1);
+        PageDTO<MedicalRecord> page = PageCursor.toPage(medicalRecords, limit, MedicalRecordRepository::indexKey);
+        logger.debug("Retrieved a page of {} medical records", page.getItems().size());
+        return page;
+    }
+
+    /**
+     * Writes the list of all medical records as JSON into the given stream, without serializing each record again.
+     *
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of medical records written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writeMedicalRecords(OutputStream outputStream) throws IOException {
+        logger.debug("Writing all medical records");
+        int count = medicalRecordRepository.writeAllAsJson(outputStream);
+        logger.debug("Wrote {} medical records", count);
+        return count;
+    }
+
+    /**
+     * Streams all medical records as newline-delimited JSON into the given stream, one record per line.
+     *
+     * @param outputStream the stream receiving the lines.
+     * @return the number of medical records written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int streamMedicalRecords(OutputStream outputStream) throws IOException {
+        logger.debug("Streaming all medical records");
+        int count = medicalRecordRepository.writeAllAsNdjson(outputStream);
+        logger.debug("Streamed {} medical records", count);
+        return count;
+    }
+
     /**
      * Interacts with the repository layer to retrieve the medical record matching with the given first name and last name.
      *
@@ -70,19 +136,49 @@ public class MedicalRecordService {
     public long getAge(String firstName, String lastName) {
         logger.debug("Getting age for {} {}", firstName, lastName);
         MedicalRecord medicalRecord = medicalRecordRepository.findMedicalRecordsByFullName(firstName, lastName);
-        String stringBirthDate = medicalRecord.getBirthdate();
-        try {
-            SimpleDateFormat formatter = new SimpleDateFormat("dd/MM/yyyy", Locale.FRANCE);
-            Date birthday = formatter.parse(stringBirthDate);
+        return getAge(medicalRecord);
+    }
+
+    /**
+     * Helper method to calculate the age of the person of the given medical record.
+     *
+     * @param medicalRecord the MedicalRecord object holding the birthdate.
+     * @return long of the age of the person in years.
+     * @throws IllegalArgumentException if the birthdate format is invalid.
+     */
+    public long getAge(MedicalRecord medicalRecord) {
+        try (RequestTrace.Span ignored = RequestTrace.enter(RequestTrace.AGE_COMPUTATION)) {
+            Date birthday = getBirthdate(medicalRecord, new SimpleDateFormat(BIRTHDATE_PATTERN, Locale.FRANCE));
             Date today = new Date();
             long diffInMillies = Math.abs(today.getTime() - birthday.getTime());
             long age = TimeUnit.DAYS.convert(diffInMillies, TimeUnit.MILLISECONDS)/365;
-            logger.debug("Calculated age for {} {}: {} years", firstName, lastName, age);
+            logger.debug("Calculated age for {} {}: {} years", medicalRecord.getFirstName(), medicalRecord.getLastName(), age);
             return age;
 
         } catch (ParseException e) {
-            throw new IllegalArgumentException("Error parsing birthdate for " + firstName + " "  + lastName, e);
+            throw new IllegalArgumentException("Error parsing birthdate for " + medicalRecord.getFirstName() + " "  + medicalRecord.getLastName(), e);
+        }
+    }
+
+    /**
+     * Helper method returning the parsed birthdate of a medical record.
+     * The birthdate is parsed once and kept in the medical record until its birthdate string changes.
+     *
+     * @param medicalRecord the MedicalRecord object holding the birthdate.
+     * @param formatter the formatter used if the birthdate has not been parsed yet.
+     * @return the birthdate as a Date.
+     * @throws ParseException if the birthdate does not match the dd/MM/yyyy format.
+     */
+    private Date getBirthdate(MedicalRecord medicalRecord, SimpleDateFormat formatter) throws ParseException {
+        Date birthdate = medicalRecord.getParsedBirthdate();
+        if (birthdate == null) {
+            if (medicalRecord.getBirthdate() == null) {
+                throw new ParseException("Missing birthdate", 0);
+            }
+            birthdate = formatter.parse(medicalRecord.getBirthdate());
+            medicalRecord.setParsedBirthdate(birthdate);
         }
+        return birthdate;
     }
 
     /**
@@ -97,6 +193,16 @@ public class MedicalRecordService {
         return getAge(firstName, lastName) <= 18;
     }
 
+    /**
+     * Helper method to determine if the person of the given medical record is a child (18 years or younger).
+     *
+     * @param medicalRecord the MedicalRecord object holding the birthdate.
+     * @return true if the person is 18 years old or younger, false otherwise.
+     */
+    public boolean isChild(MedicalRecord medicalRecord) {
+        return getAge(medicalRecord) <= 18;
+    }
+
     /**
      * This method interacts with the repository layer to creates a new medical Record.
      * First it checks if the Medical Record already exists.
@@ -109,12 +215,103 @@ public class MedicalRecordService {
         logger.debug("Creating medical record for {} {}", inputMedicalRecord.getFirstName(), inputMedicalRecord.getLastName());
         String inputMedicalRecordFirstName = inputMedicalRecord.getFirstName();
         String inputMedicalRecordLastName = inputMedicalRecord.getLastName();
-        for (MedicalRecord medicalRecord : getMedicalRecords()) {
-            if (medicalRecord.getFirstName().equals(inputMedicalRecordFirstName) && medicalRecord.getLastName().equals(inputMedicalRecordLastName)) {
-                throw new ResourceAlreadyExistException("This Medical record already exist " + inputMedicalRecordFirstName + " " + inputMedicalRecordLastName);
+        // The repository is locked from the check to the save, so a concurrent creation or upsert cannot add the same record meanwhile.
+        synchronized (medicalRecordRepository) {
+            for (MedicalRecord medicalRecord : getMedicalRecords()) {
+                if (medicalRecord.getFirstName().equals(inputMedicalRecordFirstName) && medicalRecord.getLastName().equals(inputMedicalRecordLastName)) {
+                    throw new ResourceAlreadyExistException("This Medical record already exist " + inputMedicalRecordFirstName + " " + inputMedicalRecordLastName);
+                }
             }
+            return medicalRecordRepository.save(inputMedicalRecord);
         }
-        return medicalRecordRepository.save(inputMedicalRecord);
+    }
+
+    /**
+     * Creates or updates many medical records at once, from a JSON array or from newline-delimited JSON.
+     * The whole feed is read first, then the records are matched against the index of the existing medical records,
+     * their birthdate is parsed a single time, and every valid record is applied with a single write of the JSON file.
+     * The match and the write hold the lock of the repository, so a concurrent creation or upsert cannot change
+     * whether a record is created or updated meanwhile.
+     * When a person appears several times in the feed, the last record wins and the earlier ones are reported as SUPERSEDED.
+     * A null element, or an element which cannot be read as a medical record (a field of the wrong type), is reported as INVALID.
+     *
+     * @param inputStream the stream of the JSON array or of the NDJSON lines.
+     * @return a BulkReportDTO with the result of each medical record of the feed.
+     * @throws IllegalArgumentException if the input is not valid JSON, in which case nothing is applied.
+     */
+    public BulkReportDTO upsertMedicalRecords(InputStream inputStream) {
+        logger.debug("Upserting medical records");
+        List<MedicalRecord> inputMedicalRecords = new ArrayList<>();
+        Map<Integer, String> unreadableItems = new HashMap<>();
+        try (MappingIterator<JsonNode> iterator = nodeReader.readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                JsonNode node = iterator.nextValue();
+                MedicalRecord medicalRecord = null;
+                if (!node.isNull()) {
+                    try {
+                        medicalRecord = medicalRecordReader.readValue(node);
+                    } catch (JsonProcessingException e) {
+                        unreadableItems.put(inputMedicalRecords.size(), "Invalid medical record: " + e.getOriginalMessage());
+                    }
+                }
+                inputMedicalRecords.add(medicalRecord);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid medical records feed: " + e.getMessage(), e);
+        }
+
+        Map<String, MedicalRecord> medicalRecordsToApply = new LinkedHashMap<>();
+        Map<String, Integer> resultPositionByKey = new HashMap<>();
+        List<BulkItemResultDTO> results = new ArrayList<>();
+        SimpleDateFormat formatter = new SimpleDateFormat(BIRTHDATE_PATTERN, Locale.FRANCE);
+        int rejectedCount = 0;
+        synchronized (medicalRecordRepository) {
+            for (int index = 0; index < inputMedicalRecords.size(); index++) {
+                MedicalRecord medicalRecord = inputMedicalRecords.get(index);
+                if (medicalRecord == null) {
+                    results.add(new BulkItemResultDTO(index, null, BulkItemStatus.INVALID, unreadableItems.getOrDefault(index, "A medical record is required")));
+                    rejectedCount++;
+                    continue;
+                }
+                String fullName = medicalRecord.getFirstName() + " " + medicalRecord.getLastName();
+                String indexKey = MedicalRecordRepository.indexKey(medicalRecord);
+                if (isBlank(medicalRecord.getFirstName()) || isBlank(medicalRecord.getLastName())) {
+                    results.add(new BulkItemResultDTO(index, fullName, BulkItemStatus.INVALID, "First name and last name are required"));
+                    rejectedCount++;
+                } else if (!isValidBirthdate(medicalRecord, formatter)) {
+                    results.add(new BulkItemResultDTO(index, fullName, BulkItemStatus.INVALID, "Birthdate must match " + BIRTHDATE_PATTERN));
+                    rejectedCount++;
+                } else {
+                    Integer supersededPosition = resultPositionByKey.put(indexKey, results.size());
+                    if (supersededPosition != null) {
+                        BulkItemResultDTO superseded = results.get(supersededPosition);
+                        results.set(supersededPosition, new BulkItemResultDTO(superseded.getIndex(), superseded.getKey(), BulkItemStatus.SUPERSEDED, "Replaced by the record at index " + index));
+                    }
+                    boolean exists = medicalRecordRepository.findByIndexKey(indexKey) != null;
+                    medicalRecordsToApply.put(indexKey, medicalRecord);
+                    results.add(new BulkItemResultDTO(index, fullName, exists ? BulkItemStatus.UPDATED : BulkItemStatus.CREATED, null));
+                }
+            }
+            if (!medicalRecordsToApply.isEmpty()) {
+                medicalRecordRepository.upsertAll(medicalRecordsToApply.values());
+            }
+        }
+        int appliedCount = medicalRecordsToApply.size();
+        logger.info("Upserted {} medical records, {} rejected", appliedCount, rejectedCount);
+        return new BulkReportDTO(appliedCount, rejectedCount, results);
+    }
+
+    private boolean isValidBirthdate(MedicalRecord medicalRecord, SimpleDateFormat formatter) {
+        try {
+            getBirthdate(medicalRecord, formatter);
+            return true;
+        } catch (ParseException e) {
+            return false;
+        }
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     /**
@@ -0,0 +1,77 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.controller.dto.PageDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Helper methods for the keyset pagination of the collection endpoints.
+ * A cursor is the opaque encoding of the index key of the last element of the previous page.
+ */
+public final class PageCursor {
+
+    /* VARIABLES */
+    public static final String DEFAULT_PAGE_SIZE = "100";
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /* CONSTRUCTOR */
+    private PageCursor() {}
+
+    /* METHODS */
+
+    /**
+     * Decodes a cursor sent by a client into the index key to start after.
+     *
+     * @param cursor the cursor of the previous page, or null for the first page.
+     * @return the index key to start after, or null for the first page.
+     * @throws IllegalArgumentException if the cursor is not a valid cursor.
+     */
+    public static String decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes an index key into an opaque cursor.
+     *
+     * @param key the index key of the last element of a page.
+     * @return the cursor to send to the client.
+     */
+    public static String encode(String key) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Checks that the requested page size is within the allowed limits.
+     *
+     * @param limit the requested page size.
+     * @throws IllegalArgumentException if the limit is lower than 1 or greater than MAX_PAGE_SIZE.
+     */
+    public static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("The page size must be between 1 and " + MAX_PAGE_SIZE + ": " + limit);
+        }
+    }
+
+    /**
+     * Builds a page from the elements read after the cursor. One more element than the limit is expected
+     * to know whether a next page exists.
+     *
+     * @param elements up to limit + 1 elements, in index order.
+     * @param limit the page size.
+     * @param keyExtractor the function giving the index key of an element.
+     * @return a PageDTO with at most limit elements and the cursor of the next page.
+     */
+    public static <T> PageDTO<T> toPage(List<T> elements, int limit, Function<T, String> keyExtractor) {
+        if (elements.size() <= limit) {
+            return new PageDTO<>(elements, null);
+        }
+        List<T> items = elements.subList(0, limit);
+        return new PageDTO<>(items, encode(keyExtractor.apply(items.getLast())));
+    }
+}
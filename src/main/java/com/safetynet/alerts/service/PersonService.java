@@ -6,19 +6,42 @@ import com.safetynet.alerts.exceptions.ResourceAlreadyExistException;
 import com.safetynet.alerts.exceptions.ResourceNotFoundException;
 import com.safetynet.alerts.model.MedicalRecord;
 import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.JsonFragmentCache;
 import com.safetynet.alerts.repository.PersonRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 public class PersonService {
     /* VARIABLES */
     private static final Logger logger = LoggerFactory.getLogger(PersonService.class);
 
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private static final ObjectReader nodeReader = new ObjectMapper().readerFor(JsonNode.class);
+
+    private static final ObjectReader personReader = new ObjectMapper().readerFor(Person.class).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
     private final PersonRepository personRepository;
 
     private final MedicalRecordService medicalRecordService;
@@ -42,6 +65,51 @@ public class PersonService {
         return persons;
     }
 
+    /**
+     * Retrieves one page of persons, ordered by last name then first name.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page.
+     * @param limit the maximum number of persons in the page.
+     * @return a PageDTO containing the persons and the cursor of the next page.
+     * @throws IllegalArgumentException if the cursor or the limit is invalid.
+     */
+    public PageDTO<Person> getPersonsPage(String cursor, int limit) {
+        logger.debug("Retrieving a page of {} persons", limit);
+        PageCursor.checkLimit(limit);
+        List<Person> persons = personRepository.findPersonsPage(PageCursor.decode(cursor), limit + 1);
+        PageDTO<Person> page = PageCursor.toPage(persons, limit, PersonRepository::indexKey);
+        logger.debug("Retrieved a page of {} persons", page.getItems().size());
+        return page;
+    }
+
+    /**
+     * Writes the list of all persons as JSON into the given stream, without serializing each person again.
+     *
+     * @param outputStream the stream receiving the JSON array.
+     * @return the number of persons written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int writePersons(OutputStream outputStream) throws IOException {
+        logger.debug("Writing all persons");
+        int count = personRepository.writeAllAsJson(outputStream);
+        logger.debug("Wrote {} persons", count);
+        return count;
+    }
+
+    /**
+     * Streams all persons as newline-delimited JSON into the given stream, one person per line.
+     *
+     * @param outputStream the stream receiving the lines.
+     * @return the number of persons written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int streamPersons(OutputStream outputStream) throws IOException {
+        logger.debug("Streaming all persons");
+        int count = personRepository.writeAllAsNdjson(outputStream);
+        logger.debug("Streamed {} persons", count);
+        return count;
+    }
+
     /**
      * Retrieve a person matching the inputs.
      *
@@ -69,6 +137,7 @@ public class PersonService {
      */
     public List<PersonInfoLastNameDTO> getPersonsByLastName(String lastName) throws EmptyResourceException {
         logger.debug("Retrieving persons by last name: {}", lastName);
+        AlertBuildEvent event = AlertBuildEvent.start("personInfo");
         List<PersonInfoLastNameDTO> personInfoLastNameDTOList = new ArrayList<>();
 
         List<Person> personsWithThisLastName = personRepository.findPersonsByLastName(lastName);
@@ -84,6 +153,7 @@ public class PersonService {
         }
 
         logger.info("Created a list of {} persons matching the name {}", personInfoLastNameDTOList.size(), lastName);
+        event.commit(lastName, personInfoLastNameDTOList.size());
         return personInfoLastNameDTOList;
     }
 
@@ -113,6 +183,7 @@ public class PersonService {
      */
     public ChildAlertDTO createChildAlertList(String address) throws EmptyResourceException{
         logger.debug("Creating a child alert list at this address: {}", address);
+        AlertBuildEvent event = AlertBuildEvent.start("childAlert");
         ArrayList<FullNameAndAgeDTO> adultsList = new ArrayList<>();
         ArrayList<FullNameAndAgeDTO> childrenList = new ArrayList<>();
         List<Person> personsAtThisAddress = getPersonsByAddress(address);
@@ -134,6 +205,7 @@ public class PersonService {
             }
 
             logger.info("Created a child alert with {} child and {} adults living at this address: {}", childrenList.size(), adultsList.size(), address);
+            event.commit(address, childrenList.size() + adultsList.size());
             return new ChildAlertDTO(childrenList, adultsList);
     }
 
@@ -144,6 +216,7 @@ public class PersonService {
      */
     public List<String> getPersonsEmails(String city) {
         logger.debug("Retrieving all persons emails for the city: {}", city);
+        AlertBuildEvent event = AlertBuildEvent.start("communityEmail");
         ArrayList<String> emails = new ArrayList<>();
         for (Person person : personRepository.findPersonsByCity(city)) {
             emails.add(person.getEmail());
@@ -152,9 +225,52 @@ public class PersonService {
             throw new EmptyResourceException("No emails found, you may check the city: " + city);
         }
         logger.info("Created a list of {} emails for the city: {}", emails.size(), city);
+        event.commit(city, emails.size());
         return emails;
     }
 
+    /**
+     * Lazily looks for the emails of the persons living in the given city.
+     * Only the first match is searched right away, so that an unknown city can be reported before streaming.
+     *
+     * @param city a String representing a city.
+     * @return an Iterator over the emails of each person living in the given city.
+     * @throws EmptyResourceException if nobody lives in the given city.
+     */
+    public Iterator<String> findPersonsEmails(String city) {
+        logger.debug("Looking for persons emails in the city: {}", city);
+        Iterator<String> emails = personRepository.streamPersonsByCity(city).map(Person::getEmail).iterator();
+        if (!emails.hasNext()) {
+            throw new EmptyResourceException("No emails found, you may check the city: " + city);
+        }
+        return emails;
+    }
+
+    /**
+     * Writes the given emails as newline-delimited JSON strings, flushing the stream after each batch.
+     *
+     * @param emails an Iterator over the emails to write.
+     * @param outputStream the stream receiving the lines.
+     * @return the number of emails written.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public int streamEmails(Iterator<String> emails, OutputStream outputStream) throws IOException {
+        int count = 0;
+        try (JsonGenerator generator = jsonFactory.createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (emails.hasNext()) {
+                generator.writeString(emails.next());
+                generator.writeRaw('\n');
+                if (++count % JsonFragmentCache.STREAM_FLUSH_BATCH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        logger.info("Streamed {} emails", count);
+        return count;
+    }
+
     /**
      * Create a List of persons living at the given address.
      *
@@ -189,12 +305,87 @@ public class PersonService {
         logger.debug("Creating a person: {} {}", inputPerson.getFirstName(), inputPerson.getLastName());
         String inputPersonFirstName = inputPerson.getFirstName();
         String inputPersonLastName = inputPerson.getLastName();
-        for (Person person : getPersons()) {
-            if (person.getFirstName().equals(inputPersonFirstName) && person.getLastName().equals(inputPersonLastName)) {
-                throw new ResourceAlreadyExistException("Person: " + inputPersonFirstName + " " + inputPersonLastName + " already exists");
+        // The repository is locked from the check to the save, so a concurrent creation or import cannot add the same person meanwhile.
+        synchronized (personRepository) {
+            for (Person person : getPersons()) {
+                if (person.getFirstName().equals(inputPersonFirstName) && person.getLastName().equals(inputPersonLastName)) {
+                    throw new ResourceAlreadyExistException("Person: " + inputPersonFirstName + " " + inputPersonLastName + " already exists");
+                }
             }
+            return personRepository.save(inputPerson);
         }
-        return personRepository.save(inputPerson);
+    }
+
+    /**
+     * Imports many persons at once, from a JSON array or from newline-delimited JSON.
+     * The whole input is read first, then the persons are checked and deduplicated in a single pass (against the existing
+     * persons and within the import), and all the valid persons are saved together with a single write of the JSON file.
+     * The check and the save hold the lock of the repository, so a concurrent creation or import cannot add the same person meanwhile.
+     * A null element, or an element which cannot be read as a person (a field of the wrong type or an unknown field), is reported as INVALID.
+     *
+     * @param inputStream the stream of the JSON array or of the NDJSON lines.
+     * @return a BulkReportDTO with the result of each person of the import.
+     * @throws IllegalArgumentException if the input is not valid JSON, in which case nobody is imported.
+     */
+    public BulkReportDTO importPersons(InputStream inputStream) {
+        logger.debug("Importing persons");
+        List<Person> inputPersons = new ArrayList<>();
+        Map<Integer, String> unreadableItems = new HashMap<>();
+        try (MappingIterator<JsonNode> iterator = nodeReader.readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                JsonNode node = iterator.nextValue();
+                Person person = null;
+                if (!node.isNull()) {
+                    try {
+                        person = personReader.readValue(node);
+                    } catch (JsonProcessingException e) {
+                        unreadableItems.put(inputPersons.size(), "Invalid person: " + e.getOriginalMessage());
+                    }
+                }
+                inputPersons.add(person);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid persons import: " + e.getMessage(), e);
+        }
+
+        List<Person> personsToCreate = new ArrayList<>();
+        List<BulkItemResultDTO> results = new ArrayList<>();
+        Set<String> importedKeys = new HashSet<>();
+        int rejectedCount = 0;
+        synchronized (personRepository) {
+            for (int index = 0; index < inputPersons.size(); index++) {
+                Person person = inputPersons.get(index);
+                if (person == null) {
+                    results.add(new BulkItemResultDTO(index, null, BulkItemStatus.INVALID, unreadableItems.getOrDefault(index, "A person is required")));
+                    rejectedCount++;
+                    continue;
+                }
+                String fullName = person.getFirstName() + " " + person.getLastName();
+                String indexKey = PersonRepository.indexKey(person);
+                if (isBlank(person.getFirstName()) || isBlank(person.getLastName())) {
+                    results.add(new BulkItemResultDTO(index, fullName, BulkItemStatus.INVALID, "First name and last name are required"));
+                    rejectedCount++;
+                } else if (personRepository.existsByIndexKey(indexKey)) {
+                    results.add(new BulkItemResultDTO(index, fullName, BulkItemStatus.DUPLICATE, "Person already exists"));
+                    rejectedCount++;
+                } else if (!importedKeys.add(indexKey)) {
+                    results.add(new BulkItemResultDTO(index, fullName, BulkItemStatus.DUPLICATE, "Person appears several times in the import"));
+                    rejectedCount++;
+                } else {
+                    personsToCreate.add(person);
+                    results.add(new BulkItemResultDTO(index, fullName, BulkItemStatus.CREATED, null));
+                }
+            }
+            if (!personsToCreate.isEmpty()) {
+                personRepository.saveAll(personsToCreate);
+            }
+        }
+        logger.info("Imported {} persons, {} rejected", personsToCreate.size(), rejectedCount);
+        return new BulkReportDTO(personsToCreate.size(), rejectedCount, results);
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isBlank();
     }
 
     /**
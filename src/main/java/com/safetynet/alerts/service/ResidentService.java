@@ -0,0 +1,123 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.controller.dto.BulkItemResultDTO;
+import com.safetynet.alerts.controller.dto.BulkItemStatus;
+import com.safetynet.alerts.controller.dto.BulkReportDTO;
+import com.safetynet.alerts.controller.dto.FullNameDTO;
+import com.safetynet.alerts.exceptions.ResourceNotFoundException;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ResidentService {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(ResidentService.class);
+
+    private final DataRepository dataRepository;
+
+    private final PersonRepository personRepository;
+
+    private final MedicalRecordRepository medicalRecordRepository;
+
+    /* CONSTRUCTOR */
+    public ResidentService(DataRepository dataRepository, PersonRepository personRepository, MedicalRecordRepository medicalRecordRepository) {
+        this.dataRepository = dataRepository;
+        this.personRepository = personRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+    }
+
+    /* METHODS */
+
+    /**
+     * Deletes a resident: the person and their medical record, with a single write of the JSON file.
+     *
+     * @param firstName a String representing the first name of the resident.
+     * @param lastName a String representing the last name of the resident.
+     * @throws ResourceNotFoundException if neither a person nor a medical record is found for this name.
+     */
+    public void deleteResident(String firstName, String lastName) {
+        logger.debug("Deleting resident {} {}", firstName, lastName);
+        BulkReportDTO report = deleteResidents(List.of(new FullNameDTO(firstName, lastName)));
+        if (report.getAppliedCount() == 0) {
+            throw new ResourceNotFoundException("No resident named " + firstName + " " + lastName + " found.");
+        }
+    }
+
+    /**
+     * Deletes many residents at once: each person and their medical record are found through the ordered indexes,
+     * then both lists are written to the JSON file with a single write.
+     * The persons are removed from memory before the medical records, so a person is never left without a medical record.
+     *
+     * @param fullNames the names of the residents to delete.
+     * @return a BulkReportDTO with the result of each name.
+     */
+    public BulkReportDTO deleteResidents(List<FullNameDTO> fullNames) {
+        logger.debug("Deleting {} residents", fullNames.size());
+        List<BulkItemResultDTO> results = new ArrayList<>();
+        List<Person> removedPersons = new ArrayList<>();
+        List<MedicalRecord> removedMedicalRecords = new ArrayList<>();
+        Set<String> removedKeys = new HashSet<>();
+        int rejectedCount = 0;
+
+        // Both repositories are locked, persons first, so no other write can change the lists between the lookup and the write.
+        synchronized (personRepository) {
+            synchronized (medicalRecordRepository) {
+                for (int index = 0; index < fullNames.size(); index++) {
+                    FullNameDTO fullName = fullNames.get(index);
+                    String name = fullName.getFirstName() + " " + fullName.getLastName();
+                    String indexKey = PersonRepository.indexKey(fullName.getFirstName(), fullName.getLastName());
+                    Person person = personRepository.findByIndexKey(indexKey);
+                    MedicalRecord medicalRecord = medicalRecordRepository.findByIndexKey(MedicalRecordRepository.indexKey(fullName.getFirstName(), fullName.getLastName()));
+                    if (person == null && medicalRecord == null) {
+                        results.add(new BulkItemResultDTO(index, name, BulkItemStatus.NOT_FOUND, "No resident found"));
+                        rejectedCount++;
+                    } else if (!removedKeys.add(indexKey)) {
+                        results.add(new BulkItemResultDTO(index, name, BulkItemStatus.DUPLICATE, "Resident appears several times in the request"));
+                        rejectedCount++;
+                    } else {
+                        if (person != null) {
+                            removedPersons.add(person);
+                        }
+                        if (medicalRecord != null) {
+                            removedMedicalRecords.add(medicalRecord);
+                        }
+                        results.add(new BulkItemResultDTO(index, name, BulkItemStatus.DELETED, person == null ? "No person found, only the medical record has been deleted" : null));
+                    }
+                }
+
+                if (!removedKeys.isEmpty()) {
+                    List<Person> remainingPersons = new ArrayList<>();
+                    for (Person person : personRepository.findAll()) {
+                        if (!removedKeys.contains(PersonRepository.indexKey(person))) {
+                            remainingPersons.add(person);
+                        }
+                    }
+                    List<MedicalRecord> remainingMedicalRecords = new ArrayList<>();
+                    for (MedicalRecord medicalRecord : medicalRecordRepository.findAll()) {
+                        if (!removedKeys.contains(MedicalRecordRepository.indexKey(medicalRecord))) {
+                            remainingMedicalRecords.add(medicalRecord);
+                        }
+                    }
+                    dataRepository.writeSections(Map.of("persons", remainingPersons, "medicalrecords", remainingMedicalRecords));
+                    personRepository.applyRemoval(remainingPersons, removedPersons);
+                    medicalRecordRepository.applyRemoval(remainingMedicalRecords, removedMedicalRecords);
+                }
+            }
+        }
+        logger.info("Deleted {} residents, {} rejected", removedKeys.size(), rejectedCount);
+        return new BulkReportDTO(removedKeys.size(), rejectedCount, results);
+    }
+}
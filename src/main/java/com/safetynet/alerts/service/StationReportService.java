@@ -0,0 +1,470 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.controller.dto.CoveredPersonsListDTO;
+import com.safetynet.alerts.controller.dto.PersonDTO;
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pushes the report of a fire station (the CoveredPersonsListDTO of GET /firestation) to its subscribers each time it changes.
+ * The report of each subscribed station is kept up to date from the changes recorded in the ChangeLog: a change only
+ * touches the addresses or the residents it concerns, and the report is only pushed when its content has changed.
+ * The residents keep their medical record rather than a child flag: the children are counted when the report is built,
+ * and the reports are checked again each day at midnight, so a resident turning 19 is pushed as an adult.
+ */
+@Service
+public class StationReportService {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(StationReportService.class);
+    public static final String REPORT_EVENT = "report";
+    public static final String HEARTBEAT_COMMENT = ChangeStreamService.HEARTBEAT_COMMENT;
+
+    private final PersonRepository personRepository;
+
+    private final FireStationRepository fireStationRepository;
+
+    private final MedicalRecordRepository medicalRecordRepository;
+
+    private final MedicalRecordService medicalRecordService;
+
+    // The station states are only read and changed by this thread, in the order of the change log.
+    private final ScheduledExecutorService updater = Executors.newSingleThreadScheduledExecutor();
+
+    // A sender blocked on a slow client only holds a virtual thread, so the number of subscribers does not bound the platform threads.
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Map<String, StationState> stations = new HashMap<>();
+
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    /* CONSTRUCTOR */
+    public StationReportService(ChangeLog changeLog, PersonRepository personRepository, FireStationRepository fireStationRepository,
+                                MedicalRecordRepository medicalRecordRepository, MedicalRecordService medicalRecordService,
+                                @Value("${alerts.sse.heartbeat-interval:15s}") Duration heartbeatInterval) {
+        this.personRepository = personRepository;
+        this.fireStationRepository = fireStationRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+        this.medicalRecordService = medicalRecordService;
+        changeLog.subscribe(this::onChange);
+        scheduleAgeCheck();
+        updater.scheduleAtFixedRate(this::sendHeartbeats, heartbeatInterval.toMillis(), heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /* METHODS */
+
+    /**
+     * Opens a stream of the reports of a fire station: the current report is sent first, then a new one each time
+     * a change affects the residents covered by the station or their number of children.
+     * A subscriber which is slower than the changes only receives the latest report.
+     * A heartbeat comment is sent to an idle subscriber at each heartbeat interval, so a closed connection is detected
+     * by the failed write and its subscriber removed.
+     *
+     * @param stationNumber the number of the fire station.
+     * @return the SseEmitter sending the reports.
+     */
+    public SseEmitter subscribe(String stationNumber) {
+        SseEmitter emitter = new SseEmitter(0L);
+        ReportSubscriber subscriber = new ReportSubscriber(stationNumber, emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+        subscriberCount.incrementAndGet();
+        updater.execute(() -> {
+            StationState state = stations.computeIfAbsent(stationNumber, StationState::new);
+            state.subscribers.add(subscriber);
+            subscriber.push(state.toReport());
+        });
+        logger.info("New subscriber to the reports of station {}", stationNumber);
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        updater.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    private void onChange(ChangeEvent event) {
+        if (subscriberCount.get() > 0) {
+            updater.execute(() -> apply(event));
+        }
+    }
+
+    private void apply(ChangeEvent event) {
+        for (StationState state : stations.values()) {
+            if (state.apply(event)) {
+                CoveredPersonsListDTO report = state.toReport();
+                logger.debug("Report of station {} changed by {} {} {}", state.stationNumber, event.getType(), event.getEntity(), event.getKey());
+                state.subscribers.forEach(subscriber -> subscriber.push(report));
+            }
+        }
+    }
+
+    /**
+     * Schedules the next check of the ages, just after midnight, when the ages of the residents change.
+     */
+    private void scheduleAgeCheck() {
+        if (updater.isShutdown()) {
+            return;
+        }
+        Duration untilMidnight = Duration.between(LocalDateTime.now(), LocalDate.now().plusDays(1).atStartOfDay());
+        updater.schedule(() -> {
+            checkAges();
+            scheduleAgeCheck();
+        }, untilMidnight.toMillis() + 1, TimeUnit.MILLISECONDS);
+    }
+
+    private void checkAges() {
+        for (StationState state : stations.values()) {
+            int reportedChildCount = state.reportedChildCount;
+            CoveredPersonsListDTO report = state.toReport();
+            if (report.getChildCount() != reportedChildCount) {
+                logger.debug("Report of station {} changed by the age of its residents", state.stationNumber);
+                state.subscribers.forEach(subscriber -> subscriber.push(report));
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        stations.values().forEach(state -> state.subscribers.forEach(ReportSubscriber::heartbeat));
+    }
+
+    private void removeSubscriber(ReportSubscriber subscriber) {
+        StationState state = stations.get(subscriber.stationNumber);
+        if (state != null && state.subscribers.remove(subscriber) && state.subscribers.isEmpty()) {
+            stations.remove(subscriber.stationNumber);
+        }
+        subscriberCount.decrementAndGet();
+        logger.info("Subscriber to the reports of station {} removed", subscriber.stationNumber);
+    }
+
+    /**
+     * The residents covered by one station, grouped by address, kept up to date change after change.
+     * The addresses follow the covered addresses of the station and the residents of an address follow the persons
+     * list, as in the report of GET /firestation.
+     */
+    private class StationState {
+
+        private final String stationNumber;
+        private final Map<String, Map<String, Resident>> residentsByAddress = new LinkedHashMap<>();
+        private final Map<String, Resident> residentsByKey = new HashMap<>();
+        private final List<ReportSubscriber> subscribers = new ArrayList<>();
+        private int reportedChildCount;
+
+        private StationState(String stationNumber) {
+            this.stationNumber = stationNumber;
+            reload();
+        }
+
+        private void reload() {
+            residentsByAddress.clear();
+            residentsByKey.clear();
+            for (String address : fireStationRepository.getCoveredAddresses(stationNumber)) {
+                residentsByAddress.put(address, new LinkedHashMap<>());
+            }
+            for (Person person : personRepository.findAll()) {
+                if (residentsByAddress.containsKey(person.getAddress())) {
+                    putResident(toResident(person));
+                }
+            }
+        }
+
+        /**
+         * Applies a change to the residents of the station.
+         *
+         * @param event the recorded change.
+         * @return true if the report of the station has changed.
+         */
+        private boolean apply(ChangeEvent event) {
+            if (event.getType() == ChangeType.RELOADED) {
+                reload();
+                return true;
+            }
+            return switch (event.getEntity()) {
+                case FireStationRepository.ENTITY -> applyFireStationChange(event.getKey(), (FireStation) event.getData());
+                case PersonRepository.ENTITY -> applyPersonChange(event.getType(), event.getIndexKey(), (Person) event.getData());
+                case MedicalRecordRepository.ENTITY -> applyMedicalRecordChange(event.getIndexKey(), (MedicalRecord) event.getData());
+                default -> false;
+            };
+        }
+
+        private boolean applyFireStationChange(String address, FireStation fireStation) {
+            boolean covered = fireStation != null && stationNumber.equals(fireStation.getStation());
+            if (covered == residentsByAddress.containsKey(address)) {
+                return false;
+            }
+            if (!covered) {
+                Map<String, Resident> removedResidents = residentsByAddress.remove(address);
+                for (Resident resident : new ArrayList<>(removedResidents.values())) {
+                    removeResident(resident);
+                }
+                return !removedResidents.isEmpty();
+            }
+            orderAddresses(address);
+            boolean changed = false;
+            for (Person person : personRepository.findAll()) {
+                if (address.equals(person.getAddress())) {
+                    putResident(toResident(person));
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        /**
+         * Adds a newly covered address, and puts the addresses back in the order of the covered addresses of the station.
+         */
+        private void orderAddresses(String newAddress) {
+            Map<String, Map<String, Resident>> previousAddresses = new LinkedHashMap<>(residentsByAddress);
+            previousAddresses.put(newAddress, new LinkedHashMap<>());
+            residentsByAddress.clear();
+            for (String address : fireStationRepository.getCoveredAddresses(stationNumber)) {
+                Map<String, Resident> residentsAtAddress = previousAddresses.remove(address);
+                if (residentsAtAddress != null) {
+                    residentsByAddress.put(address, residentsAtAddress);
+                }
+            }
+            // An address whose change is still waiting in the updater queue keeps its place at the end.
+            residentsByAddress.putAll(previousAddresses);
+        }
+
+        private boolean applyPersonChange(ChangeType type, String key, Person person) {
+            Resident previous = residentsByKey.get(key);
+            Resident next = person != null && residentsByAddress.containsKey(person.getAddress()) ? toResident(person) : null;
+            if (Objects.equals(previous, next)) {
+                return false;
+            }
+            if (previous != null && next != null && previous.address.equals(next.address)) {
+                // An updated person keeps its place in the persons list, so it keeps its place at its address.
+                putResident(next);
+                return true;
+            }
+            if (previous != null) {
+                removeResident(previous);
+            }
+            if (next != null && type == ChangeType.CREATED) {
+                putResident(next);
+            } else if (next != null) {
+                insertResident(next);
+            }
+            return true;
+        }
+
+        /**
+         * Puts a person who moved to a covered address at its place among the residents of the address, following the
+         * persons list. The persons of the address not known by the station yet are added by their own change.
+         */
+        private void insertResident(Resident resident) {
+            Map<String, Resident> residentsAtAddress = residentsByAddress.get(resident.address);
+            Map<String, Resident> previousResidents = new LinkedHashMap<>(residentsAtAddress);
+            residentsAtAddress.clear();
+            for (Person person : personRepository.findPersonByAddress(resident.address)) {
+                String key = PersonRepository.indexKey(person);
+                Resident knownResident = key.equals(resident.key) ? resident : previousResidents.remove(key);
+                if (knownResident != null) {
+                    residentsAtAddress.put(key, knownResident);
+                }
+            }
+            // A resident whose change is still waiting in the updater queue keeps its place at the end.
+            residentsAtAddress.putAll(previousResidents);
+            residentsAtAddress.putIfAbsent(resident.key, resident);
+            residentsByKey.put(resident.key, resident);
+        }
+
+        private boolean applyMedicalRecordChange(String key, MedicalRecord medicalRecord) {
+            Resident previous = residentsByKey.get(key);
+            if (previous == null) {
+                return false;
+            }
+            boolean changed = isChild(medicalRecord) != isChild(previous.medicalRecord);
+            putResident(new Resident(previous.key, previous.firstName, previous.lastName, previous.address, previous.phone, medicalRecord));
+            return changed;
+        }
+
+        private Resident toResident(Person person) {
+            MedicalRecord medicalRecord = medicalRecordRepository.findByIndexKey(MedicalRecordRepository.indexKey(person.getFirstName(), person.getLastName()));
+            return new Resident(PersonRepository.indexKey(person), person.getFirstName(), person.getLastName(), person.getAddress(), person.getPhone(), medicalRecord);
+        }
+
+        /**
+         * Puts a resident at the end of its address, or in the place of the resident with the same key.
+         */
+        private void putResident(Resident resident) {
+            residentsByAddress.get(resident.address).put(resident.key, resident);
+            residentsByKey.put(resident.key, resident);
+        }
+
+        private void removeResident(Resident resident) {
+            Map<String, Resident> residentsAtAddress = residentsByAddress.get(resident.address);
+            if (residentsAtAddress != null) {
+                residentsAtAddress.remove(resident.key);
+            }
+            residentsByKey.remove(resident.key);
+        }
+
+        /**
+         * Builds the report of the station, counting the children at the time of the call.
+         */
+        private CoveredPersonsListDTO toReport() {
+            ArrayList<PersonDTO> coveredPersons = new ArrayList<>(residentsByKey.size());
+            int childCount = 0;
+            for (Map<String, Resident> residentsAtAddress : residentsByAddress.values()) {
+                for (Resident resident : residentsAtAddress.values()) {
+                    coveredPersons.add(new PersonDTO(resident.firstName, resident.lastName, resident.address, resident.phone));
+                    if (isChild(resident.medicalRecord)) {
+                        childCount++;
+                    }
+                }
+            }
+            reportedChildCount = childCount;
+            return new CoveredPersonsListDTO(childCount, coveredPersons.size() - childCount, coveredPersons);
+        }
+    }
+
+    /**
+     * Helper method to determine if the person of a medical record is a child.
+     * A person without a medical record, or with an invalid birthdate, is counted as an adult.
+     */
+    private boolean isChild(MedicalRecord medicalRecord) {
+        if (medicalRecord == null) {
+            return false;
+        }
+        try {
+            return medicalRecordService.isChild(medicalRecord);
+        } catch (IllegalArgumentException e) {
+            logger.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    private static final class Resident {
+        private final String key;
+        private final String firstName;
+        private final String lastName;
+        private final String address;
+        private final String phone;
+        private final MedicalRecord medicalRecord;
+
+        private Resident(String key, String firstName, String lastName, String address, String phone, MedicalRecord medicalRecord) {
+            this.key = key;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.address = address;
+            this.phone = phone;
+            this.medicalRecord = medicalRecord;
+        }
+
+        /**
+         * Two residents are equal when they give the same line of the report. The medical record is left out, its
+         * changes being applied by their own change.
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Resident resident = (Resident) o;
+            return Objects.equals(key, resident.key) && Objects.equals(address, resident.address) && Objects.equals(phone, resident.phone);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, address, phone);
+        }
+    }
+
+    /**
+     * One subscriber: only the latest report not sent yet is kept, so a slow subscriber skips the intermediate reports.
+     */
+    private class ReportSubscriber {
+
+        private final String stationNumber;
+        private final SseEmitter emitter;
+        private final AtomicReference<CoveredPersonsListDTO> latest = new AtomicReference<>();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private ReportSubscriber(String stationNumber, SseEmitter emitter) {
+            this.stationNumber = stationNumber;
+            this.emitter = emitter;
+        }
+
+        private void push(CoveredPersonsListDTO report) {
+            latest.set(report);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void heartbeat() {
+            heartbeatDue.set(true);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                CoveredPersonsListDTO report;
+                boolean sent = false;
+                while ((report = latest.getAndSet(null)) != null) {
+                    emitter.send(SseEmitter.event().name(REPORT_EVENT).data(report, MediaType.APPLICATION_JSON));
+                    sent = true;
+                }
+                // A report just sent is enough to detect a closed connection.
+                if (heartbeatDue.getAndSet(false) && !sent) {
+                    emitter.send(SseEmitter.event().comment(HEARTBEAT_COMMENT));
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Subscriber to the reports of station {} gone: {}", stationNumber, e.getMessage());
+                close();
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // A report may have been pushed after the last read, while this sender was still marked as running.
+            if ((latest.get() != null || heartbeatDue.get()) && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true) && !updater.isShutdown()) {
+                updater.execute(() -> removeSubscriber(this));
+            }
+        }
+    }
+}
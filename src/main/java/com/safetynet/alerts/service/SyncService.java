@@ -0,0 +1,89 @@
+package com.safetynet.alerts.service;
+
+import com.safetynet.alerts.controller.dto.SyncDTO;
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class SyncService {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(SyncService.class);
+
+    private final ChangeLog changeLog;
+
+    private final PersonRepository personRepository;
+
+    private final FireStationRepository fireStationRepository;
+
+    private final MedicalRecordRepository medicalRecordRepository;
+
+    /* CONSTRUCTOR */
+    public SyncService(ChangeLog changeLog, PersonRepository personRepository, FireStationRepository fireStationRepository, MedicalRecordRepository medicalRecordRepository) {
+        this.changeLog = changeLog;
+        this.personRepository = personRepository;
+        this.fireStationRepository = fireStationRepository;
+        this.medicalRecordRepository = medicalRecordRepository;
+    }
+
+    /* METHODS */
+
+    /**
+     * Retrieves the persons, fire stations and medical records changed or deleted after the given version.
+     * The version of the data is the sequence of the last change in the ChangeLog. When the given version is unknown
+     * (missing, older than the last reload of a list, or from before a restart of the application), the whole dataset
+     * is returned instead and the client has to replace its data.
+     *
+     * @param since the version returned by the previous synchronisation, or null for a full synchronisation.
+     * @return a SyncDTO with the new version and the changed entities, or the whole dataset if full is true.
+     */
+    public SyncDTO getChangesSince(Long since) {
+        logger.debug("Synchronising the changes since version {}", since);
+        // The change log is locked so no change is recorded while the three lists are read, the version is consistent.
+        synchronized (changeLog) {
+            long version = changeLog.getSequence();
+            long resetVersion = Math.max(personRepository.getResetVersion(), Math.max(fireStationRepository.getResetVersion(), medicalRecordRepository.getResetVersion()));
+            if (since == null || since < resetVersion || since > version) {
+                logger.info("Full synchronisation at version {}, the version {} is unknown", version, since);
+                return new SyncDTO(version, true, new ArrayList<>(personRepository.findAll()), new ArrayList<>(fireStationRepository.findAll()),
+                        new ArrayList<>(medicalRecordRepository.findAll()), List.of(), List.of(), List.of());
+            }
+
+            List<Person> persons = new ArrayList<>();
+            List<String> deletedPersons = new ArrayList<>();
+            splitChanges(personRepository.findChangesAfter(since), Person.class, persons, deletedPersons);
+            List<FireStation> fireStations = new ArrayList<>();
+            List<String> deletedFireStations = new ArrayList<>();
+            splitChanges(fireStationRepository.findChangesAfter(since), FireStation.class, fireStations, deletedFireStations);
+            List<MedicalRecord> medicalRecords = new ArrayList<>();
+            List<String> deletedMedicalRecords = new ArrayList<>();
+            splitChanges(medicalRecordRepository.findChangesAfter(since), MedicalRecord.class, medicalRecords, deletedMedicalRecords);
+
+            logger.info("Synchronisation from version {} to {}: {} changed and {} deleted entities", since, version,
+                    persons.size() + fireStations.size() + medicalRecords.size(), deletedPersons.size() + deletedFireStations.size() + deletedMedicalRecords.size());
+            return new SyncDTO(version, false, persons, fireStations, medicalRecords, deletedPersons, deletedFireStations, deletedMedicalRecords);
+        }
+    }
+
+    private <T> void splitChanges(List<ChangeEvent> changes, Class<T> type, List<T> changed, List<String> deleted) {
+        for (ChangeEvent change : changes) {
+            if (change.getData() == null) {
+                deleted.add(change.getKey());
+            } else {
+                changed.add(type.cast(change.getData()));
+            }
+        }
+    }
+}
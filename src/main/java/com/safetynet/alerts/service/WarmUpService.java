@@ -0,0 +1,195 @@
+package com.safetynet.alerts.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.diagnostics.SyntheticCalls;
+import com.safetynet.alerts.exceptions.EmptyResourceException;
+import com.safetynet.alerts.exceptions.ResourceNotFoundException;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.repository.FireStationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.Marker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Replays a synthetic mix of the firestation, phoneAlert, fire, childAlert and flood alerts against the services once
+ * the dataset is loaded, and serializes their results with the ObjectMapper of the application, so the JIT compiler
+ * has compiled the alert paths before the application reports ready.
+ * The alerts only read the lists, so the warm-up changes no data. Their targets are drawn from the loaded fire stations
+ * with a fixed seed, and the logs of the warm-up thread below WARN are dropped, so it does not fill the log.
+ * The warm-up calls are marked as SyntheticCalls, so their lookups are left out of the alerts.repository.scanned
+ * metrics and their lookups and alerts are not committed as Java Flight Recorder events.
+ * The warm-up stops after alerts.warmup.calls calls or alerts.warmup.time-budget, whichever comes first.
+ */
+@Service
+public class WarmUpService {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(WarmUpService.class);
+
+    static final String DEFAULT_MIX = "firestation:4,phoneAlert:2,fire:4,childAlert:2,flood:1";
+    private static final long SEED = 42;
+
+    private final FireStationRepository fireStationRepository;
+    private final FireStationService fireStationService;
+    private final PersonService personService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int calls;
+    private final Duration timeBudget;
+    private final List<String> mix;
+
+    /* CONSTRUCTOR */
+    /**
+     * @param enabled true to warm up before reporting ready, from the alerts.warmup.enabled property.
+     * @param calls the maximum number of calls, from the alerts.warmup.calls property.
+     * @param timeBudget the maximum duration of the warm-up, from the alerts.warmup.time-budget property.
+     * @param mix the alerts to call with their weights, like firestation:4,flood:1, from the alerts.warmup.mix property.
+     * @throws IllegalArgumentException if the mix names an unknown alert or has no positive weight.
+     */
+    public WarmUpService(FireStationRepository fireStationRepository, FireStationService fireStationService,
+                         PersonService personService, ObjectMapper objectMapper,
+                         @Value("${alerts.warmup.enabled:false}") boolean enabled,
+                         @Value("${alerts.warmup.calls:20000}") int calls,
+                         @Value("${alerts.warmup.time-budget:10s}") Duration timeBudget,
+                         @Value("${alerts.warmup.mix:" + DEFAULT_MIX + "}") String mix) {
+        this.fireStationRepository = fireStationRepository;
+        this.fireStationService = fireStationService;
+        this.personService = personService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.calls = calls;
+        this.timeBudget = timeBudget;
+        this.mix = parseMix(mix);
+    }
+
+    /* METHODS */
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Calls the alerts of the mix in turn, in proportion to their weights, until the number of calls or the time budget is reached.
+     *
+     * @return the number of calls made by each alert, in the order of the mix.
+     */
+    public Map<String, Integer> warmUp() {
+        List<FireStation> fireStations = fireStationRepository.findAll();
+        Map<String, Integer> callsByAlert = new LinkedHashMap<>();
+        if (fireStations.isEmpty()) {
+            logger.warn("No fire station loaded, the warm-up is skipped.");
+            return callsByAlert;
+        }
+        List<String> stations = fireStations.stream().map(FireStation::getStation).distinct().toList();
+        Random random = new Random(SEED);
+        Map<String, Function<Random, Object>> alerts = Map.of(
+                "firestation", r -> fireStationService.createFireStationPersonsList(pick(stations, r)),
+                "phoneAlert", r -> fireStationService.createPhoneList(pick(stations, r)),
+                "fire", r -> fireStationService.createPersonsListInCaseOfFire(pick(fireStations, r).getAddress()),
+                "childAlert", r -> personService.createChildAlertList(pick(fireStations, r).getAddress()),
+                "flood", r -> fireStationService.createFloodAlertList(List.of(pick(stations, r), pick(stations, r))));
+
+        long start = System.nanoTime();
+        long deadline = start + timeBudget.toNanos();
+        int total = 0;
+        QuietThreadFilter quietFilter = QuietThreadFilter.install(Thread.currentThread());
+        try (SyntheticCalls.Scope ignored = SyntheticCalls.begin()) {
+            while (total < calls && System.nanoTime() < deadline) {
+                String alert = mix.get(total % mix.size());
+                try {
+                    objectMapper.writeValue(OutputStream.nullOutputStream(), alerts.get(alert).apply(random));
+                } catch (EmptyResourceException | ResourceNotFoundException e) {
+                    // A target without a child or without a person is a valid call, like for a client.
+                } catch (IOException e) {
+                    throw new IllegalStateException("Could not serialize the " + alert + " alert", e);
+                }
+                callsByAlert.merge(alert, 1, Integer::sum);
+                total++;
+            }
+        } finally {
+            quietFilter.uninstall();
+        }
+        logger.info("Warm-up done in {} ms with {} calls: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), total, callsByAlert);
+        return callsByAlert;
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Parses a mix like firestation:4,flood:1 into the cycle of the alerts to call, each alert appearing as many times as its weight.
+     */
+    static List<String> parseMix(String mix) {
+        List<String> cycle = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] alertAndWeight = entry.trim().split(":");
+            String alert = alertAndWeight[0].trim();
+            if (!List.of("firestation", "phoneAlert", "fire", "childAlert", "flood").contains(alert)) {
+                throw new IllegalArgumentException("Unknown alert in the warm-up mix: " + alert);
+            }
+            int weight = alertAndWeight.length > 1 ? Integer.parseInt(alertAndWeight[1].trim()) : 1;
+            for (int i = 0; i < weight; i++) {
+                cycle.add(alert);
+            }
+        }
+        if (cycle.isEmpty()) {
+            throw new IllegalArgumentException("The warm-up mix has no alert with a positive weight: " + mix);
+        }
+        return List.copyOf(cycle);
+    }
+
+    /**
+     * Drops the logs below WARN of one thread, while it is installed in the Logback context.
+     * A TurboFilter is called for every log call of every thread, before the level of the logger is checked, so while
+     * the warm-up runs the other threads, like the request threads once the endpoints answer, each pay a comparison of
+     * their thread in every log call, debug calls included. The filter is removed at the end of the warm-up.
+     */
+    private static class QuietThreadFilter extends TurboFilter {
+
+        private final Thread thread;
+
+        private QuietThreadFilter(Thread thread) {
+            this.thread = thread;
+        }
+
+        static QuietThreadFilter install(Thread thread) {
+            QuietThreadFilter filter = new QuietThreadFilter(thread);
+            if (LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) {
+                filter.setContext(loggerContext);
+                filter.start();
+                loggerContext.addTurboFilter(filter);
+            }
+            return filter;
+        }
+
+        void uninstall() {
+            if (getContext() instanceof LoggerContext loggerContext) {
+                loggerContext.getTurboFilterList().remove(this);
+            }
+            stop();
+        }
+
+        @Override
+        public FilterReply decide(Marker marker, ch.qos.logback.classic.Logger logger, Level level, String format, Object[] params, Throwable t) {
+            return Thread.currentThread() == thread && level != null && !level.isGreaterOrEqual(Level.WARN) ? FilterReply.DENY : FilterReply.NEUTRAL;
+        }
+    }
+}
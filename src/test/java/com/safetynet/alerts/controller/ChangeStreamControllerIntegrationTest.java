@@ -0,0 +1,94 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "alerts.sse.heartbeat-interval=200ms")
+@AutoConfigureMockMvc
+public class ChangeStreamControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private ChangeLog changeLog;
+
+    @AfterEach
+    public void restoreOriginalData() throws IOException {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        personRepository.createListPersons();
+    }
+
+    @Test
+    public void streamChanges_shouldSendTheCommittedChangesAfterTheGivenSequence() throws Exception {
+        long sequence = changeLog.getSequence();
+        MvcResult result = mockMvc.perform(get("/changes")
+                        .param("since", String.valueOf(sequence)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(delete("/person")
+                        .param("first_name", "John")
+                        .param("last_name", "Boyd"))
+                .andExpect(status().isOk());
+
+        String content = awaitContent(result, "event:persons");
+        assertTrue(content.contains("id:" + (sequence + 1)));
+        assertTrue(content.contains("\"type\":\"DELETED\""));
+        assertTrue(content.contains("\"key\":\"John Boyd\""));
+    }
+
+    @Test
+    public void streamChanges_shouldSendResync_whenTheSequenceIsNotKeptAnymore() throws Exception {
+        MvcResult result = mockMvc.perform(get("/changes")
+                        .header("Last-Event-ID", "-10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = awaitContent(result, "event:resync");
+        assertTrue(content.contains("\"sequence\":" + changeLog.getSequence()));
+    }
+
+    @Test
+    public void streamChanges_shouldSendHeartbeats_whenNoChangeIsCommitted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String content = awaitContent(result, ":heartbeat");
+        assertTrue(content.startsWith(":heartbeat"), content);
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        String content = "";
+        // An event is written in several parts: it is complete once the blank line closing it is written.
+        for (int attempt = 0; attempt < 100 && !(content.contains(expected) && content.endsWith("\n\n")); attempt++) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), "Missing " + expected + " in " + content);
+        return content;
+    }
+}
@@ -0,0 +1,77 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class DataExportControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @BeforeEach
+    public void writeCurrentData() {
+        personRepository.createListPersons();
+    }
+
+    @AfterEach
+    public void restoreOriginalData() throws IOException {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        personRepository.createListPersons();
+    }
+
+    @Test
+    public void exportData_shouldSendTheDataFile_whenItIsUpToDate() throws Exception {
+        mockMvc.perform(get("/export"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.persons.length()", is(23)));
+    }
+
+    @Test
+    public void exportData_shouldSendTheRequestedRange() throws Exception {
+        mockMvc.perform(get("/export")
+                        .header("Range", "bytes=0-0"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", startsWith("bytes 0-0/")))
+                .andExpect(content().string("{"));
+    }
+
+    @Test
+    public void exportData_shouldSerializeTheData_whenTheFileIsNotUpToDate() throws Exception {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        mockMvc.perform(get("/export")
+                        .header("Range", "bytes=0-0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Accept-Ranges", "none"))
+                .andExpect(jsonPath("$.persons.length()", is(23)))
+                .andExpect(jsonPath("$.firestations.length()", is(11)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.diagnostics.SlowRequestLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "alerts.diagnostics.slow-request-threshold=0ms")
+@AutoConfigureMockMvc
+public class DiagnosticsControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SlowRequestLog slowRequestLog;
+
+    @AfterEach
+    public void clearSlowRequests() {
+        slowRequestLog.clear();
+    }
+
+    @Test
+    public void getSlowRequests_shouldReturnTheTimeOfEachStage_whenTheRequestIsOverTheThreshold() throws Exception {
+        mockMvc.perform(get("/flood/stations?stations=1,2"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/diagnostics/slow-requests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(1))
+                .andExpect(jsonPath("$[0].method").value("GET"))
+                .andExpect(jsonPath("$[0].uri").value("/flood/stations?stations=1,2"))
+                .andExpect(jsonPath("$[0].status").value(200))
+                .andExpect(jsonPath("$[0].durationMillis", greaterThan(0.0)))
+                .andExpect(jsonPath("$[0].stages[*].stage", hasItems("repositoryLookup", "ageComputation", "dtoBuilding", "serialization", "other")));
+    }
+
+    @Test
+    public void clearSlowRequests_shouldDropTheSlowRequestsKept() throws Exception {
+        mockMvc.perform(get("/phoneAlert")
+                        .param("firestation_number", "2"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete("/diagnostics/slow-requests"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/diagnostics/slow-requests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(0));
+    }
+}
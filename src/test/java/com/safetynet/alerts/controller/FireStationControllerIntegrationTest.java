@@ -1,12 +1,14 @@
 package com.safetynet.alerts.controller;
 
 import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.PersonRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -14,10 +16,15 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasItems;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = "alerts.sse.heartbeat-interval=200ms")
 @AutoConfigureMockMvc
 public class FireStationControllerIntegrationTest {
 
@@ -27,6 +34,9 @@ public class FireStationControllerIntegrationTest {
     @Autowired
     FireStationRepository fireStationRepository;
 
+    @Autowired
+    PersonRepository personRepository;
+
     @AfterEach
     public void restoreOriginalData() throws IOException {
         Files.copy(Paths.get("./src/main/resources/originalData.json"),
@@ -34,6 +44,7 @@ public class FireStationControllerIntegrationTest {
                 StandardCopyOption.REPLACE_EXISTING);
 
         fireStationRepository.createListFireStations();
+        personRepository.createListPersons();
     }
 
     @Test
@@ -44,6 +55,80 @@ public class FireStationControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].address", is("1509 Culver St")));
     }
 
+    @Test
+    public void getFireStationsPage_shouldReturnFireStationsOrderedByAddress() throws Exception {
+        mockMvc.perform(get("/firestations")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].address", is("112 Steppes Pl")))
+                .andExpect(jsonPath("$.nextCursor").exists());
+    }
+
+    @Test
+    public void reassignStations_shouldMoveTheGivenAddressesAndReportTheDiff() throws Exception {
+        String reassignment = """
+            {"addresses": ["1509 Culver St", "29 15th St", "489 Manchester St", "1 Unknown Rd"], "toStation": "4"}
+        """;
+
+        mockMvc.perform(put("/firestations/reassign")
+                        .contentType("application/json")
+                        .content(reassignment))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reassignedAddresses.length()").value(2))
+                .andExpect(jsonPath("$.reassignedAddresses[0].address", is("1509 Culver St")))
+                .andExpect(jsonPath("$.reassignedAddresses[0].previousStation", is("3")))
+                .andExpect(jsonPath("$.reassignedAddresses[0].peopleCount").value(5))
+                .andExpect(jsonPath("$.reassignedPeopleCount").value(6))
+                .andExpect(jsonPath("$.unchangedAddresses[0]", is("489 Manchester St")))
+                .andExpect(jsonPath("$.notFoundAddresses[0]", is("1 Unknown Rd")));
+
+        mockMvc.perform(get("/fire")
+                        .param("address", "1509 Culver St"))
+                .andExpect(jsonPath("$.stationNumber", is("4")));
+    }
+
+    @Test
+    public void reassignStations_shouldMoveEveryAddressOfTheStation() throws Exception {
+        mockMvc.perform(put("/firestations/reassign")
+                        .contentType("application/json")
+                        .content("{\"fromStation\": \"3\", \"toStation\": \"5\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reassignedAddresses.length()").value(4));
+
+        mockMvc.perform(get("/firestation")
+                        .param("station_number", "3"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void reassignStations_shouldReturnBadRequest_whenBothAddressesAndStationAreGiven() throws Exception {
+        mockMvc.perform(put("/firestations/reassign")
+                        .contentType("application/json")
+                        .content("{\"addresses\": [\"1509 Culver St\"], \"fromStation\": \"3\", \"toStation\": \"5\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void reassignStations_shouldReturnBadRequest_whenAnAddressIsNull() throws Exception {
+        mockMvc.perform(put("/firestations/reassign")
+                        .contentType("application/json")
+                        .content("{\"addresses\": [null], \"toStation\": \"2\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void reassignStations_shouldReturnBadRequestAndMoveNothing_whenTheTargetIsNotAStationNumber() throws Exception {
+        mockMvc.perform(put("/firestations/reassign")
+                        .contentType("application/json")
+                        .content("{\"fromStation\": \"3\", \"toStation\": \"03\"}"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/firestation")
+                        .param("station_number", "3"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void getFireStationPersonsList_shouldReturnCoveredPersons() throws Exception {
         mockMvc.perform(get("/firestation")
@@ -54,6 +139,102 @@ public class FireStationControllerIntegrationTest {
     }
 
 
+    @Test
+    public void getFireStationPersonsList_shouldReturnTheCoveredPersonsWithTheirPlan_whenExplainIsTrue() throws Exception {
+        mockMvc.perform(get("/firestation")
+                        .param("station_number", "1")
+                        .param("explain", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.adultsCount").value(5))
+                .andExpect(jsonPath("$.explain.accesses[*].lookup", hasItems("getCoveredAddresses", "findAll", "findMedicalRecordsByFullName")))
+                .andExpect(jsonPath("$.explain.accesses[?(@.lookup == 'getCoveredAddresses')].access", everyItem(is("index"))))
+                .andExpect(jsonPath("$.explain.accesses[?(@.lookup != 'getCoveredAddresses')].access", everyItem(is("scan"))))
+                .andExpect(jsonPath("$.explain.elapsedMillis", greaterThan(0.0)));
+    }
+
+    @Test
+    public void getFireStationPersonsList_shouldOnlyReturnTheCoveredPersons_whenExplainIsFalse() throws Exception {
+        mockMvc.perform(get("/firestation")
+                        .param("station_number", "1")
+                        .param("explain", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.adultsCount").value(5))
+                .andExpect(jsonPath("$.explain").doesNotExist());
+    }
+
+    @Test
+    public void subscribeFireStationPersonsList_shouldPushANewReportOnlyWhenTheStationIsAffected() throws Exception {
+        MvcResult result = mockMvc.perform(get("/firestation/subscribe")
+                        .param("station_number", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String content = awaitReports(result, 1);
+        assertTrue(content.contains("\"adultsCount\":5"));
+
+        mockMvc.perform(delete("/person")
+                        .param("first_name", "John")
+                        .param("last_name", "Boyd"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/person")
+                        .param("first_name", "Peter")
+                        .param("last_name", "Duncan"))
+                .andExpect(status().isOk());
+
+        content = awaitReports(result, 2);
+        assertTrue(content.contains("\"adultsCount\":4"));
+        assertEquals(2, content.split("event:report").length - 1);
+    }
+
+    @Test
+    public void subscribeFireStationPersonsList_shouldKeepAnUpdatedResidentAtItsPlace() throws Exception {
+        MvcResult result = mockMvc.perform(get("/firestation/subscribe")
+                        .param("station_number", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitReports(result, 1);
+
+        mockMvc.perform(put("/person")
+                        .contentType("application/json")
+                        .content("{\"firstName\": \"Reginold\", \"lastName\": \"Walker\", \"address\": \"908 73rd St\", \"city\": \"Culver\", "
+                                + "\"zip\": \"97451\", \"phone\": \"841-874-0000\", \"email\": \"reg@email.com\"}"))
+                .andExpect(status().isOk());
+
+        String content = awaitReports(result, 2);
+        String lastReport = content.substring(content.lastIndexOf("event:report"));
+        assertTrue(lastReport.contains("841-874-0000"));
+        assertTrue(lastReport.indexOf("Reginold") < lastReport.indexOf("Jamie"), lastReport);
+        assertTrue(lastReport.indexOf("Peter") < lastReport.indexOf("Reginold"), lastReport);
+    }
+
+    @Test
+    public void subscribeFireStationPersonsList_shouldSendHeartbeats_betweenTheReports() throws Exception {
+        MvcResult result = mockMvc.perform(get("/firestation/subscribe")
+                        .param("station_number", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitReports(result, 1);
+
+        String content = "";
+        for (int attempt = 0; attempt < 100 && !content.contains(":heartbeat"); attempt++) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(":heartbeat"), content);
+        assertEquals(1, content.split("event:report").length - 1);
+    }
+
+    private String awaitReports(MvcResult result, int expectedCount) throws Exception {
+        String content = "";
+        // An event is written in several parts: it is complete once the blank line closing it is written.
+        for (int attempt = 0; attempt < 100
+                && (content.split("event:report").length - 1 < expectedCount || !content.endsWith("\n\n")); attempt++) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString();
+        }
+        assertEquals(expectedCount, content.split("event:report").length - 1, content);
+        return content;
+    }
+
     @Test
     public void getPhoneList_shouldReturnPhoneList() throws Exception {
         mockMvc.perform(get("/phoneAlert")
@@ -14,6 +14,8 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -84,6 +86,58 @@ public class MedicalRecordControllerIntegrationTest {
                 .andExpect(jsonPath("$.allergies[0]", is("shellfish")));
     }
 
+    @Test
+    public void upsertMedicalRecords_shouldCreateAndUpdateMedicalRecordsInOneFeed() throws Exception {
+        String feed = """
+            [
+                {"firstName": "John", "lastName": "Boyd", "birthdate": "03/06/1984", "medications": ["ibuprofen:200mg"], "allergies": []},
+                {"firstName": "Jane", "lastName": "Eyre", "birthdate": "03/06/1984", "medications": [], "allergies": ["cats"]},
+                {"firstName": "Edward", "lastName": "Rochester", "birthdate": "not a date", "medications": [], "allergies": []},
+                {"firstName": "Jane", "lastName": "Eyre", "birthdate": "03/06/1985", "medications": [], "allergies": ["dogs"]}
+            ]
+        """;
+
+        mockMvc.perform(put("/medicalrecords/bulk")
+                        .contentType("application/json")
+                        .content(feed))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(2)))
+                .andExpect(jsonPath("$.rejectedCount", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("UPDATED")))
+                .andExpect(jsonPath("$.results[1].status", is("SUPERSEDED")))
+                .andExpect(jsonPath("$.results[2].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[3].status", is("CREATED")));
+
+        assertEquals("03/06/1985", medicalRecordRepository.findMedicalRecordsByFullName("Jane", "Eyre").getBirthdate());
+        assertEquals("ibuprofen:200mg", medicalRecordRepository.findMedicalRecordsByFullName("John", "Boyd").getMedications().getFirst());
+    }
+
+    @Test
+    public void upsertMedicalRecords_shouldReportNullItemsAsInvalid() throws Exception {
+        mockMvc.perform(put("/medicalrecords/bulk")
+                        .contentType("application/json")
+                        .content("[null, {\"firstName\": \"Jane\", \"lastName\": \"Eyre\", \"birthdate\": \"03/06/1984\", \"medications\": [], \"allergies\": []}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(1)))
+                .andExpect(jsonPath("$.rejectedCount", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[1].status", is("CREATED")));
+    }
+
+    @Test
+    public void upsertMedicalRecords_shouldReportUnreadableItemsAsInvalid_andApplyTheOthers() throws Exception {
+        mockMvc.perform(put("/medicalrecords/bulk")
+                        .contentType("application/json")
+                        .content("[{\"firstName\": \"Jane\", \"lastName\": \"Eyre\", \"birthdate\": \"03/06/1984\", \"medications\": \"x\"},"
+                                + " {\"firstName\": \"Adele\", \"lastName\": \"Varens\", \"birthdate\": \"03/06/2012\", \"medications\": [], \"allergies\": []}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(1)))
+                .andExpect(jsonPath("$.rejectedCount", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[0].message", startsWith("Invalid medical record")))
+                .andExpect(jsonPath("$.results[1].status", is("CREATED")));
+    }
+
     @Test
     public void deleteMedicalRecord_shouldReturnStatusOk() throws Exception {
         mockMvc.perform(delete("/medicalrecord")
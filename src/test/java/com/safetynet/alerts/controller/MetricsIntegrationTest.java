@@ -0,0 +1,83 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class MetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @AfterEach
+    public void restoreOriginalData() throws IOException {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        personRepository.createListPersons();
+    }
+
+    @Test
+    public void metrics_shouldTimeEndpointsAndCountScannedPersons() throws Exception {
+        mockMvc.perform(get("/fire").param("address", "1509 Culver St"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/metrics/http.server.requests").param("tag", "uri:/fire"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+        mockMvc.perform(get("/actuator/metrics/alerts.repository.scanned")
+                        .param("tag", "entity:persons")
+                        .param("tag", "lookup:findPersonByAddress"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[1].value", greaterThanOrEqualTo(23.0)));
+        mockMvc.perform(get("/actuator/metrics/alerts.repository.size").param("tag", "entity:persons"))
+                .andExpect(jsonPath("$.measurements[0].value", is(23.0)));
+    }
+
+    @Test
+    public void metrics_shouldCountTheBytesWrittenToTheDataFile() throws Exception {
+        String newPerson = """
+            {"firstName": "Anne", "lastName": "Shirley", "address": "Green Gables", "city": "Avonlea", "zip": "97451", "phone": "841-874-0000", "email": "anne@email.com"}
+        """;
+
+        mockMvc.perform(post("/person").contentType("application/json").content(newPerson))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/actuator/metrics/alerts.data.written.bytes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThan(0.0)));
+        mockMvc.perform(get("/actuator/metrics/alerts.data.write"))
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+    }
+
+    @Test
+    public void healthProbes_shouldReportUp_onceTheDatasetIsLoaded() throws Exception {
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+        mockMvc.perform(get("/actuator/health/liveness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.safetynet.alerts.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.safetynet.alerts.repository.PersonRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
@@ -7,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -14,6 +16,9 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -44,6 +49,47 @@ public class PersonControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].firstName", is("John")));
     }
 
+    @Test
+    public void streamPersons_shouldReturnOnePersonPerLine() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/persons")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(23, lines.length);
+        assertEquals("John", new ObjectMapper().readTree(lines[0]).get("firstName").asText());
+    }
+
+    @Test
+    public void getPersonsPage_shouldReturnPagesFollowingTheCursor() throws Exception {
+        String firstPage = mockMvc.perform(get("/persons")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(20)))
+                .andExpect(jsonPath("$.items[0].lastName", is("Boyd")))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = new ObjectMapper().readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/persons")
+                        .param("limit", "20")
+                        .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()", is(3)))
+                .andExpect(jsonPath("$.items[2].lastName", is("Zemicks")))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void getPersonsPage_shouldReturnBadRequest_whenTheLimitIsTooHigh() throws Exception {
+        mockMvc.perform(get("/persons")
+                        .param("limit", "5000"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void getOnePerson_shouldReturnTheWantedPerson() throws Exception {
         mockMvc.perform(get("/person/Sophia/Zemicks"))
@@ -77,6 +123,35 @@ public class PersonControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()", is(23)));
     }
 
+    @Test
+    public void getCommunityEmail_shouldReturnTheEmailsWithTheirPlan_whenExplainIsTrue() throws Exception {
+        mockMvc.perform(get("/communityEmail")
+                        .param("city", "Culver")
+                        .param("explain", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result.length()", is(23)))
+                .andExpect(jsonPath("$.explain.accesses[0].entity", is("persons")))
+                .andExpect(jsonPath("$.explain.accesses[0].lookup", is("findPersonsByCity")))
+                .andExpect(jsonPath("$.explain.accesses[0].access", is("scan")))
+                .andExpect(jsonPath("$.explain.accesses[0].touched", is(23)))
+                .andExpect(jsonPath("$.explain.stages[*].stage", hasItems("repositoryLookup", "dtoBuilding")));
+    }
+
+    @Test
+    public void streamCommunityEmail_shouldReturnOneEmailPerLine() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get("/communityEmail")
+                        .param("city", "Culver")
+                        .accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(23, lines.length);
+        assertEquals("\"jaboyd@email.com\"", lines[0]);
+    }
+
     @Test
     public void addOnePerson_shouldCreatedStatusAndTheCreatedPerson() throws Exception {
         String newPerson = """
@@ -98,6 +173,67 @@ public class PersonControllerIntegrationTest {
                 .andExpect(header().exists("Location"));
     }
 
+    @Test
+    public void importPersons_shouldCreateValidPersonsAndReportRejectedOnes() throws Exception {
+        String newPersons = """
+            {"firstName": "Alice", "lastName": "Wonderland", "address": "123 Wonderland Street", "city": "Wonderland", "zip": "12345", "phone": "123-456-7890", "email": "alice@wonderland.com"}
+            {"firstName": "John", "lastName": "Boyd", "address": "1509 Culver St", "city": "Culver", "zip": "97451", "phone": "841-874-6512", "email": "jaboyd@email.com"}
+            {"firstName": "", "lastName": "Nobody"}
+            {"firstName": "Alice", "lastName": "Wonderland", "address": "Elsewhere"}
+            {"firstName": "Mad", "lastName": "Hatter", "address": "123 Wonderland Street", "city": "Wonderland", "zip": "12345", "phone": "123-456-7891", "email": "hatter@wonderland.com"}
+        """;
+
+        mockMvc.perform(post("/persons/bulk")
+                .contentType("application/x-ndjson")
+                .content(newPersons))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(2)))
+                .andExpect(jsonPath("$.rejectedCount", is(3)))
+                .andExpect(jsonPath("$.results[1].status", is("DUPLICATE")))
+                .andExpect(jsonPath("$.results[2].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[3].status", is("DUPLICATE")));
+
+        mockMvc.perform(get("/persons"))
+                .andExpect(jsonPath("$.length()", is(25)));
+    }
+
+    @Test
+    public void importPersons_shouldReportNullItemsAsInvalid() throws Exception {
+        mockMvc.perform(post("/persons/bulk")
+                .contentType("application/json")
+                .content("[null, {\"firstName\": \"Alice\", \"lastName\": \"Wonderland\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(1)))
+                .andExpect(jsonPath("$.rejectedCount", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[1].status", is("CREATED")));
+    }
+
+    @Test
+    public void importPersons_shouldReportUnreadableItemsAsInvalid_andImportTheOthers() throws Exception {
+        mockMvc.perform(post("/persons/bulk")
+                .contentType("application/json")
+                .content("[{\"firstName\": \"Alice\", \"lastName\": \"Wonderland\", \"phone\": {\"home\": \"841-874-6512\"}},"
+                        + " {\"firstName\": \"Bob\", \"lastName\": \"Wonderland\"}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(1)))
+                .andExpect(jsonPath("$.rejectedCount", is(1)))
+                .andExpect(jsonPath("$.results[0].status", is("INVALID")))
+                .andExpect(jsonPath("$.results[0].message", startsWith("Invalid person")))
+                .andExpect(jsonPath("$.results[1].status", is("CREATED")));
+    }
+
+    @Test
+    public void importPersons_shouldReturnBadRequestAndImportNobody_whenTheJsonIsInvalid() throws Exception {
+        mockMvc.perform(post("/persons/bulk")
+                .contentType("application/json")
+                .content("[{\"firstName\": \"Alice\", \"lastName\": \"Wonderland\"}, {\"firstName\": "))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/persons"))
+                .andExpect(jsonPath("$.length()", is(23)));
+    }
+
     @Test
     public void updateOnePerson_shouldUpdateExistingPerson() throws Exception {
         String updatedPersonJson = """
@@ -0,0 +1,94 @@
+package com.safetynet.alerts.controller;
+
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ResidentControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @AfterEach
+    public void restoreOriginalData() throws IOException {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        personRepository.createListPersons();
+        medicalRecordRepository.createListMedicalRecords();
+    }
+
+    @Test
+    public void deleteResident_shouldDeletePersonAndMedicalRecord() throws Exception {
+        mockMvc.perform(delete("/resident")
+                        .param("first_name", "John")
+                        .param("last_name", "Boyd"))
+                .andExpect(status().isOk());
+
+        assertNull(personRepository.findPersonByFullName("John", "Boyd"));
+        assertNull(medicalRecordRepository.findMedicalRecordsByFullName("John", "Boyd"));
+        mockMvc.perform(get("/persons"))
+                .andExpect(jsonPath("$.length()", is(22)));
+        mockMvc.perform(get("/medicalrecords"))
+                .andExpect(jsonPath("$.length()", is(22)));
+    }
+
+    @Test
+    public void deleteResident_shouldReturnNotFound_whenResidentDoesNotExist() throws Exception {
+        mockMvc.perform(delete("/resident")
+                        .param("first_name", "Anne")
+                        .param("last_name", "Shirley"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void deleteResidents_shouldDeleteEveryFoundResidentAndReportTheOthers() throws Exception {
+        String fullNames = """
+            [
+                {"firstName": "John", "lastName": "Boyd"},
+                {"firstName": "Jacob", "lastName": "Boyd"},
+                {"firstName": "Anne", "lastName": "Shirley"},
+                {"firstName": "John", "lastName": "Boyd"}
+            ]
+        """;
+
+        mockMvc.perform(delete("/residents")
+                        .contentType("application/json")
+                        .content(fullNames))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedCount", is(2)))
+                .andExpect(jsonPath("$.rejectedCount", is(2)))
+                .andExpect(jsonPath("$.results[1].status", is("DELETED")))
+                .andExpect(jsonPath("$.results[2].status", is("NOT_FOUND")))
+                .andExpect(jsonPath("$.results[3].status", is("DUPLICATE")));
+
+        mockMvc.perform(get("/persons"))
+                .andExpect(jsonPath("$.length()", is(21)));
+        mockMvc.perform(get("/medicalrecords"))
+                .andExpect(jsonPath("$.length()", is(21)));
+    }
+}
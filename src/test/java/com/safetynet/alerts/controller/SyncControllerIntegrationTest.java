@@ -0,0 +1,82 @@
+package com.safetynet.alerts.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class SyncControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @AfterEach
+    public void restoreOriginalData() throws IOException {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        personRepository.createListPersons();
+        medicalRecordRepository.createListMedicalRecords();
+    }
+
+    @Test
+    public void sync_shouldReturnTheWholeDataset_whenNoVersionIsGiven() throws Exception {
+        mockMvc.perform(get("/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full", is(true)))
+                .andExpect(jsonPath("$.persons.length()", is(23)))
+                .andExpect(jsonPath("$.fireStations.length()", is(11)))
+                .andExpect(jsonPath("$.medicalRecords.length()", is(23)));
+    }
+
+    @Test
+    public void sync_shouldOnlyReturnTheChangesAfterTheGivenVersion() throws Exception {
+        String fullSync = mockMvc.perform(get("/sync"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode version = new ObjectMapper().readTree(fullSync).get("version");
+
+        mockMvc.perform(delete("/person")
+                        .param("first_name", "John")
+                        .param("last_name", "Boyd"))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/medicalrecord")
+                        .contentType("application/json")
+                        .content("{\"firstName\": \"Jacob\", \"lastName\": \"Boyd\", \"birthdate\": \"03/06/1989\", \"medications\": [], \"allergies\": [\"dust\"]}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/sync")
+                        .param("since", version.asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.full", is(false)))
+                .andExpect(jsonPath("$.version", is(version.asInt() + 2)))
+                .andExpect(jsonPath("$.deletedPersons[0]", is("John Boyd")))
+                .andExpect(jsonPath("$.medicalRecords.length()", is(1)))
+                .andExpect(jsonPath("$.medicalRecords[0].allergies[0]", is("dust")))
+                .andExpect(jsonPath("$.persons").doesNotExist())
+                .andExpect(jsonPath("$.fireStations").doesNotExist());
+    }
+}
@@ -0,0 +1,69 @@
+package com.safetynet.alerts.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTraceTest {
+
+    @Test
+    void finish_shouldCountOnlyTheOwnTimeOfEachStage_whenStagesAreNested() throws InterruptedException {
+        // Arrange
+        RequestTrace trace = RequestTrace.start();
+
+        // Act
+        try (RequestTrace.Span building = RequestTrace.enter(RequestTrace.DTO_BUILDING)) {
+            for (int i = 0; i < 2; i++) {
+                try (RequestTrace.Span lookup = RequestTrace.enter(RequestTrace.REPOSITORY_LOOKUP)) {
+                    Thread.sleep(20);
+                }
+            }
+        }
+        long total = trace.finish();
+
+        // Assert
+        Map<String, RequestTrace.StageTime> stages = trace.getStages();
+        assertEquals(2, stages.get(RequestTrace.REPOSITORY_LOOKUP).getCalls());
+        assertTrue(stages.get(RequestTrace.REPOSITORY_LOOKUP).getNanos() >= 40_000_000);
+        assertEquals(1, stages.get(RequestTrace.DTO_BUILDING).getCalls());
+        assertTrue(stages.get(RequestTrace.DTO_BUILDING).getNanos() < stages.get(RequestTrace.REPOSITORY_LOOKUP).getNanos());
+        assertEquals(total, stages.values().stream().mapToLong(RequestTrace.StageTime::getNanos).sum());
+    }
+
+    @Test
+    void finish_shouldCloseTheStagesLeftOpen() {
+        // Arrange
+        RequestTrace trace = RequestTrace.start();
+        RequestTrace.enter(RequestTrace.DTO_BUILDING);
+        RequestTrace.enter(RequestTrace.SERIALIZATION);
+
+        // Act
+        trace.finish();
+
+        // Assert
+        Map<String, RequestTrace.StageTime> stages = trace.getStages();
+        assertEquals(1, stages.get(RequestTrace.DTO_BUILDING).getCalls());
+        assertEquals(1, stages.get(RequestTrace.SERIALIZATION).getCalls());
+    }
+
+    @Test
+    void enter_shouldDoNothing_whenNoRequestIsTraced() {
+        // Act
+        RequestTrace.Span span = RequestTrace.enter(RequestTrace.AGE_COMPUTATION);
+
+        // Assert
+        assertDoesNotThrow(span::close);
+    }
+
+    @Test
+    void getStages_shouldThrowIllegalStateException_whenTheTraceIsNotFinished() {
+        // Arrange
+        RequestTrace trace = RequestTrace.start();
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, trace::getStages);
+        trace.finish();
+    }
+}
@@ -0,0 +1,57 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChangeLogTest {
+
+    private ChangeLog changeLog;
+
+    @BeforeEach
+    void setUp() {
+        changeLog = new ChangeLog(3);
+    }
+
+    @Test
+    void subscribe_shouldReplayTheEventsAfterTheSequenceThenForwardNewOnes() {
+        // Arrange
+        changeLog.record("persons", ChangeType.CREATED, "Anne Shirley", null);
+        changeLog.record("persons", ChangeType.UPDATED, "Anne Shirley", null);
+        List<ChangeEvent> received = new ArrayList<>();
+
+        // Act
+        boolean replayed = changeLog.subscribe(1, received::add);
+        changeLog.record("firestations", ChangeType.DELETED, "Green Gables", null);
+
+        // Assert
+        assertTrue(replayed);
+        assertEquals(2, received.size());
+        assertEquals(2, received.get(0).getSequence());
+        assertEquals("firestations", received.get(1).getEntity());
+        assertEquals(3, changeLog.getSequence());
+    }
+
+    @Test
+    void subscribe_shouldNotReplay_whenTheEventsHaveLeftTheRing() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            changeLog.record("persons", ChangeType.UPDATED, "Anne Shirley", null);
+        }
+        List<ChangeEvent> received = new ArrayList<>();
+
+        // Act
+        boolean replayed = changeLog.subscribe(1, received::add);
+
+        // Assert
+        assertFalse(replayed);
+        assertTrue(received.isEmpty());
+        assertTrue(changeLog.subscribe(2, event -> {}));
+    }
+}
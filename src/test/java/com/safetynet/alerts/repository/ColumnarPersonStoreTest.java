@@ -0,0 +1,167 @@
+package com.safetynet.alerts.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.model.Person;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ColumnarPersonStoreTest {
+
+    private PersonRepository objectRepository;
+    private PersonRepository columnarRepository;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        DataRepository dataRepositoryMock = mock(DataRepository.class);
+        JsonNode jsonNode = new ObjectMapper().readTree(new File("./src/test/resources/dataTest.json"));
+        doReturn(jsonNode).when(dataRepositoryMock).getData();
+
+        objectRepository = new PersonRepository(dataRepositoryMock, new ChangeLog(), new SimpleMeterRegistry(), new StringDictionary(),
+                PersonRepository.OBJECT_LAYOUT);
+        columnarRepository = new PersonRepository(dataRepositoryMock, new ChangeLog(), new SimpleMeterRegistry(), new StringDictionary(),
+                PersonRepository.COLUMNAR_LAYOUT);
+        objectRepository.createListPersons(jsonNode);
+        columnarRepository.createListPersons(jsonNode);
+    }
+
+    private static List<String> fullNames(List<Person> persons) {
+        return persons.stream().map(person -> person.getFirstName() + " " + person.getLastName()).toList();
+    }
+
+    @Test
+    void columnarLayout_shouldFindTheSamePersons_asTheObjectLayout() {
+        // Assert
+        assertEquals(fullNames(objectRepository.findPersonByAddress("Green Gables")), fullNames(columnarRepository.findPersonByAddress("Green Gables")));
+        assertEquals(fullNames(objectRepository.findPersonsByCity("Avonlea")), fullNames(columnarRepository.findPersonsByCity("Avonlea")));
+        assertEquals(fullNames(objectRepository.findPersonsByLastName("Barry")), fullNames(columnarRepository.findPersonsByLastName("Barry")));
+        assertEquals(fullNames(objectRepository.streamPersonsByCity("Charlottetown").toList()),
+                fullNames(columnarRepository.streamPersonsByCity("Charlottetown").toList()));
+        assertSame(columnarRepository.findAll().get(3), columnarRepository.findPersonByFullName("Matthew", "Cuthbert"));
+        assertEquals(List.of("Anne Shirley", "Marilla Cuthbert", "Matthew Cuthbert"), fullNames(columnarRepository.findPersonByAddress("Green Gables")));
+    }
+
+    @Test
+    void columnarLayout_shouldFindNobody_whenTheValueIsUnknown() {
+        // Assert
+        assertTrue(columnarRepository.findPersonByAddress("Windy Poplars").isEmpty());
+        assertTrue(columnarRepository.findPersonsByCity("Kingsport").isEmpty());
+        assertEquals(0, columnarRepository.streamPersonsByCity("Kingsport").count());
+        assertNull(columnarRepository.findPersonByFullName("Gilbert", "Blythe"));
+        assertNull(columnarRepository.findPersonByFullName("Gilbert", "Barry"));
+    }
+
+    @Test
+    void columnarLayout_shouldFollowTheChangesOfTheList() {
+        // Arrange
+        Person gilbert = new Person("Gilbert", "Blythe", "Green Gables", "Avonlea", "12345", "555-010-2030", "gilbert.blythe@avonlea.com");
+        Person movedDiana = new Person("Diana", "Barry", "Green Gables", "Avonlea", "12345", "0987654321", "diana.barry@avonlea.com");
+
+        // Act
+        columnarRepository.save(gilbert);
+        columnarRepository.update(movedDiana);
+        columnarRepository.delete(new Person("Anne", "Shirley", null, null, null, null, null));
+
+        // Assert
+        assertEquals(List.of("Diana Barry", "Marilla Cuthbert", "Matthew Cuthbert", "Gilbert Blythe"),
+                fullNames(columnarRepository.findPersonByAddress("Green Gables")));
+        assertTrue(columnarRepository.findPersonByAddress("Orchard Slope").isEmpty());
+        assertSame(gilbert, columnarRepository.findPersonByFullName("Gilbert", "Blythe"));
+    }
+
+    @Test
+    void columnarLayout_shouldFindTheSamePersons_asTheObjectLayout_afterManyChanges() {
+        // Arrange
+        for (int i = 0; i < 40; i++) {
+            Person person = new Person("Child" + i, "Barry", i % 2 == 0 ? "Orchard Slope" : "Green Gables", "Avonlea", "12345", "555-000-00" + (10 + i), "barry@avonlea.com");
+            objectRepository.save(person);
+            columnarRepository.save(new Person(person.getFirstName(), person.getLastName(), person.getAddress(), person.getCity(), person.getZip(), person.getPhone(), person.getEmail()));
+        }
+
+        // Act
+        for (int i = 0; i < 40; i += 3) {
+            Person moved = new Person("Child" + i, "Barry", "Windy Poplars", "Avonlea", "12345", "555-000-0000", "barry@avonlea.com");
+            objectRepository.update(moved);
+            columnarRepository.update(new Person(moved.getFirstName(), moved.getLastName(), moved.getAddress(), moved.getCity(), moved.getZip(), moved.getPhone(), moved.getEmail()));
+        }
+        for (int i = 1; i < 40; i += 2) {
+            objectRepository.delete(new Person("Child" + i, "Barry", null, null, null, null, null));
+            columnarRepository.delete(new Person("Child" + i, "Barry", null, null, null, null, null));
+        }
+
+        // Assert
+        for (String address : List.of("Orchard Slope", "Green Gables", "Windy Poplars")) {
+            assertEquals(fullNames(objectRepository.findPersonByAddress(address)), fullNames(columnarRepository.findPersonByAddress(address)));
+        }
+        assertEquals(fullNames(objectRepository.findPersonsByLastName("Barry")), fullNames(columnarRepository.findPersonsByLastName("Barry")));
+        assertEquals(objectRepository.findPhonesByCity("Avonlea"), columnarRepository.findPhonesByCity("Avonlea"));
+        assertNull(columnarRepository.findPersonByFullName("Child1", "Barry"));
+        assertEquals("Windy Poplars", columnarRepository.findPersonByFullName("Child0", "Barry").getAddress());
+    }
+
+    @Test
+    void findPersonByAddress_shouldOnlyGiveThePersonsOfTheAddress_whileTheyMove() throws Exception {
+        // Arrange
+        ColumnarPersonStore store = new ColumnarPersonStore(columnarRepository.findAll());
+        AtomicBoolean moving = new AtomicBoolean(true);
+        Thread mover = new Thread(() -> {
+            for (int i = 0; moving.get() && i < 100_000; i++) {
+                String address = i % 2 == 0 ? "Windy Poplars" : "Green Gables";
+                store.replace(new Person("Anne", "Shirley", address, "Avonlea", "12345", "0123456789", "anne.shirley@avonlea.com"));
+                store.appendAll(List.of(new Person("Child" + i, "Blythe", address, "Avonlea", "12345", "555-010-2030", "blythe@avonlea.com")));
+            }
+        });
+
+        // Act
+        mover.start();
+        try {
+            for (int i = 0; i < 2000; i++) {
+                for (Person person : store.findByAddress("Windy Poplars")) {
+                    // Assert
+                    assertEquals("Windy Poplars", person.getAddress());
+                }
+            }
+        } finally {
+            moving.set(false);
+            mover.join();
+        }
+    }
+
+    @Test
+    void findPhonesByCity_shouldGiveTheDistinctPhonesOfTheCity_inListOrder() {
+        // Act
+        List<String> avonleaPhones = columnarRepository.findPhonesByCity("Avonlea");
+
+        // Assert
+        assertEquals(List.of("0123456789", "0987654321"), avonleaPhones);
+        assertEquals(objectRepository.findPhonesByCity("Avonlea"), avonleaPhones);
+        assertEquals(List.of("135798642"), columnarRepository.findPhonesByCity("Charlottetown"));
+        assertTrue(columnarRepository.findPhonesByCity("Kingsport").isEmpty());
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException_whenTheLayoutIsUnknown() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new PersonRepository(mock(DataRepository.class), new ChangeLog(),
+                new SimpleMeterRegistry(), new StringDictionary(), "rows"));
+    }
+
+    @Test
+    void packPhone_shouldKeepTheTenDigits_only() {
+        // Act & Assert
+        assertEquals(8418746512L, Person.packPhone("841-874-6512"));
+        assertEquals(123456789L, Person.packPhone("0123456789"));
+        assertEquals(Person.UNPACKED_PHONE, Person.packPhone("135798642"));
+        assertEquals(Person.UNPACKED_PHONE, Person.packPhone("+1 841-874-6512"));
+        assertEquals(Person.UNPACKED_PHONE, Person.packPhone(null));
+    }
+}
@@ -6,14 +6,26 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.safetynet.alerts.model.FireStation;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +33,9 @@ class DataRepositoryTest {
 
     private DataRepository dataRepository;
 
+    @TempDir
+    private Path temporaryDirectory;
+
     @BeforeEach
     void setUp() {
         dataRepository = new DataRepository("./src/test/resources/dataTest.json");
@@ -53,6 +68,36 @@ class DataRepositoryTest {
         assertEquals("Josephine", medicalRecordsNode.get(4).get("firstName").asText());
     }
 
+    @Test
+    void getData_shouldRecordFlightRecorderEvents_whenTheAlertsProfileIsRecording() throws Exception {
+        // Arrange
+        Path recordingFile = temporaryDirectory.resolve("alerts.jfr");
+        PersonRepository personRepository = new PersonRepository(dataRepository);
+
+        // Act
+        try (Recording recording = new Recording(Configuration.create(Paths.get("./src/main/resources/jfr/alerts.jfc")))) {
+            recording.start();
+            dataRepository.getData();
+            personRepository.findPersonByFullName("Diana", "Barry");
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        RecordedEvent read = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.safetynet.alerts.DataFile"))
+                .findFirst().orElseThrow();
+        assertEquals("read", read.getString("operation"));
+        assertEquals(Files.size(Paths.get("./src/test/resources/dataTest.json")), read.getLong("bytes"));
+        RecordedEvent lookup = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.safetynet.alerts.RepositoryLookup"))
+                .findFirst().orElseThrow();
+        assertEquals("findPersonByFullName", lookup.getString("lookup"));
+        assertEquals("Diana Barry", lookup.getString("key"));
+        assertEquals(2, lookup.getInt("scanned"));
+    }
+
     @Test
     void writeData_shouldWriteCorrectDataToFile() {
         // Arrange
@@ -77,4 +122,66 @@ class DataRepositoryTest {
         assertEquals("2", updatedFireStations.get(1).get("station").asText());
     }
 
-}
\ No newline at end of file
+    @Test
+    void writeSections_shouldKeepEverySection_whenSectionsAreWrittenConcurrently() throws Exception {
+        // Arrange
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> writes = new ArrayList<>();
+
+        // Act
+        for (int section = 0; section < 20; section++) {
+            String name = "section" + section;
+            writes.add(executor.submit(() -> dataRepository.writeSections(Map.of(name, List.of(name)))));
+        }
+        for (Future<?> write : writes) {
+            write.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        JsonNode writtenData = dataRepository.getData();
+        for (int section = 0; section < 20; section++) {
+            assertEquals("section" + section, writtenData.get("section" + section).get(0).asText());
+        }
+        assertEquals(5, writtenData.get("persons").size());
+        assertTrue(dataRepository.isSnapshotCurrent());
+    }
+
+    @Test
+    void isSnapshotCurrent_shouldBeFalse_whenTheFileIsModifiedOutsideTheApplication() throws IOException {
+        // Arrange
+        dataRepository.writeData(dataRepository.getData());
+        assertTrue(dataRepository.isSnapshotCurrent());
+
+        // Act
+        Files.copy(Paths.get("./src/test/resources/originalDataTest.json"),
+                Paths.get("./src/test/resources/dataTest.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        // Assert
+        assertFalse(dataRepository.isSnapshotCurrent());
+        assertNull(dataRepository.openSnapshot());
+    }
+
+    @Test
+    void openSnapshot_shouldKeepTheOpenedVersion_andTagEachWriteApart() throws IOException {
+        // Arrange
+        JsonNode data = dataRepository.getData();
+        dataRepository.writeData(data);
+        byte[] firstVersion = Files.readAllBytes(Paths.get("./src/test/resources/dataTest.json"));
+
+        // Act
+        try (DataSnapshot snapshot = dataRepository.openSnapshot()) {
+            ((ObjectNode) data).putArray("persons");
+            dataRepository.writeData(data);
+            ByteBuffer content = ByteBuffer.allocate((int) snapshot.getSize());
+            snapshot.getChannel().read(content, 0);
+
+            // Assert
+            assertArrayEquals(firstVersion, content.array());
+            try (DataSnapshot newSnapshot = dataRepository.openSnapshot()) {
+                assertNotEquals(snapshot.getTag(), newSnapshot.getTag());
+            }
+        }
+    }
+}
@@ -108,5 +108,43 @@ public class FireStationRepositoryTest {
         assertEquals("3", fireStations.getFirst().getStation());
     }
 
+    @Test
+    void getCoveredAddresses_shouldFollowTheChangesOfTheStations() {
+        // Act
+        repository.save(new FireStation("Windy Poplars", "2"));
+        repository.update(new FireStation("Green Gables", "2"));
+        repository.delete("Big House");
+
+        // Assert
+        assertEquals(List.of("Orchard Slope"), repository.getCoveredAddresses("1"));
+        assertEquals(List.of("Green Gables", "Windy Poplars"), repository.getCoveredAddresses("2"));
+        assertTrue(repository.getCoveredAddresses("3").isEmpty());
+    }
+
+    @Test
+    void getCoveredAddresses_shouldCompareTheStationsAsStrings_whenTheyAreNotNumbers() {
+        // Act
+        repository.save(new FireStation("Windy Poplars", "02"));
+        repository.save(new FireStation("Patty's Place", "B"));
+
+        // Assert
+        assertEquals(List.of("Windy Poplars"), repository.getCoveredAddresses("02"));
+        assertEquals(List.of("Patty's Place"), repository.getCoveredAddresses("B"));
+        assertFalse(repository.getCoveredAddresses("2").contains("Windy Poplars"));
+    }
+
+    @Test
+    void parseStation_shouldReadTheNumbersWrittenWithDigitsOnly() {
+        // Act & Assert
+        assertEquals(3, FireStation.parseStation("3"));
+        assertEquals(0, FireStation.parseStation("0"));
+        assertEquals(123456789, FireStation.parseStation("123456789"));
+        assertEquals(FireStation.UNNUMBERED_STATION, FireStation.parseStation("03"));
+        assertEquals(FireStation.UNNUMBERED_STATION, FireStation.parseStation("B"));
+        assertEquals(FireStation.UNNUMBERED_STATION, FireStation.parseStation(""));
+        assertEquals(FireStation.UNNUMBERED_STATION, FireStation.parseStation(null));
+        assertEquals(FireStation.UNNUMBERED_STATION, FireStation.parseStation("9999999999"));
+    }
+
 
 }
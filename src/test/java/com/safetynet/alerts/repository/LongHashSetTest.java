@@ -0,0 +1,50 @@
+package com.safetynet.alerts.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashSetTest {
+
+    @Test
+    void add_shouldKeepEachValueOnce() {
+        // Arrange
+        LongHashSet set = new LongHashSet(4);
+
+        // Act & Assert
+        assertTrue(set.add(8418746512L));
+        assertFalse(set.add(8418746512L));
+        assertTrue(set.add(0));
+        assertTrue(set.add(-1));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertFalse(set.contains(8418746513L));
+    }
+
+    @Test
+    void add_shouldGrowTheTable_beyondTheExpectedSize() {
+        // Arrange
+        LongHashSet set = new LongHashSet(2);
+
+        // Act
+        for (long value = 0; value < 10_000; value++) {
+            set.add(value * 1_000_003);
+        }
+
+        // Assert
+        assertEquals(10_000, set.size());
+        for (long value = 0; value < 10_000; value++) {
+            assertTrue(set.contains(value * 1_000_003));
+        }
+        assertFalse(set.add(9_999 * 1_000_003L));
+    }
+
+    @Test
+    void add_shouldThrowException_forTheEmptySlotMarker() {
+        // Arrange
+        LongHashSet set = new LongHashSet(2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> set.add(Long.MIN_VALUE));
+    }
+}
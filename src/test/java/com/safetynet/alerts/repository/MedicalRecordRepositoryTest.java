@@ -18,10 +18,11 @@ import static org.mockito.Mockito.*;
 public class MedicalRecordRepositoryTest {
 
     private MedicalRecordRepository repository;
+    private DataRepository dataRepositoryMock;
 
     @BeforeEach
     public void setUp() throws IOException {
-        DataRepository dataRepositoryMock = mock(DataRepository.class);
+        dataRepositoryMock = mock(DataRepository.class);
 
         ObjectMapper objectMapper = new ObjectMapper();
         File jsonFile = new File("./src/test/resources/dataTest.json");
@@ -105,4 +106,22 @@ public class MedicalRecordRepositoryTest {
         assertEquals(5, repository.medicalRecords.size());
         assertEquals("01/02/2000", repository.medicalRecords.getFirst().getBirthdate());
     }
-}
\ No newline at end of file
+
+    @Test
+    void upsertAll_shouldUpdateExistingMedicalRecordsAndAddNewOnes() {
+        // Arrange
+        MedicalRecord updatedMedicalRecord = new MedicalRecord("Anne", "Shirley", "01/02/2000", new ArrayList<>(List.of("")), new ArrayList<>(List.of("")));
+        MedicalRecord newMedicalRecord = new MedicalRecord("Gilbert", "Blythe", "05/09/2010", new ArrayList<>(List.of("")), new ArrayList<>(List.of("")));
+        clearInvocations(dataRepositoryMock);
+
+        // Act
+        int createdCount = repository.upsertAll(List.of(updatedMedicalRecord, newMedicalRecord));
+
+        // Assert
+        assertEquals(1, createdCount);
+        assertEquals(6, repository.medicalRecords.size());
+        assertEquals("01/02/2000", repository.medicalRecords.getFirst().getBirthdate());
+        assertSame(newMedicalRecord, repository.findByIndexKey(MedicalRecordRepository.indexKey(newMedicalRecord)));
+        verify(dataRepositoryMock, times(1)).writeSections(anyMap());
+    }
+}
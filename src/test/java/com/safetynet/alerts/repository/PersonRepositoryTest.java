@@ -7,8 +7,10 @@ import com.safetynet.alerts.model.Person;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -136,4 +138,69 @@ public class PersonRepositoryTest {
         assertEquals("Patty's House", repository.persons.getFirst().getAddress());
         assertEquals("Redmond", repository.persons.getFirst().getCity());
     }
+
+    @Test
+    void writeAllAsJson_shouldWriteUpdatedPersonsAsJsonArray() throws IOException {
+        // Arrange
+        Person updatedPerson = new Person("Anne", "Shirley", "Patty's House", "Redmond", "74185", "0123456789", "anne.shirley@avonlea.com");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        repository.writeAllAsJson(new ByteArrayOutputStream());
+        repository.update(updatedPerson);
+
+        // Act
+        int count = repository.writeAllAsJson(outputStream);
+
+        // Assert
+        JsonNode writtenPersons = new ObjectMapper().readTree(outputStream.toString(StandardCharsets.UTF_8));
+        assertEquals(5, count);
+        assertEquals(5, writtenPersons.size());
+        assertEquals("Patty's House", writtenPersons.get(0).get("address").asText());
+        assertEquals("Diana", writtenPersons.get(1).get("firstName").asText());
+    }
+
+    @Test
+    void writeAllAsJson_shouldKeepPersonsApart_whenTheirNamesJoinToTheSameFullName() throws IOException {
+        // Arrange
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        repository.save(new Person("Mary Ann", "Smith", "Green Gables", "Avonlea", "12345", "0123456789", "mary.ann@avonlea.com"));
+        repository.save(new Person("Mary", "Ann Smith", "Orchard Slope", "Avonlea", "12345", "0987654321", "mary@avonlea.com"));
+
+        // Act
+        repository.writeAllAsJson(outputStream);
+
+        // Assert
+        JsonNode writtenPersons = new ObjectMapper().readTree(outputStream.toString(StandardCharsets.UTF_8));
+        assertEquals("Mary Ann", writtenPersons.get(5).get("firstName").asText());
+        assertEquals("Mary", writtenPersons.get(6).get("firstName").asText());
+        assertEquals("Orchard Slope", writtenPersons.get(6).get("address").asText());
+    }
+
+    @Test
+    void findPersonsPage_shouldReturnPersonsOrderedByFullNameAfterTheGivenKey() {
+        // Act
+        List<Person> firstPage = repository.findPersonsPage(null, 2);
+        List<Person> secondPage = repository.findPersonsPage(PersonRepository.indexKey(firstPage.getLast()), 2);
+
+        // Assert
+        assertEquals(2, firstPage.size());
+        assertEquals("Diana", firstPage.get(0).getFirstName());
+        assertEquals("Josephine", firstPage.get(1).getFirstName());
+        assertEquals("Marilla", secondPage.get(0).getFirstName());
+        assertEquals("Matthew", secondPage.get(1).getFirstName());
+    }
+
+    @Test
+    void saveAll_shouldAddEveryPersonToRepository() {
+        // Arrange
+        Person gilbert = new Person("Gilbert", "Blythe", "Old Farm", "Avonlea", "12345", "1598476321", "gilbert.blythe@avonlea.com");
+        Person ruby = new Person("Ruby", "Gillis", "Gillis House", "Avonlea", "12345", "1598476322", "ruby.gillis@avonlea.com");
+
+        // Act
+        repository.saveAll(List.of(gilbert, ruby));
+
+        // Assert
+        assertEquals(7, repository.persons.size());
+        assertTrue(repository.persons.contains(ruby));
+        assertTrue(repository.existsByIndexKey(PersonRepository.indexKey("Gilbert", "Blythe")));
+    }
 }
@@ -0,0 +1,116 @@
+package com.safetynet.alerts.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringDictionaryTest {
+
+    @Test
+    void canonical_shouldReturnTheFirstInstance_forEqualValues() {
+        // Arrange
+        StringDictionary dictionary = new StringDictionary();
+        String first = new String("1509 Culver St");
+        String second = new String("1509 Culver St");
+
+        // Act
+        String canonicalFirst = dictionary.canonical(first);
+        String canonicalSecond = dictionary.canonical(second);
+
+        // Assert
+        assertSame(first, canonicalFirst);
+        assertSame(first, canonicalSecond);
+        assertEquals(1, dictionary.size());
+        assertEquals(1, dictionary.getHits());
+        assertEquals(1, dictionary.getMisses());
+        assertNull(dictionary.canonical((String) null));
+    }
+
+    @Test
+    void canonical_shouldShareTheValuesOfAList() {
+        // Arrange
+        StringDictionary dictionary = new StringDictionary();
+        String medication = dictionary.canonical(new String("aznol:350mg"));
+
+        // Act
+        ArrayList<String> medications = dictionary.canonical(List.of(new String("aznol:350mg"), "hydrapermazol:100mg"));
+
+        // Assert
+        assertSame(medication, medications.get(0));
+        assertEquals("hydrapermazol:100mg", medications.get(1));
+        assertNull(dictionary.canonical((List<String>) null));
+    }
+
+    @Test
+    void canonical_shouldGiveOneInstancePerValue_toConcurrentThreads() throws Exception {
+        // Arrange
+        StringDictionary dictionary = new StringDictionary();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<List<String>>> results = new ArrayList<>();
+
+        // Act
+        for (int thread = 0; thread < 4; thread++) {
+            results.add(executor.submit(() -> {
+                List<String> canonicalValues = new ArrayList<>();
+                for (int value = 0; value < 1000; value++) {
+                    canonicalValues.add(dictionary.canonical(new String("Street " + value)));
+                }
+                return canonicalValues;
+            }));
+        }
+        List<String> first = results.get(0).get();
+        executor.shutdown();
+
+        // Assert
+        for (Future<List<String>> result : results) {
+            List<String> canonicalValues = result.get();
+            for (int value = 0; value < 1000; value++) {
+                assertSame(first.get(value), canonicalValues.get(value));
+            }
+        }
+        assertEquals(1000, dictionary.size());
+        assertEquals(1000, dictionary.getMisses());
+        assertEquals(3000, dictionary.getHits());
+    }
+
+    @Test
+    void canonical_shouldKeepTheValue_whenTheDictionaryIsDisabled() {
+        // Arrange
+        StringDictionary dictionary = new StringDictionary(false, new SimpleMeterRegistry());
+        dictionary.canonical(new String("Culver"));
+        String value = new String("Culver");
+
+        // Act & Assert
+        assertSame(value, dictionary.canonical(value));
+        assertEquals(0, dictionary.size());
+    }
+
+    @Test
+    void repositories_shouldShareTheAddresses_ofThePersonsAndTheFireStations() {
+        // Arrange
+        DataRepository dataRepository = new DataRepository("./src/test/resources/dataTest.json");
+        StringDictionary dictionary = new StringDictionary();
+        ChangeLog changeLog = new ChangeLog();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PersonRepository personRepository = new PersonRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        FireStationRepository fireStationRepository = new FireStationRepository(dataRepository, changeLog, meterRegistry, dictionary);
+
+        // Act
+        personRepository.createListPersons(dataRepository.getData());
+        fireStationRepository.createListFireStations(dataRepository.getData());
+
+        // Assert
+        String address = personRepository.findAll().get(0).getAddress();
+        assertSame(address, fireStationRepository.getFireStationByAddress(address).getAddress());
+        personRepository.findAll().stream()
+                .filter(person -> person.getAddress().equals(address))
+                .forEach(person -> assertSame(address, person.getAddress()));
+    }
+}
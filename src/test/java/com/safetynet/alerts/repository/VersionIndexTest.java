@@ -0,0 +1,84 @@
+package com.safetynet.alerts.repository;
+
+import com.safetynet.alerts.model.ChangeEvent;
+import com.safetynet.alerts.model.ChangeType;
+import com.safetynet.alerts.model.Person;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionIndexTest {
+
+    private VersionIndex versions;
+
+    @BeforeEach
+    void setUp() {
+        versions = new VersionIndex("persons", 3);
+    }
+
+    @Test
+    void findChangesAfter_shouldOnlyKeepTheLastChangeOfEachEntity() {
+        // Arrange
+        Person anne = new Person("Anne", "Shirley", "Green Gables", "Avonlea", "12345", "0123456789", "anne.shirley@avonlea.com");
+        versions.accept(new ChangeEvent(1, "persons", ChangeType.CREATED, "Anne Shirley", anne));
+        versions.accept(new ChangeEvent(2, "persons", ChangeType.CREATED, "Diana Barry", new Person()));
+        versions.accept(new ChangeEvent(3, "firestations", ChangeType.DELETED, "Green Gables", null));
+        versions.accept(new ChangeEvent(4, "persons", ChangeType.DELETED, "Diana Barry", null));
+
+        // Act
+        List<ChangeEvent> changes = versions.findChangesAfter(0);
+
+        // Assert
+        assertEquals(2, changes.size());
+        assertSame(anne, changes.get(0).getData());
+        assertEquals("Diana Barry", changes.get(1).getKey());
+        assertNull(changes.get(1).getData());
+        assertTrue(versions.findChangesAfter(4).isEmpty());
+    }
+
+    @Test
+    void accept_shouldKeepEntitiesApart_whenTheirFullNamesAreTheSame() {
+        // Arrange
+        versions.accept(new ChangeEvent(1, "persons", ChangeType.CREATED, "Mary Ann Smith", "Smith\u0000Mary Ann", new Person()));
+
+        // Act
+        versions.accept(new ChangeEvent(2, "persons", ChangeType.DELETED, "Mary Ann Smith", "Ann Smith\u0000Mary", null));
+
+        // Assert
+        assertEquals(2, versions.size());
+        assertEquals(2, versions.findChangesAfter(0).size());
+    }
+
+    @Test
+    void accept_shouldCompactTheOldestVersionsAndRaiseTheResetVersion_whenMoreVersionsThanRetainedAreIndexed() {
+        // Arrange
+        versions.accept(new ChangeEvent(1, "persons", ChangeType.DELETED, "Anne Shirley", null));
+        versions.accept(new ChangeEvent(2, "persons", ChangeType.DELETED, "Diana Barry", null));
+        versions.accept(new ChangeEvent(3, "persons", ChangeType.CREATED, "Ruby Gillis", new Person()));
+
+        // Act
+        versions.accept(new ChangeEvent(4, "persons", ChangeType.DELETED, "Gilbert Blythe", null));
+        versions.accept(new ChangeEvent(5, "persons", ChangeType.DELETED, "Josie Pye", null));
+
+        // Assert
+        assertEquals(3, versions.size());
+        assertEquals(2, versions.getResetVersion());
+        assertEquals("Ruby Gillis", versions.findChangesAfter(2).getFirst().getKey());
+    }
+
+    @Test
+    void accept_shouldClearTheVersions_whenTheListIsReloaded() {
+        // Arrange
+        versions.accept(new ChangeEvent(1, "persons", ChangeType.CREATED, "Anne Shirley", new Person()));
+
+        // Act
+        versions.accept(new ChangeEvent(2, "persons", ChangeType.RELOADED, null, null));
+
+        // Assert
+        assertEquals(0, versions.size());
+        assertEquals(2, versions.getResetVersion());
+    }
+}
@@ -0,0 +1,151 @@
+package com.safetynet.alerts.service;
+
+import ch.qos.logback.classic.Level;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.safetynet.alerts.diagnostics.RequestTrace;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import com.safetynet.alerts.repository.StringDictionary;
+import com.safetynet.alerts.tools.DataGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs each alert path of the FireStationService and the PersonService on a generated dataset, and checks that the
+ * bytes allocated and the entities touched per call stay under the budgets of allocation-budgets.properties.
+ * The allocations are measured once the path is warmed up, as an average over several calls.
+ */
+public class AllocationBudgetTest {
+
+    private static final int PERSONS = 1000;
+    private static final int WARMUP_CALLS = 500;
+    private static final int MEASURED_CALLS = 200;
+
+    @TempDir
+    static Path temporaryDirectory;
+
+    private static Properties budgets;
+    private static Level previousLevel;
+    private static FireStationService fireStationService;
+    private static PersonService personService;
+    private static Map<String, Runnable> alertPaths;
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        // The debug logs of the alert paths would be the largest allocations, and they are disabled in production.
+        ch.qos.logback.classic.Logger logger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.safetynet.alerts");
+        previousLevel = logger.getLevel();
+        logger.setLevel(Level.WARN);
+
+        budgets = new Properties();
+        try (InputStream inputStream = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(inputStream);
+        }
+
+        Path dataFile = temporaryDirectory.resolve("budget-data.json");
+        new DataGenerator(PERSONS, DataGenerator.DEFAULT_SEED).write(dataFile);
+        DataRepository dataRepository = new DataRepository(dataFile.toString());
+        ChangeLog changeLog = new ChangeLog();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StringDictionary dictionary = new StringDictionary();
+        PersonRepository personRepository = new PersonRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        FireStationRepository fireStationRepository = new FireStationRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        MedicalRecordRepository medicalRecordRepository = new MedicalRecordRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        JsonNode data = dataRepository.getData();
+        personRepository.createListPersons(data);
+        fireStationRepository.createListFireStations(data);
+        medicalRecordRepository.createListMedicalRecords(data);
+        MedicalRecordService medicalRecordService = new MedicalRecordService(medicalRecordRepository);
+        personService = new PersonService(personRepository, medicalRecordService);
+        fireStationService = new FireStationService(fireStationRepository, personService, medicalRecordService);
+
+        // The targets are taken in the middle of the lists, like the benchmarks.
+        Person target = personRepository.findAll().get(PERSONS / 2);
+        String station = fireStationRepository.getStationNumber(target.getAddress());
+        List<String> floodStations = fireStationRepository.findAll().stream().map(FireStation::getStation).distinct().limit(3).toList();
+        String childAddress = personRepository.findAll().stream().skip(PERSONS / 2)
+                .filter(person -> medicalRecordService.isChild(person.getFirstName(), person.getLastName()))
+                .findFirst().orElseThrow().getAddress();
+
+        alertPaths = Map.of(
+                "firestation", () -> fireStationService.createFireStationPersonsList(station),
+                "phoneAlert", () -> fireStationService.createPhoneList(station),
+                "fire", () -> fireStationService.createPersonsListInCaseOfFire(target.getAddress()),
+                "flood", () -> fireStationService.createFloodAlertList(floodStations),
+                "childAlert", () -> personService.createChildAlertList(childAddress),
+                "personInfo", () -> personService.getPersonsByLastName(target.getLastName()),
+                "communityEmail", () -> personService.getPersonsEmails(target.getCity()));
+    }
+
+    @AfterAll
+    static void restoreLogLevel() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.safetynet.alerts")).setLevel(previousLevel);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"firestation", "phoneAlert", "fire", "flood", "childAlert", "personInfo", "communityEmail"})
+    void alertPath_shouldStayUnderItsAllocationBudget(String alert) {
+        // Arrange
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "The JVM does not measure the allocations of a thread");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        Runnable alertPath = alertPaths.get(alert);
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            alertPath.run();
+        }
+
+        // Act
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            alertPath.run();
+        }
+        long bytesPerCall = (threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore) / MEASURED_CALLS;
+
+        // Assert
+        long bytesBudget = Long.parseLong(budgets.getProperty(alert + ".bytes"));
+        assertTrue(bytesPerCall <= bytesBudget,
+                alert + " allocates " + bytesPerCall + " bytes per call, over its budget of " + bytesBudget + " bytes");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"firestation", "phoneAlert", "fire", "flood", "childAlert", "personInfo", "communityEmail"})
+    void alertPath_shouldStayUnderItsScanBudget(String alert) {
+        // Arrange
+        RequestTrace trace = RequestTrace.start();
+        trace.explain();
+
+        // Act
+        try {
+            alertPaths.get(alert).run();
+        } finally {
+            trace.finish();
+        }
+        long touched = trace.getAccesses().stream().mapToLong(RequestTrace.AccessStats::getTouched).sum();
+
+        // Assert
+        long scannedBudget = Long.parseLong(budgets.getProperty(alert + ".scanned"));
+        assertTrue(touched <= scannedBudget,
+                alert + " touches " + touched + " entities per call, over its budget of " + scannedBudget + " entities");
+    }
+}
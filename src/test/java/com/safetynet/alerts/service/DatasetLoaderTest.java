@@ -0,0 +1,207 @@
+package com.safetynet.alerts.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.diagnostics.DatasetHealthIndicator;
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import com.safetynet.alerts.repository.StringDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DatasetLoaderTest {
+
+    @TempDir
+    private Path temporaryDirectory;
+
+    private Path dataFile;
+    private PersonRepository personRepository;
+    private FireStationRepository fireStationRepository;
+    private MedicalRecordRepository medicalRecordRepository;
+    private ApplicationContext applicationContext;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dataFile = temporaryDirectory.resolve("data.json");
+        Files.copy(Path.of("./src/test/resources/dataTest.json"), dataFile);
+        applicationContext = mock(ApplicationContext.class);
+    }
+
+    private DatasetLoader createLoader(Path file, boolean asyncLoad) {
+        return createLoader(file, asyncLoad, false);
+    }
+
+    private DatasetLoader createLoader(Path file, boolean asyncLoad, boolean warmUp) {
+        return createLoader(file, asyncLoad, warmUp, "");
+    }
+
+    private DatasetLoader createLoader(Path file, boolean asyncLoad, boolean warmUp, String contextExit) {
+        DataRepository dataRepository = new DataRepository(file.toString());
+        ChangeLog changeLog = new ChangeLog();
+        meterRegistry = new SimpleMeterRegistry();
+        StringDictionary dictionary = new StringDictionary();
+        personRepository = new PersonRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        fireStationRepository = new FireStationRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        medicalRecordRepository = new MedicalRecordRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        MedicalRecordService medicalRecordService = new MedicalRecordService(medicalRecordRepository);
+        PersonService personService = new PersonService(personRepository, medicalRecordService);
+        FireStationService fireStationService = new FireStationService(fireStationRepository, personService, medicalRecordService);
+        WarmUpService warmUpService = new WarmUpService(fireStationRepository, fireStationService, personService, new ObjectMapper(),
+                warmUp, 500, Duration.ofSeconds(30), WarmUpService.DEFAULT_MIX);
+        return new DatasetLoader(applicationContext, dataRepository, personRepository, fireStationRepository, medicalRecordRepository,
+                warmUpService, asyncLoad, contextExit);
+    }
+
+    private DatasetHealthIndicator createHealthIndicator(DatasetLoader loader) {
+        return new DatasetHealthIndicator(loader, personRepository, fireStationRepository, medicalRecordRepository);
+    }
+
+    @Test
+    void repositories_shouldStayEmpty_untilTheDatasetIsLoaded() {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, false);
+
+        // Act
+        Health health = createHealthIndicator(loader).health();
+
+        // Assert
+        assertEquals(DatasetLoader.State.LOADING, loader.getState());
+        assertEquals(Status.OUT_OF_SERVICE, health.getStatus());
+        assertEquals("loading", health.getDetails().get("state"));
+        assertTrue(personRepository.findAll().isEmpty());
+        assertTrue(fireStationRepository.findAll().isEmpty());
+        assertTrue(medicalRecordRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void load_shouldFillTheRepositories_andReportReady() {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, false);
+
+        // Act
+        loader.load();
+        Health health = createHealthIndicator(loader).health();
+
+        // Assert
+        assertEquals(DatasetLoader.State.READY, loader.getState());
+        assertNull(loader.getFailure());
+        assertTrue(loader.getLoadMillis() >= 0);
+        assertTrue(loader.getWarmUpCalls().isEmpty());
+        assertEquals(5, personRepository.findAll().size());
+        assertEquals(3, fireStationRepository.findAll().size());
+        assertEquals(5, medicalRecordRepository.findAll().size());
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(5, health.getDetails().get("persons"));
+        assertEquals(3, health.getDetails().get("firestations"));
+        assertEquals(5, health.getDetails().get("medicalrecords"));
+        assertNotNull(personRepository.findPersonByFullName("Anne", "Shirley"));
+    }
+
+    @Test
+    void load_shouldWarmUpTheAlerts_beforeReportingReady_whenTheWarmUpIsEnabled() throws IOException {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, false, true);
+
+        // Act
+        loader.load();
+        byte[] dataAfterLoad = Files.readAllBytes(dataFile);
+        Health health = createHealthIndicator(loader).health();
+
+        // Assert
+        assertEquals(DatasetLoader.State.READY, loader.getState());
+        assertEquals(500, loader.getWarmUpCalls().values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(Set.of("firestation", "phoneAlert", "fire", "childAlert", "flood"), loader.getWarmUpCalls().keySet());
+        assertEquals(loader.getWarmUpCalls(), health.getDetails().get("warmUpCalls"));
+        assertEquals(5, personRepository.findAll().size());
+        assertArrayEquals(dataAfterLoad, Files.readAllBytes(dataFile));
+        assertTrue(meterRegistry.find("alerts.repository.scanned").summaries().stream().allMatch(summary -> summary.count() == 0));
+    }
+
+    @Test
+    void load_shouldReportFailed_whenTheDataFileIsMissing() {
+        // Arrange
+        DatasetLoader loader = createLoader(temporaryDirectory.resolve("missing.json"), false);
+
+        // Act
+        loader.load();
+        Health health = createHealthIndicator(loader).health();
+
+        // Assert
+        assertEquals(DatasetLoader.State.FAILED, loader.getState());
+        assertNotNull(loader.getFailure());
+        assertEquals(Status.DOWN, health.getStatus());
+        assertTrue(personRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void onContextRefreshed_shouldLoadInTheBackground_whenAsync() throws Exception {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, true);
+
+        // Act
+        loader.onContextRefreshed(new ContextRefreshedEvent(applicationContext));
+        loader.whenReady().get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertEquals(DatasetLoader.State.READY, loader.getState());
+        assertEquals(5, personRepository.findAll().size());
+    }
+
+    @Test
+    void onContextRefreshed_shouldIgnoreTheEventsOfAnotherContext() {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, false);
+
+        // Act
+        loader.onContextRefreshed(new ContextRefreshedEvent(mock(ApplicationContext.class)));
+
+        // Assert
+        assertEquals(DatasetLoader.State.LOADING, loader.getState());
+        assertTrue(personRepository.findAll().isEmpty());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_shouldLoadBeforeTheRefresh_whenTheContextExitsOnRefresh() {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, true, false, DatasetLoader.EXIT_ON_REFRESH);
+
+        // Act
+        loader.afterSingletonsInstantiated();
+
+        // Assert
+        assertEquals(DatasetLoader.State.READY, loader.getState());
+        assertEquals(5, personRepository.findAll().size());
+    }
+
+    @Test
+    void afterSingletonsInstantiated_shouldWaitForTheRefresh_otherwise() {
+        // Arrange
+        DatasetLoader loader = createLoader(dataFile, false);
+
+        // Act
+        loader.afterSingletonsInstantiated();
+
+        // Assert
+        assertEquals(DatasetLoader.State.LOADING, loader.getState());
+        assertTrue(personRepository.findAll().isEmpty());
+    }
+}
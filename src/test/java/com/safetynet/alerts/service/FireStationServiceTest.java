@@ -12,7 +12,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -104,11 +103,31 @@ public class FireStationServiceTest {
         doReturn(coveredAddress).when(fireStationRepositoryMock).getCoveredAddresses("1");
 
         // Act
-        Set<String> phoneList = fireStationService.createPhoneList("1");
+        List<String> phoneList = fireStationService.createPhoneList("1");
 
         // Assert
         assertEquals(2, phoneList.size());
-        verify(personServiceMock, times(2)).getPersons();
+        verify(personServiceMock, times(1)).getPersons();
+    }
+
+    @Test
+    void createPhoneList_shouldGiveEachNumberOnce_whateverItsSeparators() {
+        // Arrange
+        List<Person> persons = new ArrayList<>();
+        persons.add(new Person("Anne", "Shirley", "Green Gables", "Avonlea", "12345", "841-874-6512", "anne.shirley@avonlea.com"));
+        persons.add(new Person("Marilla", "Cuthbert", "Green Gables", "Avonlea", "12345", "8418746512", "marilla.cuthbert@avonlea.com"));
+        persons.add(new Person("Diana", "Barry", "Orchard Slope", "Avonlea", "12345", "841-874-6513", "diana.barry@avonlea.com"));
+        persons.add(new Person("Minnie", "Barry", "Orchard Slope", "Avonlea", "12345", "555-0101", "minnie.barry@avonlea.com"));
+        persons.add(new Person("Mary", "Barry", "Orchard Slope", "Avonlea", "12345", "555-0101", "mary.barry@avonlea.com"));
+
+        doReturn(persons).when(personServiceMock).getPersons();
+        doReturn(new ArrayList<>(List.of("Green Gables", "Orchard Slope"))).when(fireStationRepositoryMock).getCoveredAddresses("1");
+
+        // Act
+        List<String> phoneList = fireStationService.createPhoneList("1");
+
+        // Assert
+        assertEquals(List.of("841-874-6512", "841-874-6513", "555-0101"), phoneList);
     }
 
     @Test
@@ -0,0 +1,31 @@
+package com.safetynet.alerts.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WarmUpServiceTest {
+
+    @Test
+    void parseMix_shouldRepeatEachAlertByItsWeight() {
+        // Act
+        List<String> cycle = WarmUpService.parseMix("firestation:2, flood:1,fire");
+
+        // Assert
+        assertEquals(List.of("firestation", "firestation", "flood", "fire"), cycle);
+    }
+
+    @Test
+    void parseMix_shouldThrowException_whenTheAlertIsUnknown() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> WarmUpService.parseMix("firestation:2,personInfo:1"));
+    }
+
+    @Test
+    void parseMix_shouldThrowException_whenNoWeightIsPositive() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> WarmUpService.parseMix("firestation:0"));
+    }
+}
@@ -0,0 +1,262 @@
+package com.safetynet.alerts.tools;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Generates a data file with the same structure as data.json, at any size, for the tests, the benchmarks and the load tests.
+ * The persons live by households at an address: one or two adults and sometimes children, sharing a last name.
+ * Consecutive addresses are in the same city and covered by the same fire station, every address being covered.
+ * The data only depends on the number of persons and the seed: the same arguments always give the same file.
+ * The file is streamed, so millions of persons can be generated without keeping them in memory.
+ * Command line usage: DataGenerator {persons} [output file] [seed]
+ */
+public class DataGenerator {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(DataGenerator.class);
+
+    public static final long DEFAULT_SEED = 20240101L;
+    public static final int MAX_PERSONS = 10_000_000;
+
+    /** The ages are computed at this date and not today, so the file does not change with the date of generation. */
+    static final LocalDate REFERENCE_DATE = LocalDate.of(2024, 1, 1);
+    static final int HOUSEHOLDS_PER_STATION = 100;
+    static final int HOUSEHOLDS_PER_CITY = 2_000;
+    static final int MAX_HOUSEHOLD_SIZE = 6;
+    /** Percentage of households of 1 to MAX_HOUSEHOLD_SIZE persons. */
+    private static final int[] HOUSEHOLD_SIZE_WEIGHTS = {28, 35, 15, 13, 6, 3};
+    private static final DateTimeFormatter BIRTHDATE_FORMAT = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private static final String[] FIRST_NAMES = {
+            "John", "Jacob", "Tenley", "Roger", "Felicia", "Jonanathan", "Tessa", "Peter", "Foster", "Tony", "Lily", "Sophia",
+            "Warren", "Zach", "Reginold", "Jamie", "Ron", "Allison", "Brian", "Shawna", "Kendrik", "Clive", "Eric", "Emma",
+            "Louis", "Hugo", "Chloe", "Lucas", "Manon", "Nathan", "Camille", "Jules", "Sarah", "Adam", "Ines", "Leo",
+            "Alice", "Paul", "Jade", "Arthur", "Louise", "Gabriel", "Lea", "Raphael", "Rose", "Victor", "Anna", "Martin"};
+    private static final String[] LAST_NAMES = {
+            "Boyd", "Marrack", "Ferguson", "Duncan", "Cadigan", "Stelzer", "Carman", "Shepard", "Peters", "Walker",
+            "Zemicks", "Cooper", "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand",
+            "Leroy", "Moreau", "Simon", "Laurent", "Lefebvre", "Michel", "Garcia", "David", "Bertrand", "Roux",
+            "Vincent", "Fournier", "Morel", "Girard", "Andre", "Mercier", "Dupont", "Lambert", "Bonnet", "Francois",
+            "Martinez", "Legrand", "Garnier", "Faure", "Rousseau", "Blanc", "Guerin", "Muller", "Henry", "Roussel"};
+    private static final String[] STREETS = {
+            "Culver St", "Buttonwood Cir", "Ash St", "Binoc Ave", "Gershwin St", "Broadway", "Elm St", "Oak Ave", "Pine Rd", "Maple Dr",
+            "Cedar Ln", "Birch Way", "Willow Ct", "Spruce Pl", "Walnut St", "Chestnut Ave", "Poplar Rd", "Hickory Dr", "Juniper Ln", "Laurel Way"};
+    private static final String[] CITIES = {
+            "Culver", "Springfield", "Riverside", "Fairview", "Madison", "Georgetown", "Salem", "Franklin", "Clinton", "Greenville"};
+    private static final String[] MEDICATIONS = {
+            "aznol:60mg", "aznol:200mg", "aznol:350mg", "dodoxadin:30mg", "hydrapermazol:100mg", "hydrapermazol:300mg", "hydrapermazol:400mg",
+            "hydrapermazol:900mg", "ibupurin:200mg", "noxidian:100mg", "noznazol:250mg", "pharmacol:2500mg", "pharmacol:5000mg",
+            "terazine:10mg", "terazine:500mg", "tetracyclaz:650mg", "thradox:700mg", "tradoxidine:400mg"};
+    private static final String[] ALLERGIES = {"nillacilan", "peanut", "shellfish", "aznol", "illisoxian", "xilliathal"};
+
+    private final int personCount;
+    private final long seed;
+
+    /* CONSTRUCTOR */
+    /**
+     * @param personCount the number of persons of the generated data, from 1 to MAX_PERSONS.
+     * @param seed the seed of the random choices.
+     * @throws IllegalArgumentException if the number of persons is out of range.
+     */
+    public DataGenerator(int personCount, long seed) {
+        if (personCount < 1 || personCount > MAX_PERSONS) {
+            throw new IllegalArgumentException("The number of persons must be between 1 and " + MAX_PERSONS + ": " + personCount);
+        }
+        this.personCount = personCount;
+        this.seed = seed;
+    }
+
+    /* METHODS */
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 3) {
+            System.err.println("Usage: DataGenerator {persons} [output file] [seed]");
+            System.exit(1);
+        }
+        int personCount = Integer.parseInt(args[0]);
+        Path file = Path.of(args.length > 1 ? args[1] : "target/data-" + personCount + ".json");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        new DataGenerator(personCount, seed).write(file);
+    }
+
+    /**
+     * Writes the generated data to a file, creating its parent directories.
+     *
+     * @param file the file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16)) {
+            write(outputStream);
+        }
+        logger.info("{} persons generated with the seed {} in {}", personCount, seed, file);
+    }
+
+    /**
+     * Writes the generated data as a JSON object with the persons, firestations and medicalrecords arrays.
+     * The households are generated again for each array, which avoids keeping the whole data in memory.
+     *
+     * @param outputStream the stream receiving the JSON, left open.
+     * @throws IOException if an I/O error occurs while writing to the stream.
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+
+            generator.writeArrayFieldStart("persons");
+            forEachHousehold(household -> write(generator, household.persons()));
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("firestations");
+            forEachHousehold(household -> write(generator, household.fireStation()));
+            generator.writeEndArray();
+
+            generator.writeArrayFieldStart("medicalrecords");
+            forEachHousehold(household -> write(generator, household.medicalRecords()));
+            generator.writeEndArray();
+
+            generator.writeEndObject();
+        }
+    }
+
+    private void write(JsonGenerator generator, Object value) {
+        try {
+            if (value instanceof List<?> values) {
+                for (Object element : values) {
+                    generator.writeObject(element);
+                }
+            } else {
+                generator.writeObject(value);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error while writing the generated data", e);
+        }
+    }
+
+    /**
+     * Generates the households one by one, until the number of persons is reached.
+     * The last household is truncated when needed, so the file has exactly the requested number of persons.
+     *
+     * @param consumer the action applied to each household.
+     */
+    void forEachHousehold(Consumer<Household> consumer) {
+        int generatedPersons = 0;
+        for (int index = 0; generatedPersons < personCount; index++) {
+            Household household = createHousehold(index, personCount - generatedPersons);
+            generatedPersons += household.persons().size();
+            consumer.accept(household);
+        }
+    }
+
+    /**
+     * Creates a household from its own random generator, so it is the same whenever it is generated again.
+     * The households of the same last name get distinct blocks of first names, so the full names are unique.
+     */
+    private Household createHousehold(int index, int remainingPersons) {
+        Random random = new Random(seed ^ (index * 0x9E3779B97F4A7C15L));
+        int size = Math.min(drawHouseholdSize(random), remainingPersons);
+
+        int round = index / LAST_NAMES.length;
+        int slots = FIRST_NAMES.length / MAX_HOUSEHOLD_SIZE;
+        int generation = round / slots;
+        String lastName = LAST_NAMES[index % LAST_NAMES.length] + (generation == 0 ? "" : "-" + generation);
+        int firstNameBlock = (round % slots) * MAX_HOUSEHOLD_SIZE;
+        int firstNameOffset = random.nextInt(MAX_HOUSEHOLD_SIZE);
+
+        String address = (1 + 2 * (index / STREETS.length)) + " " + STREETS[index % STREETS.length];
+        int cityIndex = index / HOUSEHOLDS_PER_CITY;
+        String city = CITIES[cityIndex % CITIES.length] + (cityIndex < CITIES.length ? "" : " " + (cityIndex / CITIES.length + 1));
+        String zip = String.format("%05d", 97451 + cityIndex);
+        String station = String.valueOf(index / HOUSEHOLDS_PER_STATION + 1);
+        String householdPhone = drawPhone(random);
+
+        // A household of 2 persons or more has two adults, except single parents; the other members are children.
+        int adults = size == 1 || random.nextInt(10) == 0 ? 1 : 2;
+        int parentAge = size == 1 ? 18 + random.nextInt(78) : 20 + random.nextInt(56);
+        List<Person> persons = new ArrayList<>(size);
+        List<MedicalRecord> medicalRecords = new ArrayList<>(size);
+        for (int member = 0; member < size; member++) {
+            String firstName = FIRST_NAMES[firstNameBlock + (firstNameOffset + member) % MAX_HOUSEHOLD_SIZE];
+            boolean adult = member < adults;
+            int age = adult ? Math.max(18, parentAge + random.nextInt(11) - 5) : random.nextInt(Math.min(18, parentAge - 17));
+            String phone = adult && random.nextBoolean() ? drawPhone(random) : householdPhone;
+            String email = (firstName + "." + lastName).toLowerCase() + "@email.com";
+            persons.add(new Person(firstName, lastName, address, city, zip, phone, email));
+
+            LocalDate birthdate = REFERENCE_DATE.minusYears(age).minusDays(random.nextInt(365));
+            medicalRecords.add(new MedicalRecord(firstName, lastName, birthdate.format(BIRTHDATE_FORMAT),
+                    draw(random, MEDICATIONS, drawMedicationCount(random, age)), draw(random, ALLERGIES, drawAllergyCount(random))));
+        }
+        return new Household(persons, new FireStation(address, station), medicalRecords);
+    }
+
+    private int drawHouseholdSize(Random random) {
+        int draw = random.nextInt(100);
+        for (int size = 1; size <= HOUSEHOLD_SIZE_WEIGHTS.length; size++) {
+            draw -= HOUSEHOLD_SIZE_WEIGHTS[size - 1];
+            if (draw < 0) {
+                return size;
+            }
+        }
+        return MAX_HOUSEHOLD_SIZE;
+    }
+
+    /** The older the person, the more medications: up to 1 for a child, 2 for an adult and 4 after 60 years. */
+    private int drawMedicationCount(Random random, int age) {
+        if (age < 18) {
+            return random.nextInt(2);
+        }
+        return age < 60 ? random.nextInt(3) : 1 + random.nextInt(4);
+    }
+
+    /** 60% of the persons have no allergy, 30% one and 10% two. */
+    private int drawAllergyCount(Random random) {
+        int draw = random.nextInt(10);
+        return draw < 6 ? 0 : draw < 9 ? 1 : 2;
+    }
+
+    private ArrayList<String> draw(Random random, String[] vocabulary, int count) {
+        ArrayList<String> values = new ArrayList<>(count);
+        while (values.size() < count) {
+            String value = vocabulary[random.nextInt(vocabulary.length)];
+            if (!values.contains(value)) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private String drawPhone(Random random) {
+        return String.format("841-%03d-%04d", 100 + random.nextInt(900), random.nextInt(10_000));
+    }
+
+    /**
+     * The persons of an address, the fire station covering it and the medical records of the persons.
+     */
+    record Household(List<Person> persons, FireStation fireStation, List<MedicalRecord> medicalRecords) {
+    }
+}
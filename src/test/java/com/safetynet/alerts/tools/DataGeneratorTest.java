@@ -0,0 +1,73 @@
+package com.safetynet.alerts.tools;
+
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.Person;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataGeneratorTest {
+
+    @TempDir
+    Path temporaryDirectory;
+
+    @Test
+    void write_shouldGenerateTheSameData_whenTheSeedIsTheSame() throws IOException {
+        // Arrange
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        ByteArrayOutputStream otherSeed = new ByteArrayOutputStream();
+
+        // Act
+        new DataGenerator(1000, 7L).write(first);
+        new DataGenerator(1000, 7L).write(second);
+        new DataGenerator(1000, 8L).write(otherSeed);
+
+        // Assert
+        assertArrayEquals(first.toByteArray(), second.toByteArray());
+        assertNotEquals(first.toString(), otherSeed.toString());
+    }
+
+    @Test
+    void write_shouldGenerateLoadableHouseholdsCoveredByStations() throws IOException {
+        // Arrange
+        Path file = temporaryDirectory.resolve("data.json");
+
+        // Act
+        new DataGenerator(1000, DataGenerator.DEFAULT_SEED).write(file);
+        DataRepository dataRepository = new DataRepository(file.toString());
+        PersonRepository personRepository = new PersonRepository(dataRepository);
+        FireStationRepository fireStationRepository = new FireStationRepository(dataRepository);
+        MedicalRecordRepository medicalRecordRepository = new MedicalRecordRepository(dataRepository);
+
+        // Assert
+        // No person is removed as a duplicate, and every person has a medical record and a fire station.
+        assertEquals(1000, personRepository.findAll().size());
+        assertEquals(1000, medicalRecordRepository.findAll().size());
+        for (Person person : personRepository.findAll()) {
+            assertNotNull(medicalRecordRepository.findMedicalRecordsByFullName(person.getFirstName(), person.getLastName()));
+            assertNotNull(fireStationRepository.getStationNumber(person.getAddress()));
+        }
+        int addresses = personRepository.findAll().stream().map(Person::getAddress).collect(Collectors.toSet()).size();
+        assertEquals(addresses, fireStationRepository.findAll().size());
+        assertTrue(addresses < 1000);
+        assertTrue(fireStationRepository.findAll().stream().map(FireStation::getStation).distinct().count() > 1);
+    }
+
+    @Test
+    void constructor_shouldThrowException_whenTheNumberOfPersonsIsOutOfRange() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new DataGenerator(0, DataGenerator.DEFAULT_SEED));
+        assertThrows(IllegalArgumentException.class, () -> new DataGenerator(DataGenerator.MAX_PERSONS + 1, DataGenerator.DEFAULT_SEED));
+    }
+}
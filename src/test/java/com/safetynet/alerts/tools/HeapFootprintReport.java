@@ -0,0 +1,167 @@
+package com.safetynet.alerts.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.repository.ChangeLog;
+import com.safetynet.alerts.repository.DataRepository;
+import com.safetynet.alerts.repository.FireStationRepository;
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import com.safetynet.alerts.repository.StringDictionary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Compares the heap footprint of the three lists of a generated dataset loaded without and with the StringDictionary.
+ * For each load, it counts the distinct String instances of the repeated fields (address, city and zip of the persons,
+ * address and station of the fire stations, medications and allergies of the medical records) and estimates their size,
+ * which is exact, and it measures the heap retained by the lists after a garbage collection, which is approximate.
+ * Command line usage: HeapFootprintReport [persons] [output file], 100000 persons and target/heap-footprint-report.json by default.
+ */
+public class HeapFootprintReport {
+
+    /* VARIABLES */
+    private static final int DEFAULT_PERSONS = 100_000;
+    private static final String DEFAULT_OUTPUT = "target/heap-footprint-report.json";
+
+    /** Header of a String object with compressed references, its fields included. */
+    private static final int STRING_BYTES = 24;
+    /** Header of a byte array with compressed references, its length included. */
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    static final String WITHOUT_DICTIONARY = "withoutDictionary";
+    static final String WITH_DICTIONARY = "withDictionary";
+
+    private final int persons;
+
+    /* CONSTRUCTOR */
+    /**
+     * @param persons the number of persons of the generated dataset.
+     * @throws IllegalArgumentException if the number of persons is not positive.
+     */
+    public HeapFootprintReport(int persons) {
+        if (persons < 1) {
+            throw new IllegalArgumentException("The number of persons must be positive: " + persons);
+        }
+        this.persons = persons;
+    }
+
+    /* METHODS */
+
+    public static void main(String[] args) throws IOException {
+        int persons = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PERSONS;
+        Path output = Path.of(args.length > 1 ? args[1] : DEFAULT_OUTPUT);
+        Map<String, Object> report = new HeapFootprintReport(persons).run();
+        String json = new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        Files.writeString(output, json);
+        System.out.println(json);
+    }
+
+    /**
+     * Generates the dataset, then loads it without and with the dictionary.
+     *
+     * @return the report: the number of persons, the footprint of each load and the reduction brought by the dictionary.
+     * @throws IOException if the dataset cannot be generated.
+     */
+    public Map<String, Object> run() throws IOException {
+        Path dataFile = Files.createTempFile("safetynet-heap-" + persons + "-", ".json");
+        try {
+            new DataGenerator(persons, DataGenerator.DEFAULT_SEED).write(dataFile);
+            Map<String, Object> withoutDictionary = measure(dataFile, false);
+            Map<String, Object> withDictionary = measure(dataFile, true);
+
+            Map<String, Object> reduction = new LinkedHashMap<>();
+            for (String key : List.of("repeatedFieldStrings", "repeatedFieldBytes", "retainedHeapBytes")) {
+                long before = (long) withoutDictionary.get(key);
+                long after = (long) withDictionary.get(key);
+                reduction.put(key, before - after);
+                reduction.put(key + "Percent", before == 0 ? 0 : 100.0 * (before - after) / before);
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("persons", persons);
+            report.put(WITHOUT_DICTIONARY, withoutDictionary);
+            report.put(WITH_DICTIONARY, withDictionary);
+            report.put("reduction", reduction);
+            return report;
+        } finally {
+            Files.deleteIfExists(dataFile);
+        }
+    }
+
+    private Map<String, Object> measure(Path dataFile, boolean dictionaryEnabled) {
+        DataRepository dataRepository = new DataRepository(dataFile.toString());
+        ChangeLog changeLog = new ChangeLog();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StringDictionary dictionary = new StringDictionary(dictionaryEnabled, meterRegistry);
+        PersonRepository personRepository = new PersonRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        FireStationRepository fireStationRepository = new FireStationRepository(dataRepository, changeLog, meterRegistry, dictionary);
+        MedicalRecordRepository medicalRecordRepository = new MedicalRecordRepository(dataRepository, changeLog, meterRegistry, dictionary);
+
+        long heapBefore = usedHeapAfterGc();
+        JsonNode data = dataRepository.getData();
+        personRepository.createListPersons(data);
+        fireStationRepository.createListFireStations(data);
+        medicalRecordRepository.createListMedicalRecords(data);
+        // Without the dictionary, the lists keep the values of the JSON tree, so the tree is released before the measure.
+        data = null;
+        long heapAfter = usedHeapAfterGc();
+
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        long occurrences = Stream.of(
+                        personRepository.findAll().stream().flatMap(person -> Stream.of(person.getAddress(), person.getCity(), person.getZip())),
+                        fireStationRepository.findAll().stream().flatMap(fireStation -> Stream.of(fireStation.getAddress(), fireStation.getStation())),
+                        medicalRecordRepository.findAll().stream().flatMap(HeapFootprintReport::medicationsAndAllergies))
+                .flatMap(values -> values)
+                .filter(value -> value != null)
+                .peek(instances::add)
+                .count();
+
+        Map<String, Object> footprint = new LinkedHashMap<>();
+        footprint.put("repeatedFieldValues", occurrences);
+        footprint.put("repeatedFieldStrings", (long) instances.size());
+        footprint.put("repeatedFieldBytes", instances.stream().mapToLong(HeapFootprintReport::stringBytes).sum());
+        footprint.put("retainedHeapBytes", heapAfter - heapBefore);
+        footprint.put("dictionarySize", (long) dictionary.size());
+        return footprint;
+    }
+
+    private static Stream<String> medicationsAndAllergies(MedicalRecord medicalRecord) {
+        Stream<String> medications = medicalRecord.getMedications() == null ? Stream.empty() : medicalRecord.getMedications().stream();
+        Stream<String> allergies = medicalRecord.getAllergies() == null ? Stream.empty() : medicalRecord.getAllergies().stream();
+        return Stream.concat(medications, allergies);
+    }
+
+    /**
+     * Estimates the size of a String and of its byte array, one byte per character for a Latin-1 value and two otherwise.
+     */
+    static long stringBytes(String value) {
+        boolean latin1 = value.chars().allMatch(character -> character < 256);
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) value.length() * (latin1 ? 1 : 2);
+        return STRING_BYTES + (arrayBytes + 7) / 8 * 8;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,35 @@
+package com.safetynet.alerts.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapFootprintReportTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_shouldShareTheRepeatedValues_withTheDictionary() throws IOException {
+        // Act
+        Map<String, Object> report = new HeapFootprintReport(2000).run();
+
+        // Assert
+        Map<String, Object> withoutDictionary = (Map<String, Object>) report.get(HeapFootprintReport.WITHOUT_DICTIONARY);
+        Map<String, Object> withDictionary = (Map<String, Object>) report.get(HeapFootprintReport.WITH_DICTIONARY);
+        assertEquals(withoutDictionary.get("repeatedFieldValues"), withDictionary.get("repeatedFieldValues"));
+        assertEquals(withoutDictionary.get("repeatedFieldValues"), withoutDictionary.get("repeatedFieldStrings"));
+        assertEquals(withDictionary.get("dictionarySize"), withDictionary.get("repeatedFieldStrings"));
+        assertTrue((long) withDictionary.get("repeatedFieldStrings") * 3 < (long) withoutDictionary.get("repeatedFieldStrings"));
+        assertTrue((long) withDictionary.get("repeatedFieldBytes") < (long) withoutDictionary.get("repeatedFieldBytes"));
+    }
+
+    @Test
+    void stringBytes_shouldCountTheHeadersAndTheAlignedArray() {
+        // Act & Assert
+        assertEquals(24 + 24, HeapFootprintReport.stringBytes("Culver"));
+        assertEquals(24 + 16, HeapFootprintReport.stringBytes(""));
+        assertEquals(24 + 24, HeapFootprintReport.stringBytes("Ā"));
+    }
+}
@@ -0,0 +1,126 @@
+package com.safetynet.alerts.tools;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records the latencies of one operation of the LoadDriver, in microseconds, and summarises them in percentiles.
+ * Every latency is kept, so the percentiles are exact: a run of a few million requests only takes a few megabytes.
+ */
+public class LatencyRecorder {
+
+    /* VARIABLES */
+    private long[] latencies = new long[1024];
+    private int count;
+    private long errors;
+    private long dropped;
+
+    /* METHODS */
+
+    /**
+     * Records the latency of a request which received a response, successful or not.
+     *
+     * @param latencyMicros the time between the planned start of the request and its response, in microseconds.
+     * @param success false if the request failed or the response has an error status.
+     */
+    public synchronized void record(long latencyMicros, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = latencyMicros;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    /**
+     * Records a request which was not sent because too many requests were waiting for a response.
+     */
+    public synchronized void recordDropped() {
+        dropped++;
+    }
+
+    /**
+     * Merges the latencies of another recorder into this one.
+     *
+     * @param other the recorder to merge.
+     */
+    public synchronized void add(LatencyRecorder other) {
+        synchronized (other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, Math.max(count + other.count, latencies.length * 2));
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            errors += other.errors;
+            dropped += other.dropped;
+        }
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Gives the latency under which the given percentage of the recorded latencies are, with the nearest-rank method.
+     *
+     * @param percentile the percentage, from 0 excluded to 100 included.
+     * @return the latency in microseconds, or 0 if no latency was recorded.
+     * @throws IllegalArgumentException if the percentage is out of range.
+     */
+    public synchronized long getPercentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("The percentile must be greater than 0 and at most 100: " + percentile);
+        }
+        return rank(sortedLatencies(), percentile);
+    }
+
+    /**
+     * Summarises the recorded requests for the JSON report of the LoadDriver.
+     *
+     * @param durationSeconds the measured duration, to compute the throughput.
+     * @return the count, errors, dropped requests, throughput per second and latency percentiles in milliseconds.
+     */
+    public synchronized Map<String, Object> toReport(double durationSeconds) {
+        long[] sorted = sortedLatencies();
+        Map<String, Object> latencyMillis = new LinkedHashMap<>();
+        latencyMillis.put("mean", Arrays.stream(sorted).average().orElse(0) / 1000);
+        latencyMillis.put("p50", rank(sorted, 50) / 1000.0);
+        latencyMillis.put("p90", rank(sorted, 90) / 1000.0);
+        latencyMillis.put("p99", rank(sorted, 99) / 1000.0);
+        latencyMillis.put("p999", rank(sorted, 99.9) / 1000.0);
+        latencyMillis.put("max", count == 0 ? 0 : sorted[count - 1] / 1000.0);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("count", count);
+        report.put("errors", errors);
+        report.put("dropped", dropped);
+        report.put("throughputPerSecond", durationSeconds > 0 ? (count - errors) / durationSeconds : 0);
+        report.put("latencyMillis", latencyMillis);
+        return report;
+    }
+
+    private long[] sortedLatencies() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private long rank(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        // The small margin keeps a rank which is a whole number, like 99.9% of 2000, from being rounded up by the floating point error.
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length - 1e-9);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+}
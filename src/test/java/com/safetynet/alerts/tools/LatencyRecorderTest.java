@@ -0,0 +1,37 @@
+package com.safetynet.alerts.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getPercentile_shouldUseTheNearestRank() {
+        // Arrange
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int latency = 2000; latency >= 1; latency--) {
+            recorder.record(latency * 1000L, latency % 100 != 0);
+        }
+        LatencyRecorder other = new LatencyRecorder();
+        other.recordDropped();
+
+        // Act
+        recorder.add(other);
+        Map<String, Object> report = recorder.toReport(2);
+
+        // Assert
+        assertEquals(1_000_000, recorder.getPercentile(50));
+        assertEquals(1_980_000, recorder.getPercentile(99));
+        assertEquals(2_000_000, recorder.getPercentile(100));
+        assertEquals(2000, report.get("count"));
+        assertEquals(20L, report.get("errors"));
+        assertEquals(1L, report.get("dropped"));
+        assertEquals(990.0, report.get("throughputPerSecond"));
+        assertEquals(1998.0, ((Map<String, Object>) report.get("latencyMillis")).get("p999"));
+        assertThrows(IllegalArgumentException.class, () -> recorder.getPercentile(0));
+    }
+}
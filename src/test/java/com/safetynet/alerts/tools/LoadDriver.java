@@ -0,0 +1,398 @@
+package com.safetynet.alerts.tools;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.safetynet.alerts.model.FireStation;
+import com.safetynet.alerts.model.MedicalRecord;
+import com.safetynet.alerts.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a mix of alert requests and person updates to a running application and reports the throughput and the
+ * latency percentiles of each operation as JSON.
+ * The requests follow an open model: they start at random times (a Poisson process at the given rate) whatever the
+ * response times, each one on its own virtual thread, and the latency is measured from the planned start of the request.
+ * A slow application thus shows growing latencies instead of a lower request rate.
+ * The writes only create, update and delete residents made by the driver, under a last name specific to the run.
+ * A resident is created as a client does: the medical record first, then the person, so the alerts always find the
+ * medical record of a person; and is deleted with its medical record in one request.
+ * Command line usage: LoadDriver [key=value...], the keys and default values being those of DEFAULT_SETTINGS.
+ */
+public class LoadDriver {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final Map<String, String> DEFAULT_SETTINGS = Map.of(
+            "url", "http://localhost:8080",
+            "rate", "200",
+            "duration", "60",
+            "warmup", "10",
+            "mix", "phoneAlert:30,fire:30,flood:20,createResident:8,updatePerson:8,deleteResident:4",
+            "maxInFlight", "10000",
+            "timeout", "10",
+            "seed", String.valueOf(DataGenerator.DEFAULT_SEED),
+            "output", "target/load-report.json",
+            "cleanup", "true");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> settings;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String runName = "Driver" + Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong createdPersons = new AtomicLong();
+    private final ConcurrentLinkedQueue<Person> availablePersons = new ConcurrentLinkedQueue<>();
+
+    private final List<String> addresses = new ArrayList<>();
+    private final List<String> stations = new ArrayList<>();
+
+    /* CONSTRUCTOR */
+    /**
+     * @param settings the settings overriding the defaults.
+     * @throws IllegalArgumentException if a setting is unknown.
+     */
+    public LoadDriver(Map<String, String> settings) {
+        for (String key : settings.keySet()) {
+            if (!DEFAULT_SETTINGS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown setting " + key + ", expected one of " + DEFAULT_SETTINGS.keySet());
+            }
+        }
+        this.settings = new LinkedHashMap<>(DEFAULT_SETTINGS);
+        this.settings.putAll(settings);
+        this.baseUrl = this.settings.get("url");
+        this.client = HttpClient.newBuilder().executor(executor).connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    /* METHODS */
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                System.err.println("Usage: LoadDriver [key=value...] with the keys " + DEFAULT_SETTINGS.keySet());
+                System.exit(1);
+            }
+            settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        LoadDriver loadDriver = new LoadDriver(settings);
+        try {
+            Map<String, Object> report = loadDriver.run();
+            String json = loadDriver.objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+            Path output = Path.of(loadDriver.settings.get("output"));
+            if (output.toAbsolutePath().getParent() != null) {
+                Files.createDirectories(output.toAbsolutePath().getParent());
+            }
+            Files.writeString(output, json);
+            System.out.println(json);
+        } finally {
+            loadDriver.executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the targets of the requests, sends the requests during the warm-up and the measured duration,
+     * then waits for the last responses and deletes the residents created by the run.
+     *
+     * @return the report: the settings, the totals and the throughput and latencies of each operation.
+     * @throws IOException if the targets cannot be read from the application.
+     * @throws InterruptedException if the run is interrupted.
+     */
+    public Map<String, Object> run() throws IOException, InterruptedException {
+        loadTargets();
+        Map<Operation, Integer> mix = parseMix(settings.get("mix"));
+        Map<Operation, LatencyRecorder> recorders = new LinkedHashMap<>();
+        mix.keySet().forEach(operation -> recorders.put(operation, new LatencyRecorder()));
+        // An update or a deletion without any resident to change creates one, and is measured as a creation.
+        if (mix.keySet().stream().anyMatch(Operation::changesResident)) {
+            recorders.putIfAbsent(Operation.CREATE_RESIDENT, new LatencyRecorder());
+        }
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        double rate = Double.parseDouble(settings.get("rate"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(settings.get("warmup")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(settings.get("duration")));
+        int maxInFlight = Integer.parseInt(settings.get("maxInFlight"));
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Random random = new Random(Long.parseLong(settings.get("seed")));
+
+        logger.info("Sending {} requests per second to {} for {} s after a warm-up of {} s", rate, baseUrl, settings.get("duration"), settings.get("warmup"));
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + durationNanos;
+        long plannedStart = start;
+        while (true) {
+            // Exponential intervals between the requests give a Poisson process of the requested rate.
+            plannedStart += (long) (-Math.log(1 - random.nextDouble()) / rate * 1_000_000_000L);
+            if (plannedStart >= end) {
+                break;
+            }
+            long wait = plannedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = drawOperation(mix, totalWeight, random);
+            boolean measured = plannedStart >= measureStart;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    recorders.get(operation).recordDropped();
+                }
+                continue;
+            }
+            long requestStart = plannedStart;
+            long requestSeed = random.nextLong();
+            executor.execute(() -> {
+                try {
+                    Person person = operation.changesResident() ? availablePersons.poll() : null;
+                    Operation sentOperation = operation.changesResident() && person == null ? Operation.CREATE_RESIDENT : operation;
+                    boolean success = send(sentOperation, person, new Random(requestSeed));
+                    if (measured) {
+                        recorders.get(sentOperation).record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - requestStart), success);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        if (!inFlight.tryAcquire(maxInFlight, Long.parseLong(settings.get("timeout")), TimeUnit.SECONDS)) {
+            logger.warn("{} requests still waiting for a response at the end of the run", maxInFlight - inFlight.availablePermits());
+        }
+        if (Boolean.parseBoolean(settings.get("cleanup"))) {
+            cleanUp();
+        }
+        return createReport(recorders, durationNanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Reads up to 5000 fire stations to draw the addresses and station numbers of the alert requests.
+     */
+    private void loadTargets() throws IOException, InterruptedException {
+        String cursor = null;
+        do {
+            String uri = baseUrl + "/firestations?limit=1000" + (cursor == null ? "" : "&cursor=" + encode(cursor));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("Cannot read the fire stations from " + uri + ": HTTP " + response.statusCode());
+            }
+            JsonNode page = objectMapper.readTree(response.body());
+            for (JsonNode item : page.get("items")) {
+                FireStation fireStation = objectMapper.treeToValue(item, FireStation.class);
+                addresses.add(fireStation.getAddress());
+                if (!stations.contains(fireStation.getStation())) {
+                    stations.add(fireStation.getStation());
+                }
+            }
+            cursor = page.hasNonNull("nextCursor") ? page.get("nextCursor").asText() : null;
+        } while (cursor != null && addresses.size() < 5000);
+        if (addresses.isEmpty()) {
+            throw new IOException("No fire station recorded in the application at " + baseUrl);
+        }
+        logger.info("{} addresses and {} stations read from {}", addresses.size(), stations.size(), baseUrl);
+    }
+
+    /**
+     * Sends one request of the given operation and waits for its response.
+     *
+     * @param person the resident created by the run to update or delete, taken from the available persons.
+     * @return true if the response has a success status.
+     */
+    private boolean send(Operation operation, Person person, Random random) {
+        try {
+            String address = addresses.get(random.nextInt(addresses.size()));
+            String station = stations.get(random.nextInt(stations.size()));
+            switch (operation) {
+                case PHONE_ALERT:
+                    return send(HttpRequest.newBuilder(uri("/phoneAlert?firestation_number=" + encode(station))).GET());
+                case FIRE:
+                    return send(HttpRequest.newBuilder(uri("/fire?address=" + encode(address))).GET());
+                case FLOOD:
+                    String otherStation = stations.get(random.nextInt(stations.size()));
+                    return send(HttpRequest.newBuilder(uri("/flood/stations?stations=" + encode(station) + "," + encode(otherStation))).GET());
+                case UPDATE_PERSON: {
+                    person.setPhone(String.format("841-%03d-%04d", 100 + random.nextInt(900), random.nextInt(10_000)));
+                    boolean success = send(jsonRequest("/person").method("PUT", body(person)));
+                    availablePersons.add(person);
+                    return success;
+                }
+                case DELETE_RESIDENT:
+                    return deleteResident(person);
+                default:
+                    return createResident(address, random);
+            }
+        } catch (IOException e) {
+            logger.debug("Request {} failed: {}", operation, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private boolean createResident(String address, Random random) throws IOException, InterruptedException {
+        long number = createdPersons.incrementAndGet();
+        Person person = new Person("Load" + number, runName, address, "Culver", "97451", "841-874-0000", "load" + number + "@email.com");
+        String birthdate = String.format("%02d/%02d/%d", 1 + random.nextInt(12), 1 + random.nextInt(28), 1940 + random.nextInt(80));
+        MedicalRecord medicalRecord = new MedicalRecord(person.getFirstName(), runName, birthdate, new ArrayList<>(), new ArrayList<>());
+        boolean success = send(jsonRequest("/medicalrecord").POST(body(medicalRecord)))
+                && send(jsonRequest("/person").POST(body(person)));
+        if (success) {
+            availablePersons.add(person);
+        }
+        return success;
+    }
+
+    private boolean deleteResident(Person person) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(uri("/resident?first_name=" + encode(person.getFirstName()) + "&last_name=" + encode(person.getLastName()))).DELETE());
+    }
+
+    private boolean send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        request.timeout(Duration.ofSeconds(Long.parseLong(settings.get("timeout"))));
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+    }
+
+    private HttpRequest.Builder jsonRequest(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Content-Type", "application/json");
+    }
+
+    private HttpRequest.BodyPublisher body(Object value) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(value));
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create(baseUrl + pathAndQuery);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deletes the residents created by the run which are still in the application.
+     */
+    private void cleanUp() throws InterruptedException {
+        int deleted = 0;
+        for (Person person = availablePersons.poll(); person != null; person = availablePersons.poll()) {
+            try {
+                if (deleteResident(person)) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.warn("The resident {} {} created by the run could not be deleted: {}", person.getFirstName(), person.getLastName(), e.getMessage());
+            }
+        }
+        logger.info("{} residents created by the run deleted", deleted);
+    }
+
+    private Map<String, Object> createReport(Map<Operation, LatencyRecorder> recorders, double durationSeconds) {
+        LatencyRecorder total = new LatencyRecorder();
+        Map<String, Object> operations = new LinkedHashMap<>();
+        recorders.forEach((operation, recorder) -> {
+            total.add(recorder);
+            operations.put(operation.getName(), recorder.toReport(durationSeconds));
+        });
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        report.put("total", total.toReport(durationSeconds));
+        report.put("operations", operations);
+        return report;
+    }
+
+    /**
+     * Reads the weights of the operations, written as name:weight separated by commas.
+     *
+     * @param mix the weights, e.g. "phoneAlert:50,fire:50".
+     * @return the weight of each operation of the mix.
+     * @throws IllegalArgumentException if an operation is unknown or a weight is invalid.
+     */
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] nameAndWeight = entry.trim().split(":");
+            int weight = nameAndWeight.length == 2 ? Integer.parseInt(nameAndWeight[1].trim()) : -1;
+            if (weight < 0) {
+                throw new IllegalArgumentException("Invalid mix entry " + entry + ", expected name:weight");
+            }
+            if (weight > 0) {
+                weights.put(Operation.fromName(nameAndWeight[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation: " + mix);
+        }
+        return weights;
+    }
+
+    private Operation drawOperation(Map<Operation, Integer> mix, int totalWeight, Random random) {
+        int draw = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            draw -= entry.getValue();
+            if (draw < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("No operation drawn from the mix " + mix);
+    }
+
+    /**
+     * The operations of the mix, with their name in the mix setting and the report.
+     */
+    enum Operation {
+        PHONE_ALERT("phoneAlert"),
+        FIRE("fire"),
+        FLOOD("flood"),
+        CREATE_RESIDENT("createResident"),
+        UPDATE_PERSON("updatePerson"),
+        DELETE_RESIDENT("deleteResident");
+
+        private final String name;
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return true for the operations changing a resident created by the run, which create one when none is available.
+         */
+        boolean changesResident() {
+            return this == UPDATE_PERSON || this == DELETE_RESIDENT;
+        }
+
+        static Operation fromName(String name) {
+            for (Operation operation : values()) {
+                if (operation.name.equals(name)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation " + name + " in the mix");
+        }
+    }
+}
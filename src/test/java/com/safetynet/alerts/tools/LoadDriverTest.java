@@ -0,0 +1,90 @@
+package com.safetynet.alerts.tools;
+
+import com.safetynet.alerts.repository.MedicalRecordRepository;
+import com.safetynet.alerts.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadDriverTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @AfterEach
+    public void restoreOriginalData() throws IOException {
+        Files.copy(Paths.get("./src/main/resources/originalData.json"),
+                Paths.get("./src/main/resources/data.json"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        personRepository.createListPersons();
+        medicalRecordRepository.createListMedicalRecords();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_shouldReportEveryOperationOfTheMixAndDeleteTheCreatedResidents() throws Exception {
+        // Arrange
+        int persons = personRepository.findAll().size();
+        int medicalRecords = medicalRecordRepository.findAll().size();
+        LoadDriver loadDriver = new LoadDriver(Map.of("url", "http://localhost:" + port, "rate", "100", "duration", "2", "warmup", "0",
+                "mix", "phoneAlert:1,fire:1,flood:1,createResident:2,updatePerson:1,deleteResident:1"));
+
+        // Act
+        Map<String, Object> report = loadDriver.run();
+
+        // Assert
+        Map<String, Object> operations = (Map<String, Object>) report.get("operations");
+        assertEquals(6, operations.size());
+        Map<String, Object> total = (Map<String, Object>) report.get("total");
+        assertTrue((int) total.get("count") > 100);
+        assertEquals(0L, total.get("errors"));
+        Map<String, Object> latencies = (Map<String, Object>) ((Map<String, Object>) operations.get("fire")).get("latencyMillis");
+        assertTrue((double) latencies.get("p99") >= (double) latencies.get("p50"));
+        assertEquals(persons, personRepository.findAll().size());
+        assertEquals(medicalRecords, medicalRecordRepository.findAll().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_shouldMeasureAsCreations_theUpdatesSentWithoutAnyResidentToUpdate() throws Exception {
+        // Arrange
+        int persons = personRepository.findAll().size();
+        LoadDriver loadDriver = new LoadDriver(Map.of("url", "http://localhost:" + port, "rate", "20", "duration", "1", "warmup", "0",
+                "mix", "updatePerson:1"));
+
+        // Act
+        Map<String, Object> report = loadDriver.run();
+
+        // Assert
+        Map<String, Object> operations = (Map<String, Object>) report.get("operations");
+        assertEquals(2, operations.size());
+        assertTrue((int) ((Map<String, Object>) operations.get("createResident")).get("count") >= 1);
+        assertEquals(persons, personRepository.findAll().size());
+    }
+
+    @Test
+    void parseMix_shouldThrowException_whenAnOperationIsUnknown() {
+        // Act & Assert
+        assertEquals(2, LoadDriver.parseMix("phoneAlert:3, fire:1, flood:0").size());
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.parseMix("phoneAlert:3,sleep:1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadDriver.parseMix("phoneAlert"));
+    }
+}
@@ -0,0 +1,193 @@
+package com.safetynet.alerts.tools;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the time to first request of the application started by default and started with the build of the
+ * fast-startup profile: Spring AOT initializers and the class data sharing archive of the training run.
+ * Each run starts a new JVM, then sends the first request until it is answered with 200 OK, and the time is measured
+ * from the start of the process. The two launches alternate, so a drift of the machine affects both alike.
+ * Run after mvn -P fast-startup package, from the project directory, as the application reads its data file from there.
+ * Command line usage: StartupBenchmark [key=value...], the keys and default values being those of DEFAULT_SETTINGS.
+ */
+public class StartupBenchmark {
+
+    /* VARIABLES */
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    static final String DEFAULT = "default";
+    static final String FAST_STARTUP = "fastStartup";
+
+    private static final Map<String, String> DEFAULT_SETTINGS = Map.of(
+            "runs", "5",
+            "port", "18080",
+            "jar", "target/safetynet-alerts-0.0.1-SNAPSHOT.jar",
+            "fastStartupDirectory", "target/fast-startup",
+            "path", "/firestation?station_number=1",
+            "timeout", "120",
+            "output", "target/startup-report.json");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, String> settings;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    /* CONSTRUCTOR */
+    /**
+     * @param settings the settings overriding the defaults.
+     * @throws IllegalArgumentException if a setting is unknown.
+     */
+    public StartupBenchmark(Map<String, String> settings) {
+        for (String key : settings.keySet()) {
+            if (!DEFAULT_SETTINGS.containsKey(key)) {
+                throw new IllegalArgumentException("Unknown setting " + key + ", expected one of " + DEFAULT_SETTINGS.keySet());
+            }
+        }
+        this.settings = new LinkedHashMap<>(DEFAULT_SETTINGS);
+        this.settings.putAll(settings);
+    }
+
+    /* METHODS */
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                System.err.println("Usage: StartupBenchmark [key=value...] with the keys " + DEFAULT_SETTINGS.keySet());
+                System.exit(1);
+            }
+            settings.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        StartupBenchmark startupBenchmark = new StartupBenchmark(settings);
+        Map<String, Object> report = startupBenchmark.run();
+        String json = startupBenchmark.objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+        Path output = Path.of(startupBenchmark.settings.get("output"));
+        if (output.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+        }
+        Files.writeString(output, json);
+        System.out.println(json);
+    }
+
+    /**
+     * Starts the application the given number of times with each launch, alternating them.
+     *
+     * @return the report: the settings, the times to first request of each launch and the speedup of the fast startup.
+     * @throws IOException if the application cannot be started.
+     * @throws InterruptedException if the run is interrupted.
+     * @throws IllegalStateException if the application does not answer before the timeout.
+     */
+    public Map<String, Object> run() throws IOException, InterruptedException {
+        int runs = Integer.parseInt(settings.get("runs"));
+        Map<String, long[]> samples = new LinkedHashMap<>();
+        samples.put(DEFAULT, new long[runs]);
+        samples.put(FAST_STARTUP, new long[runs]);
+        for (int run = 0; run < runs; run++) {
+            for (Map.Entry<String, long[]> launch : samples.entrySet()) {
+                launch.getValue()[run] = timeToFirstRequest(launch.getKey());
+                logger.info("Run {} of {}: first request answered after {} ms", run + 1, launch.getKey(), launch.getValue()[run] / 1_000_000);
+            }
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("settings", settings);
+        Map<String, Object> launches = new LinkedHashMap<>();
+        samples.forEach((launch, nanos) -> launches.put(launch, summarize(nanos)));
+        report.put("timeToFirstRequestMillis", launches);
+        report.put("medianSpeedup", median(samples.get(DEFAULT)) / median(samples.get(FAST_STARTUP)));
+        return report;
+    }
+
+    /**
+     * Builds the command starting the application with the given launch.
+     *
+     * @param launch DEFAULT or FAST_STARTUP.
+     * @return the command line of the JVM.
+     * @throws IllegalArgumentException if the launch is unknown.
+     */
+    List<String> command(String launch) {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String port = "--server.port=" + settings.get("port");
+        return switch (launch) {
+            case DEFAULT -> List.of(java, "-jar", settings.get("jar"), port);
+            case FAST_STARTUP -> {
+                Path directory = Path.of(settings.get("fastStartupDirectory"));
+                String jarName = Path.of(settings.get("jar")).getFileName().toString();
+                yield List.of(java, "-XX:SharedArchiveFile=" + directory.resolve("application.jsa"), "-Dspring.aot.enabled=true",
+                        "-jar", directory.resolve(jarName).toString(), port);
+            }
+            default -> throw new IllegalArgumentException("Unknown launch " + launch + ", expected " + DEFAULT + " or " + FAST_STARTUP);
+        };
+    }
+
+    private long timeToFirstRequest(String launch) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + settings.get("port") + settings.get("path")))
+                .timeout(Duration.ofSeconds(5)).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Long.parseLong(settings.get("timeout")));
+        Path log = Path.of("target", "startup-" + launch + ".log");
+        Files.createDirectories(log.toAbsolutePath().getParent());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command(launch)).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("The " + launch + " application stopped with the code " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return System.nanoTime() - start;
+                    }
+                } catch (IOException e) {
+                    // The server is not listening yet.
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("The " + launch + " application did not answer within " + settings.get("timeout") + " seconds, see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static Map<String, Object> summarize(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        List<Double> runs = new ArrayList<>();
+        for (long sample : nanos) {
+            runs.add(sample / 1_000_000.0);
+        }
+        summary.put("runs", runs);
+        summary.put("min", sorted[0] / 1_000_000.0);
+        summary.put("median", median(nanos) / 1_000_000.0);
+        summary.put("max", sorted[sorted.length - 1] / 1_000_000.0);
+        return summary;
+    }
+
+    private static double median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+}
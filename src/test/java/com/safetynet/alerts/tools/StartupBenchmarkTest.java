@@ -0,0 +1,44 @@
+package com.safetynet.alerts.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupBenchmarkTest {
+
+    @Test
+    void command_shouldStartTheExtractedJarWithTheArchiveAndAot_forTheFastStartup() {
+        // Arrange
+        StartupBenchmark startupBenchmark = new StartupBenchmark(Map.of("port", "18181", "fastStartupDirectory", "build/fast"));
+
+        // Act
+        List<String> command = startupBenchmark.command(StartupBenchmark.FAST_STARTUP);
+
+        // Assert
+        assertTrue(command.contains("-XX:SharedArchiveFile=build/fast/application.jsa"));
+        assertTrue(command.contains("-Dspring.aot.enabled=true"));
+        assertTrue(command.contains("build/fast/safetynet-alerts-0.0.1-SNAPSHOT.jar"));
+        assertEquals("--server.port=18181", command.get(command.size() - 1));
+    }
+
+    @Test
+    void command_shouldStartThePackagedJarWithoutOptions_forTheDefaultLaunch() {
+        // Arrange
+        StartupBenchmark startupBenchmark = new StartupBenchmark(Map.of());
+
+        // Act
+        List<String> command = startupBenchmark.command(StartupBenchmark.DEFAULT);
+
+        // Assert
+        assertEquals(List.of("-jar", "target/safetynet-alerts-0.0.1-SNAPSHOT.jar", "--server.port=18080"), command.subList(1, command.size()));
+    }
+
+    @Test
+    void constructor_shouldThrowIllegalArgumentException_whenASettingIsUnknown() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new StartupBenchmark(Map.of("jars", "app.jar")));
+    }
+}